@@ -0,0 +1,99 @@
+-- Product search latency: legacy LIKE scan vs. tsvector/GIN full-text search.
+--
+-- Generates 1,000,000 products inside a transaction, times both queries for a set of
+-- Turkish keywords and prints p50/p99 per engine. Everything is rolled back at the end.
+--
+--   psql -h localhost -U ecommerce_user -d ecommerce_db -f scripts/benchmark/product_search_latency.sql
+--
+-- Requires the V2__product_search_vector migration to be applied.
+
+\set ON_ERROR_STOP on
+\timing off
+
+BEGIN;
+
+CREATE TEMP TABLE bench_category ON COMMIT DROP AS
+WITH inserted AS (
+    INSERT INTO category (name)
+        SELECT unnest(ARRAY ['Kulaklık', 'Oyuncu Ekipmanları', 'Telefon', 'Bilgisayar',
+                             'Şarj Aletleri', 'Ev Aletleri', 'Giyim', 'Kitap'])
+        RETURNING id)
+SELECT array_agg(id) AS ids FROM inserted;
+
+INSERT INTO product (name, sku, price, stock_quantity, is_active, category_id)
+SELECT w.adjectives[1 + (g % 10)] || ' ' || w.nouns[1 + ((g / 10) % 12)] || ' ' || g,
+       'BENCH-' || g,
+       (10 + (g % 5000))::NUMERIC(10, 2),
+       g % 50,
+       TRUE,
+       c.ids[1 + (g % 8)]
+FROM generate_series(1, 1000000) AS g
+         CROSS JOIN bench_category c
+         CROSS JOIN (SELECT ARRAY ['Kablosuz', 'Oyuncu', 'Ucuz', 'Profesyonel', 'Işıklı',
+                                   'Akıllı', 'Taşınabilir', 'Sessiz', 'Güçlü', 'Şık'] AS adjectives,
+                            ARRAY ['Kulaklık', 'Klavye', 'Fare', 'Telefon', 'Şarj Cihazı', 'Monitör',
+                                   'Hoparlör', 'Mikrofon', 'Kamera', 'Çanta', 'Saat', 'Ütü'] AS nouns) AS w;
+
+ANALYZE product;
+ANALYZE category;
+
+CREATE TEMP TABLE bench_timing
+(
+    engine  TEXT,
+    keyword TEXT,
+    millis  DOUBLE PRECISION
+) ON COMMIT DROP;
+
+DO
+$$
+    DECLARE
+        keywords TEXT[] := ARRAY ['kulaklık', 'oyuncu', 'kablosuz', 'ISIKLI', 'şarj', 'klavye',
+                                  'akilli saat', 'monitör', 'sessiz fare', 'cant'];
+        kw       TEXT;
+        tsq      TEXT;
+        started  TIMESTAMPTZ;
+        iteration INT;
+    BEGIN
+        FOR iteration IN 1..20
+            LOOP
+                FOREACH kw IN ARRAY keywords
+                    LOOP
+                        -- Same predicate ProductRepository.searchProducts used before V2
+                        started := clock_timestamp();
+                        PERFORM count(*)
+                        FROM product p
+                                 LEFT JOIN category c ON c.id = p.category_id
+                        WHERE (lower(p.name) LIKE lower('%' || kw || '%') OR lower(c.name) LIKE lower('%' || kw || '%'))
+                          AND p.is_active = TRUE;
+                        INSERT INTO bench_timing
+                        VALUES ('like', kw, extract(EPOCH FROM clock_timestamp() - started) * 1000);
+
+                        -- Same query ProductService builds (prefix terms, ranked, capped at catalog.search.max-results)
+                        tsq := (SELECT string_agg(t || ':*', ' & ')
+                                FROM regexp_split_to_table(lower(kw), '[^[:alnum:]]+') AS t
+                                WHERE t <> '');
+                        started := clock_timestamp();
+                        PERFORM count(*)
+                        FROM (SELECT p.id
+                              FROM product p
+                              WHERE p.is_active = TRUE
+                                AND p.search_vector @@ turkish_search_query(tsq)
+                              ORDER BY ts_rank(p.search_vector, turkish_search_query(tsq)) DESC, p.id
+                              LIMIT 100) AS ranked;
+                        INSERT INTO bench_timing
+                        VALUES ('fulltext', kw, extract(EPOCH FROM clock_timestamp() - started) * 1000);
+                    END LOOP;
+            END LOOP;
+    END
+$$;
+
+SELECT engine,
+       count(*)                                                      AS samples,
+       round(percentile_cont(0.50) WITHIN GROUP (ORDER BY millis)::NUMERIC, 2) AS p50_ms,
+       round(percentile_cont(0.99) WITHIN GROUP (ORDER BY millis)::NUMERIC, 2) AS p99_ms,
+       round(max(millis)::NUMERIC, 2)                                AS max_ms
+FROM bench_timing
+GROUP BY engine
+ORDER BY engine;
+
+ROLLBACK;
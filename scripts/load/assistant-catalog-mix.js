@@ -0,0 +1,63 @@
+// Mixed load: 200 concurrent assistant chats alongside catalog reads.
+//
+// Run once per threading mode and compare catalog latency and throughput:
+//   ./mvnw spring-boot:run                                                   # platform threads
+//   ./mvnw spring-boot:run -Dspring-boot.run.profiles=virtual-threads        # virtual threads
+//   k6 run scripts/load/assistant-catalog-mix.js
+//
+// Every chat message is unique, so the assistant response cache never short-circuits the model.
+// Override the target with BASE_URL=http://host:port and the duration with DURATION=5m.
+
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const DURATION = __ENV.DURATION || '2m';
+
+export const options = {
+    scenarios: {
+        assistant: {
+            executor: 'constant-vus',
+            exec: 'assistant',
+            vus: 200,
+            duration: DURATION,
+        },
+        catalog: {
+            executor: 'constant-arrival-rate',
+            exec: 'catalog',
+            rate: 200,
+            timeUnit: '1s',
+            duration: DURATION,
+            preAllocatedVUs: 100,
+            maxVUs: 400,
+        },
+    },
+    thresholds: {
+        'http_req_duration{scenario:catalog}': ['p(95)<250'],
+        'http_req_failed{scenario:catalog}': ['rate<0.01'],
+        'dropped_iterations{scenario:catalog}': ['count<1'],
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+const PROMPTS = [
+    'Oyun için kulaklık önerir misin',
+    'Uygun fiyatlı bir telefon arıyorum',
+    'Ofis için sessiz klavye',
+    'Hızlı şarj aleti önerisi',
+];
+
+export function assistant() {
+    const message = `${PROMPTS[__ITER % PROMPTS.length]} ${__VU} ${__ITER}`;
+    const res = http.post(`${BASE_URL}/api/assistant/chat`,
+        JSON.stringify({ message, source: 'k6' }),
+        { headers: { 'Content-Type': 'application/json' }, timeout: '120s', tags: { endpoint: 'chat' } });
+    check(res, { 'chat 200': (r) => r.status === 200 });
+}
+
+export function catalog() {
+    const res = Math.random() < 0.5
+        ? http.get(`${BASE_URL}/api/products?size=20`, { tags: { endpoint: 'products' } })
+        : http.get(`${BASE_URL}/api/products/${1 + Math.floor(Math.random() * 50)}`, { tags: { endpoint: 'product' } });
+    check(res, { 'catalog ok': (r) => r.status === 200 || r.status === 404 });
+}
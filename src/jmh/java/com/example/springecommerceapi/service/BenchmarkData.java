@@ -0,0 +1,123 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.domain.Category;
+import com.example.springecommerceapi.domain.Customer;
+import com.example.springecommerceapi.domain.Order;
+import com.example.springecommerceapi.domain.OrderItem;
+import com.example.springecommerceapi.domain.OrderStatus;
+import com.example.springecommerceapi.domain.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic fixtures shared by the benchmarks: entities shaped like the seeded catalog and the model outputs in
+ * {@code src/jmh/resources/model-output}.
+ */
+final class BenchmarkData {
+
+    private static final String[] NAMES = {
+            "Kablosuz Oyuncu Kulaklığı", "Mekanik Klavye TR Q", "27\" IPS Monitör", "Ergonomik Ofis Sandalyesi",
+            "Bluetooth Hoparlör", "USB-C Şarj Adaptörü 65W", "Dizüstü Bilgisayar Çantası", "Akıllı Saat"
+    };
+    private static final String[] CATEGORIES = {"Elektronik", "Bilgisayar Aksesuarları", "Ofis", "Ses Sistemleri"};
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 11, 3, 14, 25, 11);
+
+    private BenchmarkData() {
+    }
+
+    static List<Product> products(int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            categories.add(Category.builder().id((long) i + 1).name(CATEGORIES[i]).build());
+        }
+
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(Product.builder()
+                    .id((long) i + 1)
+                    .name(NAMES[i % NAMES.length] + " " + (i / NAMES.length + 1))
+                    .sku("SKU-" + (100_000 + i))
+                    .price(BigDecimal.valueOf(random.nextLong(1_000, 5_000_000), 2))
+                    .stockQuantity(random.nextInt(0, 500))
+                    .active(random.nextInt(10) > 0)
+                    .category(categories.get(i % categories.size()))
+                    .createdAt(CREATED_AT.plusMinutes(i))
+                    .updatedAt(CREATED_AT.plusDays(3).plusMinutes(i))
+                    .build());
+        }
+        return products;
+    }
+
+    static List<Order> orders(int count, int itemsPerOrder) {
+        SplittableRandom random = new SplittableRandom(7);
+        List<Product> products = products(50);
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Customer customer = Customer.builder()
+                    .id((long) i % 20 + 1)
+                    .firstName("Ayşe")
+                    .lastName("Yılmaz " + i % 20)
+                    .email("ayse" + i % 20 + "@example.com")
+                    .build();
+            Order order = Order.builder()
+                    .id((long) i + 1)
+                    .customer(customer)
+                    .status(OrderStatus.values()[i % OrderStatus.values().length])
+                    .createdAt(CREATED_AT.plusHours(i))
+                    .build();
+
+            BigDecimal total = BigDecimal.ZERO;
+            for (int j = 0; j < itemsPerOrder; j++) {
+                Product product = products.get(random.nextInt(products.size()));
+                int quantity = random.nextInt(1, 4);
+                BigDecimal lineTotal = product.getPrice().multiply(BigDecimal.valueOf(quantity));
+                order.getItems().add(OrderItem.builder()
+                        .id((long) i * itemsPerOrder + j + 1)
+                        .order(order)
+                        .product(product)
+                        .quantity(quantity)
+                        .unitPrice(product.getPrice())
+                        .lineTotal(lineTotal)
+                        .build());
+                total = total.add(lineTotal);
+            }
+            order.setTotalAmount(total);
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    /**
+     * Configured like Spring Boot's auto-configured mapper: Java time module, ISO dates instead of timestamps.
+     */
+    static ObjectMapper objectMapper() {
+        return JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    static String modelOutput(String name) {
+        String path = "/model-output/" + name + ".txt";
+        try (InputStream in = BenchmarkData.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Missing benchmark fixture " + path);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.domain.Order;
+import com.example.springecommerceapi.domain.Product;
+import com.example.springecommerceapi.dto.OrderResponse;
+import com.example.springecommerceapi.dto.ProductResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping for list endpoints. Orders carry three items each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MappingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private ProductService productService;
+    private OrderService orderService;
+    private List<Product> products;
+    private List<Order> orders;
+
+    @Setup
+    public void setUp() {
+        // mapping touches no collaborators
+        productService = new ProductService(null, null, null, null);
+        orderService = new OrderService(null, null, null, null);
+        products = BenchmarkData.products(size);
+        orders = BenchmarkData.orders(size, 3);
+    }
+
+    @Benchmark
+    public List<ProductResponse> productResponses() {
+        return products.stream().map(productService::mapToResponse).toList();
+    }
+
+    @Benchmark
+    public List<OrderResponse> orderResponses() {
+        return orders.stream().map(orderService::mapToResponse).toList();
+    }
+}
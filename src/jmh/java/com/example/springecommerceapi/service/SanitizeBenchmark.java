@@ -0,0 +1,71 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.dto.AssistantResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cleaning up and parsing model output, for the fixtures in {@code src/jmh/resources/model-output}: valid JSON, JSON
+ * wrapped in prose and a markdown fence, JSON with invalid escapes and "199.99 TL" prices, and a plain-text answer.
+ * The {@code legacy*} methods measure the regex sanitizer {@link ModelJsonRepairer} replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SanitizeBenchmark {
+
+    @Param({"clean", "fenced", "dirty", "plain-text"})
+    public String output;
+
+    private ObjectMapper objectMapper;
+    private ModelJsonRepairer repairer;
+    private String raw;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = BenchmarkData.objectMapper();
+        repairer = new ModelJsonRepairer(objectMapper);
+        raw = BenchmarkData.modelOutput(output);
+        // fail fast on a fixture either implementation cannot handle
+        legacySanitizeAndParse();
+        repairAndParse();
+    }
+
+    @Benchmark
+    public String legacySanitize() {
+        return LegacyJsonSanitizer.sanitize(raw);
+    }
+
+    @Benchmark
+    public AssistantResponse legacySanitizeAndParse() throws JsonProcessingException {
+        return objectMapper.readValue(LegacyJsonSanitizer.sanitize(raw), AssistantResponse.class);
+    }
+
+    @Benchmark
+    public String repair() {
+        return repairer.repair(raw);
+    }
+
+    @Benchmark
+    public AssistantResponse repairAndParse() throws IOException {
+        return repairer.read(raw, AssistantResponse.class, answer -> new AssistantResponse(answer, List.of()));
+    }
+}
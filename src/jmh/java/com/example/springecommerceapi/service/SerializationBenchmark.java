@@ -0,0 +1,64 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.dto.OrderResponse;
+import com.example.springecommerceapi.dto.ProductResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of response lists, as written by the list and search endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private ObjectWriter productWriter;
+    private ObjectWriter orderWriter;
+    private List<ProductResponse> products;
+    private List<OrderResponse> orders;
+
+    @Setup
+    public void setUp() {
+        ProductService productService = new ProductService(null, null, null, null);
+        OrderService orderService = new OrderService(null, null, null, null);
+        products = BenchmarkData.products(size).stream().map(productService::mapToResponse).toList();
+        orders = BenchmarkData.orders(size, 3).stream().map(orderService::mapToResponse).toList();
+
+        productWriter = BenchmarkData.objectMapper().writerFor(new TypeReference<List<ProductResponse>>() {
+        });
+        orderWriter = BenchmarkData.objectMapper().writerFor(new TypeReference<List<OrderResponse>>() {
+        });
+    }
+
+    @Benchmark
+    public byte[] productList() throws JsonProcessingException {
+        return productWriter.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] orderList() throws JsonProcessingException {
+        return orderWriter.writeValueAsBytes(orders);
+    }
+}
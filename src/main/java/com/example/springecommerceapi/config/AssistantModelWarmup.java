@@ -0,0 +1,40 @@
+package com.example.springecommerceapi.config;
+
+import com.example.springecommerceapi.service.AiShoppingAssistantService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the chat model and primes Ollama's prompt cache with the assistant's system prompts before the application
+ * reports ready, so the first user does not pay for a cold model load and a full prompt evaluation.
+ * <p>
+ * The model then stays resident for {@code spring.ai.ollama.chat.options.keep-alive} after each request. Ollama being
+ * unavailable only logs; the first request loads the model instead.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "assistant.model.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AssistantModelWarmup implements ApplicationRunner {
+
+    private final AiShoppingAssistantService assistantService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        warmUp();
+    }
+
+    void warmUp() {
+        long start = System.nanoTime();
+        try {
+            assistantService.warmUp();
+            log.info("Warmed up the assistant model in {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException ex) {
+            log.warn("Assistant model warm-up failed: {}", ex.getMessage());
+        }
+    }
+}
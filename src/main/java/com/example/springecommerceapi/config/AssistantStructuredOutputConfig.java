@@ -0,0 +1,53 @@
+package com.example.springecommerceapi.config;
+
+import com.example.springecommerceapi.service.AiShoppingAssistantService;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.ai.autoconfigure.ollama.OllamaChatProperties;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.model.function.FunctionCallbackResolver;
+import org.springframework.ai.ollama.OllamaChatModel;
+import org.springframework.ai.ollama.api.OllamaApi;
+import org.springframework.ai.ollama.api.OllamaOptions;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Ollama chat model for the assistant's JSON replies, with {@link AiShoppingAssistantService#REPLY_SCHEMA} as its
+ * default {@code format} so decoding is constrained to the schema.
+ * <p>
+ * Spring AI 1.0.0-M5 copies per-request options through {@code FunctionCallingOptions}, which drops {@code format},
+ * so the schema has to be part of the model's defaults. The model is only exposed wrapped in a {@link ChatClient}:
+ * the auto-configured chat model stays the single {@code ChatModel} bean, and the streaming answer stays plain text.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "assistant.structured-output", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class AssistantStructuredOutputConfig {
+
+    public static final String CHAT_CLIENT = "structuredOutputChatClient";
+
+    @Bean(CHAT_CLIENT)
+    public ChatClient structuredOutputChatClient(OllamaApi ollamaApi,
+                                                 OllamaChatProperties chatProperties,
+                                                 FunctionCallbackResolver functionCallbackResolver,
+                                                 ObjectProvider<ObservationRegistry> observationRegistry) {
+        ObservationRegistry registry = observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP);
+        return ChatClient.create(structuredOutputModel(ollamaApi, chatProperties.getOptions(),
+                functionCallbackResolver, registry), registry);
+    }
+
+    static OllamaChatModel structuredOutputModel(OllamaApi ollamaApi, OllamaOptions defaults,
+                                                 FunctionCallbackResolver functionCallbackResolver,
+                                                 ObservationRegistry observationRegistry) {
+        OllamaOptions options = OllamaOptions.fromOptions(defaults);
+        options.setFormat(AiShoppingAssistantService.REPLY_SCHEMA);
+        return OllamaChatModel.builder()
+                .ollamaApi(ollamaApi)
+                .defaultOptions(options)
+                .functionCallbackResolver(functionCallbackResolver)
+                .observationRegistry(observationRegistry)
+                .build();
+    }
+}
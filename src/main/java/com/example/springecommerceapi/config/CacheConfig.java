@@ -0,0 +1,17 @@
+package com.example.springecommerceapi.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache names are declared up front ({@code spring.cache.cache-names}) so Actuator binds
+ * hit/miss/eviction meters for each of them at startup. Sizing lives in {@code spring.cache.caffeine.spec}.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCT_IDS_BY_SKU = "productIdsBySku";
+    public static final String CATEGORIES = "categories";
+}
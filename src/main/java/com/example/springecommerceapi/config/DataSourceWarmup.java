@@ -0,0 +1,80 @@
+package com.example.springecommerceapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opens the pool's idle connections before the application reports ready. Hikari otherwise starts with one
+ * connection and adds the rest in the background, so the first burst of requests after a deploy waits on TCP, TLS
+ * and authentication round trips.
+ * <p>
+ * Connections are borrowed all at once, so the pool has to open a new one for each borrow. They are then handed back.
+ * A failure only logs. The pool recovers on its own, and the database being briefly unavailable should not stop the
+ * application from starting.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "datasource.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DataSourceWarmup implements ApplicationRunner {
+
+    private final DataSource dataSource;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        warmUp();
+    }
+
+    void warmUp() {
+        HikariDataSource hikari = unwrap(dataSource);
+        if (hikari == null) {
+            log.debug("DataSource is not a HikariDataSource, skipping warm-up");
+            return;
+        }
+
+        int target = hikari.getMinimumIdle() > 0 ? hikari.getMinimumIdle() : hikari.getMaximumPoolSize();
+        long start = System.nanoTime();
+        List<Connection> borrowed = new ArrayList<>(target);
+        try {
+            for (int i = 0; i < target; i++) {
+                Connection connection = hikari.getConnection();
+                borrowed.add(connection);
+                connection.isValid(1);
+            }
+            log.info("Warmed up {} connections in pool {} in {} ms", borrowed.size(), hikari.getPoolName(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (SQLException ex) {
+            log.warn("Connection pool warm-up stopped after {} of {} connections: {}", borrowed.size(), target,
+                    ex.getMessage());
+        } finally {
+            borrowed.forEach(DataSourceWarmup::closeQuietly);
+        }
+    }
+
+    private static HikariDataSource unwrap(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException ex) {
+            return null;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ex) {
+            log.debug("Failed to return warm-up connection", ex);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.springecommerceapi.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+
+/**
+ * Publishes the state of the asynchronous log appenders configured in {@code logback-spring.xml}:
+ * {@code logback.async.dropped} by reason and the queue depth against its capacity.
+ */
+@Component
+public class LogbackAsyncMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+        Iterator<Appender<ILoggingEvent>> appenders =
+                context.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (appenders.hasNext()) {
+            if (appenders.next() instanceof MeteredAsyncAppender appender) {
+                bind(registry, appender);
+            }
+        }
+    }
+
+    static void bind(MeterRegistry registry, MeteredAsyncAppender appender) {
+        String name = appender.getName();
+        FunctionCounter.builder("logback.async.dropped", appender, MeteredAsyncAppender::getDiscardedCount)
+                .description("Log events dropped by the async appender")
+                .tag("appender", name)
+                .tag("reason", "discarding-threshold")
+                .register(registry);
+        FunctionCounter.builder("logback.async.dropped", appender, MeteredAsyncAppender::getOverflowCount)
+                .description("Log events dropped by the async appender")
+                .tag("appender", name)
+                .tag("reason", "queue-full")
+                .register(registry);
+        Gauge.builder("logback.async.queue.size", appender, MeteredAsyncAppender::getNumberOfElementsInQueue)
+                .description("Log events waiting to be written")
+                .tag("appender", name)
+                .register(registry);
+        Gauge.builder("logback.async.queue.capacity", appender, MeteredAsyncAppender::getQueueSize)
+                .tag("appender", name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.springecommerceapi.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link AsyncAppender} that counts the events it drops, so a saturated log pipeline shows up in metrics
+ * ({@link LogbackAsyncMetrics}) instead of silently losing lines.
+ * <p>
+ * Logback drops events in two places: TRACE to INFO events once the queue is fuller than the discarding threshold,
+ * and, with {@code neverBlock}, any event that finds the queue full. The first is counted exactly. The queue is not
+ * accessible to subclasses, so the second is counted when the queue has no room left just before the offer.
+ */
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        // only asked while the queue is above the discarding threshold
+        boolean discardable = super.isDiscardable(event);
+        if (discardable) {
+            discarded.increment();
+        }
+        return discardable;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (isNeverBlock() && getRemainingCapacity() == 0
+                && !(isQueueBelowDiscardingThreshold() && super.isDiscardable(event))) {
+            overflowed.increment();
+        }
+        super.append(event);
+    }
+
+    public long getDiscardedCount() {
+        return discarded.sum();
+    }
+
+    public long getOverflowCount() {
+        return overflowed.sum();
+    }
+}
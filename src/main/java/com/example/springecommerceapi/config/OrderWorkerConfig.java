@@ -0,0 +1,33 @@
+package com.example.springecommerceapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Fixed-size pool for asynchronously accepted orders. Bounding it keeps a checkout spike from draining the
+ * connection pool; work that does not fit the queue stays {@code PENDING} and is picked up by the sweeper.
+ * <p>
+ * The pool is not a default candidate: as a regular {@code Executor} bean it would stop Boot from creating
+ * {@code applicationTaskExecutor}, which {@code @Async} and MVC async requests (and their virtual threads) rely on.
+ * Inject it by qualifier.
+ */
+@Configuration
+public class OrderWorkerConfig {
+
+    public static final String ORDER_WORKER_EXECUTOR = "orderWorkerExecutor";
+
+    @Bean(name = ORDER_WORKER_EXECUTOR, defaultCandidate = false)
+    public ThreadPoolTaskExecutor orderWorkerExecutor(@Value("${orders.async.workers:4}") int workers,
+                                                      @Value("${orders.async.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("order-worker-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
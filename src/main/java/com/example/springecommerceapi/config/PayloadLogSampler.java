@@ -0,0 +1,39 @@
+package com.example.springecommerceapi.config;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a call's full payloads (user message, model output) are logged. Payloads are only written at
+ * DEBUG for a sampled fraction of calls, and each one is truncated to {@code logging.payload.max-length} characters.
+ */
+@Component
+public class PayloadLogSampler {
+
+    private final double sampleRate;
+    private final int maxLength;
+
+    public PayloadLogSampler(@Value("${logging.payload.sample-rate:0.01}") double sampleRate,
+                             @Value("${logging.payload.max-length:1000}") int maxLength) {
+        this.sampleRate = sampleRate;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Decide once per call, so the payloads of a sampled call are logged together.
+     */
+    public boolean sample(Logger logger) {
+        return logger.isDebugEnabled()
+                && (sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    public String truncate(String payload) {
+        if (payload == null || payload.length() <= maxLength) {
+            return payload;
+        }
+        return payload.substring(0, maxLength) + "... (" + payload.length() + " chars)";
+    }
+}
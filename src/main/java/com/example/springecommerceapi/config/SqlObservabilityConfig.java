@@ -0,0 +1,53 @@
+package com.example.springecommerceapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.function.SingletonSupplier;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Per-statement and per-request SQL metrics, replacing {@code show_sql}. Printing every statement is left to the
+ * {@code dev} profile, which turns on the {@code org.hibernate.SQL} logger.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "sql.observability", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlObservabilityConfig {
+
+    @Bean
+    public SqlStatementRecorder sqlStatementRecorder(
+            MeterRegistry meterRegistry,
+            @Value("${sql.observability.slow-query.threshold:200ms}") Duration slowThreshold,
+            @Value("${sql.observability.slow-query.sample-rate:0.1}") double slowSampleRate,
+            @Value("${sql.observability.slow-query.max-length:2000}") int maxLoggedLength) {
+        return new SqlStatementRecorder(meterRegistry, slowThreshold, slowSampleRate, maxLoggedLength);
+    }
+
+    // static, so the post-processor does not pull this configuration in before the DataSource is created;
+    // the recorder is resolved on the first borrowed connection for the same reason
+    @Bean
+    public static BeanPostProcessor sqlTimingDataSourcePostProcessor(ObjectProvider<SqlStatementRecorder> recorder) {
+        SingletonSupplier<SqlStatementRecorder> lazyRecorder = SingletonSupplier.of(recorder::getObject);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !SqlTimingDataSource.isWrapped(bean)
+                        ? SqlTimingDataSource.wrap(dataSource, lazyRecorder)
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlRequestMetricsFilter> sqlRequestMetricsFilter(SqlStatementRecorder recorder,
+                                                                                   MeterRegistry meterRegistry) {
+        return new FilterRegistrationBean<>(new SqlRequestMetricsFilter(recorder, meterRegistry));
+    }
+}
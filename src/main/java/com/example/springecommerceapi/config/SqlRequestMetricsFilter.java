@@ -0,0 +1,60 @@
+package com.example.springecommerceapi.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the SQL statements and database time of each HTTP request. The values are in the MDC while the request
+ * runs and are published per route as {@code db.sql.request.statements} and {@code db.sql.request.time}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SqlRequestMetricsFilter extends OncePerRequestFilter {
+
+    private final SqlStatementRecorder recorder;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementRecorder.RequestStats stats = recorder.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            String uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String pattern
+                    ? pattern : "UNKNOWN";
+            DistributionSummary.builder("db.sql.request.statements")
+                    .description("SQL statements executed per HTTP request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(stats.count());
+            Timer.builder("db.sql.request.time")
+                    .description("Total SQL execution time per HTTP request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(stats.nanos(), TimeUnit.NANOSECONDS);
+            log.debug("{} {} executed {} SQL statements in {} ms", request.getMethod(), uri, stats.count(),
+                    stats.timeMillis());
+            recorder.end();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.springecommerceapi.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Records every JDBC statement executed through the application's DataSource (see {@link SqlTimingDataSource}).
+ * <p>
+ * Executions are timed in {@code db.sql.statements}, tagged by operation and outcome. Inside an HTTP request the
+ * running statement count and database time are also kept in the MDC as {@code sqlCount} and {@code sqlTimeMs}, so
+ * every log line of the request carries them. Statements slower than the threshold are counted in {@code db.sql.slow}
+ * and a sample of them is logged with their SQL. Only the execute call is timed, not reading the result set.
+ */
+@Slf4j
+public class SqlStatementRecorder {
+
+    public static final String MDC_SQL_COUNT = "sqlCount";
+    public static final String MDC_SQL_TIME_MS = "sqlTimeMs";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    enum Operation {SELECT, INSERT, UPDATE, DELETE, OTHER}
+
+    private final ThreadLocal<RequestStats> requestStats = new ThreadLocal<>();
+    private final Map<Operation, Timer> succeeded = new EnumMap<>(Operation.class);
+    private final Map<Operation, Timer> failed = new EnumMap<>(Operation.class);
+    private final Counter slowStatements;
+    private final long slowThresholdNanos;
+    private final double slowSampleRate;
+    private final int maxLoggedLength;
+
+    public SqlStatementRecorder(MeterRegistry meterRegistry, Duration slowThreshold, double slowSampleRate,
+                                int maxLoggedLength) {
+        for (Operation operation : Operation.values()) {
+            succeeded.put(operation, statementTimer(meterRegistry, operation, "success"));
+            failed.put(operation, statementTimer(meterRegistry, operation, "error"));
+        }
+        this.slowStatements = Counter.builder("db.sql.slow")
+                .description("SQL statements slower than sql.observability.slow-query.threshold")
+                .register(meterRegistry);
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.slowSampleRate = slowSampleRate;
+        this.maxLoggedLength = maxLoggedLength;
+    }
+
+    public void record(String sql, long nanos, boolean success) {
+        Operation operation = operationOf(sql);
+        (success ? succeeded : failed).get(operation).record(nanos, TimeUnit.NANOSECONDS);
+
+        RequestStats stats = requestStats.get();
+        if (stats != null) {
+            stats.count++;
+            stats.nanos += nanos;
+            MDC.put(MDC_SQL_COUNT, Integer.toString(stats.count));
+            MDC.put(MDC_SQL_TIME_MS, Long.toString(stats.timeMillis()));
+        }
+
+        if (nanos >= slowThresholdNanos) {
+            slowStatements.increment();
+            if (slowSampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < slowSampleRate) {
+                log.warn("Slow SQL {} took {} ms: {}", operation.name().toLowerCase(Locale.ROOT),
+                        TimeUnit.NANOSECONDS.toMillis(nanos), abbreviate(sql));
+            }
+        }
+    }
+
+    /**
+     * Starts collecting statements executed on the current thread until {@link #end()}.
+     */
+    public RequestStats begin() {
+        RequestStats stats = new RequestStats();
+        requestStats.set(stats);
+        MDC.put(MDC_SQL_COUNT, "0");
+        MDC.put(MDC_SQL_TIME_MS, "0");
+        return stats;
+    }
+
+    public void end() {
+        requestStats.remove();
+        MDC.remove(MDC_SQL_COUNT);
+        MDC.remove(MDC_SQL_TIME_MS);
+    }
+
+    static Operation operationOf(String sql) {
+        if (sql == null) {
+            return Operation.OTHER;
+        }
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c) || c == '(') {
+                i++;
+            } else if (sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? sql.length() : end + 2;
+            } else {
+                break;
+            }
+        }
+        if (startsWithKeyword(sql, i, "select") || startsWithKeyword(sql, i, "with")) {
+            return Operation.SELECT;
+        } else if (startsWithKeyword(sql, i, "insert")) {
+            return Operation.INSERT;
+        } else if (startsWithKeyword(sql, i, "update")) {
+            return Operation.UPDATE;
+        } else if (startsWithKeyword(sql, i, "delete")) {
+            return Operation.DELETE;
+        }
+        return Operation.OTHER;
+    }
+
+    String abbreviate(String sql) {
+        if (sql == null) {
+            return "<unknown>";
+        }
+        String singleLine = WHITESPACE.matcher(sql).replaceAll(" ").trim();
+        return singleLine.length() <= maxLoggedLength
+                ? singleLine
+                : singleLine.substring(0, maxLoggedLength) + "... (" + singleLine.length() + " chars)";
+    }
+
+    private static boolean startsWithKeyword(String sql, int offset, String keyword) {
+        return sql.regionMatches(true, offset, keyword, 0, keyword.length());
+    }
+
+    private static Timer statementTimer(MeterRegistry meterRegistry, Operation operation, String outcome) {
+        return Timer.builder("db.sql.statements")
+                .description("JDBC statement execution time")
+                .tag("operation", operation.name().toLowerCase(Locale.ROOT))
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public static final class RequestStats {
+
+        private int count;
+        private long nanos;
+
+        public int count() {
+            return count;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+
+        public long timeMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+    }
+}
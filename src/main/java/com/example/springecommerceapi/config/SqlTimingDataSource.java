@@ -0,0 +1,133 @@
+package com.example.springecommerceapi.config;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+/**
+ * JDK proxies around a DataSource and the connections and statements it hands out. Every {@code execute*} call is
+ * timed and passed to the {@link SqlStatementRecorder}. This sits below Hibernate, so statements issued through
+ * {@code JdbcTemplate} and Flyway are covered too.
+ * <p>
+ * {@code unwrap} and {@code isWrapperFor} are delegated, so the pool behind the proxy stays reachable for metrics and
+ * the connection warm-up.
+ */
+final class SqlTimingDataSource {
+
+    private SqlTimingDataSource() {
+    }
+
+    static DataSource wrap(DataSource dataSource, Supplier<SqlStatementRecorder> recorder) {
+        return proxy(DataSource.class, dataSource, (proxy, method, args) -> {
+            Object result = invoke(dataSource, method, args);
+            return method.getName().equals("getConnection")
+                    ? wrapConnection((Connection) result, recorder.get())
+                    : result;
+        });
+    }
+
+    static boolean isWrapped(Object dataSource) {
+        return Proxy.isProxyClass(dataSource.getClass())
+                && Proxy.getInvocationHandler(dataSource) instanceof IdentityHandler handler
+                && handler.target instanceof DataSource;
+    }
+
+    private static Connection wrapConnection(Connection connection, SqlStatementRecorder recorder) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> wrapStatement((Statement) result, null, recorder);
+                case "prepareStatement", "prepareCall" -> wrapStatement((Statement) result, (String) args[0], recorder);
+                default -> result;
+            };
+        });
+    }
+
+    private static Statement wrapStatement(Statement statement, String preparedSql, SqlStatementRecorder recorder) {
+        Class<? extends Statement> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return proxy(type, statement, new StatementHandler(statement, preparedSql, recorder));
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(SqlTimingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                new IdentityHandler(target, handler)));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Gives the proxy its own identity: Hibernate keeps statements in hash-based registries.
+     */
+    private record IdentityHandler(Object target, InvocationHandler delegate) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() != Object.class) {
+                return delegate.invoke(proxy, method, args);
+            }
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> "Timed[" + target + "]";
+            };
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final String preparedSql;
+        private final SqlStatementRecorder recorder;
+        private String batchSql;
+
+        private StatementHandler(Statement statement, String preparedSql, SqlStatementRecorder recorder) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+            this.recorder = recorder;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                if (name.equals("addBatch") && args != null && batchSql == null) {
+                    batchSql = (String) args[0];
+                } else if (name.equals("clearBatch")) {
+                    batchSql = null;
+                }
+                return SqlTimingDataSource.invoke(statement, method, args);
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text
+                    : preparedSql != null ? preparedSql
+                    : batchSql;
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                Object result = SqlTimingDataSource.invoke(statement, method, args);
+                success = true;
+                return result;
+            } finally {
+                recorder.record(sql, System.nanoTime() - start, success);
+                if (name.startsWith("executeBatch") || name.startsWith("executeLargeBatch")) {
+                    batchSql = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.springecommerceapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Driver;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Refuses to start with virtual threads on JDBC libraries that still block inside {@code synchronized}
+ * sections. On Java 21 such a block pins the carrier thread, so a few slow queries can stall every request.
+ * pgjdbc moved to {@code ReentrantLock} in 42.6 and HikariCP in 5.1.
+ * <p>
+ * Pinning from any other code is caught at runtime: a JFR stream subscribes to {@code jdk.VirtualThreadPinned}
+ * and counts every pin longer than {@code virtual-threads.pinning.threshold} in {@code jvm.threads.virtual.pinned},
+ * logging the frame that blocked.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningGuard {
+
+    static final String PGJDBC_MIN = "42.6";
+    static final String HIKARI_MIN = "5.1";
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.example.springecommerceapi.";
+
+    private final Counter pinnedCounter;
+    private final Timer pinnedDuration;
+    private final Duration threshold;
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningGuard(MeterRegistry meterRegistry,
+                                     @Value("${virtual-threads.pinning.threshold:20ms}") Duration threshold) {
+        this.pinnedCounter = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier thread")
+                .register(meterRegistry);
+        this.pinnedDuration = Timer.builder("jvm.threads.virtual.pinned.duration")
+                .description("Time a virtual thread held its carrier thread while pinned")
+                .register(meterRegistry);
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    void start() {
+        verify();
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    void onPinned(RecordedEvent event) {
+        pinnedCounter.increment();
+        pinnedDuration.record(event.getDuration());
+        log.warn("Virtual thread pinned its carrier for {} ms at {}",
+                event.getDuration().toMillis(), blockingFrame(event));
+    }
+
+    void verify() {
+        List<String> problems = new ArrayList<>();
+
+        String pgjdbc = pgjdbcVersion();
+        if (pgjdbc != null && !isAtLeast(pgjdbc, PGJDBC_MIN)) {
+            problems.add("pgjdbc " + pgjdbc + " (need >= " + PGJDBC_MIN + ")");
+        }
+        String hikari = hikariVersion();
+        if (hikari != null && !isAtLeast(hikari, HIKARI_MIN)) {
+            problems.add("HikariCP " + hikari + " (need >= " + HIKARI_MIN + ")");
+        }
+
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Virtual threads are enabled but these libraries pin carrier threads: "
+                    + String.join(", ", problems));
+        }
+        log.info("Virtual threads enabled (pgjdbc={}, HikariCP={})", pgjdbc, hikari);
+    }
+
+    /**
+     * The first application frame, or the top frame when the whole stack is JDK code.
+     */
+    private static String blockingFrame(RecordedEvent event) {
+        if (event.getStackTrace() == null || event.getStackTrace().getFrames().isEmpty()) {
+            return "unknown";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        RecordedFrame frame = frames.stream()
+                .filter(candidate -> candidate.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE))
+                .findFirst()
+                .orElse(frames.get(0));
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    /**
+     * Compares dotted numeric versions on major and minor, ignoring qualifiers such as {@code -SNAPSHOT}.
+     */
+    static boolean isAtLeast(String version, String minimum) {
+        int[] actual = majorMinor(version);
+        int[] required = majorMinor(minimum);
+        return actual[0] != required[0] ? actual[0] > required[0] : actual[1] >= required[1];
+    }
+
+    private static int[] majorMinor(String version) {
+        String[] parts = version.split("[.-]");
+        return new int[]{parseOrZero(parts[0]), parts.length > 1 ? parseOrZero(parts[1]) : 0};
+    }
+
+    private static int parseOrZero(String part) {
+        try {
+            return Integer.parseInt(part);
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    private static String pgjdbcVersion() {
+        try {
+            Driver driver = (Driver) Class.forName("org.postgresql.Driver").getDeclaredConstructor().newInstance();
+            return driver.getMajorVersion() + "." + driver.getMinorVersion();
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+
+    private static String hikariVersion() {
+        try (InputStream in = HikariDataSource.class.getResourceAsStream(
+                "/META-INF/maven/com.zaxxer/HikariCP/pom.properties")) {
+            if (in == null) {
+                return null;
+            }
+            Properties properties = new Properties();
+            properties.load(in);
+            return properties.getProperty("version");
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+}
@@ -4,7 +4,10 @@ import com.example.springecommerceapi.dto.AssistantRequest;
 import com.example.springecommerceapi.dto.AssistantResponse;
 import com.example.springecommerceapi.service.AiShoppingAssistantService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 @RestController
 @RequestMapping("/api/assistant")
@@ -22,4 +25,14 @@ public class AiShoppingAssistantController {
                 request.source()
         );
     }
-}
\ No newline at end of file
+
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> chatStream(@RequestBody AssistantRequest request) {
+        return assistantService.chatStream(
+                request.message(),
+                request.userId(),
+                request.email(),
+                request.source()
+        );
+    }
+}
@@ -2,6 +2,7 @@ package com.example.springecommerceapi.controller;
 
 import com.example.springecommerceapi.dto.CategoryRequest;
 import com.example.springecommerceapi.dto.CategoryResponse;
+import com.example.springecommerceapi.dto.CategoryTreeResponse;
 import com.example.springecommerceapi.service.CategoryService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +24,11 @@ public class CategoryController {
         return categoryService.create(request);
     }
 
+    @GetMapping("/tree")
+    public List<CategoryTreeResponse> getTree() {
+        return categoryService.getTree();
+    }
+
     @GetMapping("/{id}")
     public CategoryResponse getById(@PathVariable Long id) {
         return categoryService.getById(id);
@@ -1,8 +1,11 @@
 package com.example.springecommerceapi.controller;
 
 import com.example.springecommerceapi.dto.CustomerRequest;
+import com.example.springecommerceapi.dto.CursorPage;
 import com.example.springecommerceapi.dto.CustomerResponse;
+import com.example.springecommerceapi.dto.OrderResponse;
 import com.example.springecommerceapi.service.CustomerService;
+import com.example.springecommerceapi.service.OrderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -16,6 +19,7 @@ import java.util.List;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final OrderService orderService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -33,6 +37,13 @@ public class CustomerController {
         return customerService.getAll();
     }
 
+    @GetMapping("/{id}/orders")
+    public CursorPage<OrderResponse> getOrders(@PathVariable Long id,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer size) {
+        return orderService.getCustomerOrders(id, cursor, size);
+    }
+
     @PutMapping("/{id}")
     public CustomerResponse update(@PathVariable Long id,
                                    @RequestBody @Valid CustomerRequest request) {
@@ -3,11 +3,15 @@ package com.example.springecommerceapi.controller;
 import com.example.springecommerceapi.domain.OrderStatus;
 import com.example.springecommerceapi.dto.OrderRequest;
 import com.example.springecommerceapi.dto.OrderResponse;
+import com.example.springecommerceapi.dto.OrderSubmissionResponse;
 import com.example.springecommerceapi.service.OrderService;
+import com.example.springecommerceapi.service.OrderSubmissionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.util.List;
 import java.util.Map;
@@ -17,12 +21,37 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class OrderController {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final OrderService orderService;
+    private final OrderSubmissionService orderSubmissionService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public OrderResponse create(@RequestBody @Valid OrderRequest request) {
-        return orderService.create(request);
+    public OrderResponse create(@RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                @RequestBody @Valid OrderRequest request) {
+        if (idempotencyKey == null) {
+            return orderService.create(request);
+        }
+        return orderSubmissionService.createIdempotent(idempotencyKey, request);
+    }
+
+    @PostMapping(params = "async=true")
+    public ResponseEntity<OrderSubmissionResponse> submit(
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody @Valid OrderRequest request) {
+        OrderSubmissionResponse submission = orderSubmissionService.submit(idempotencyKey, request);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/api/orders/submissions/{id}")
+                        .buildAndExpand(submission.getId())
+                        .toUri())
+                .body(submission);
+    }
+
+    @GetMapping("/submissions/{id}")
+    public OrderSubmissionResponse getSubmission(@PathVariable Long id) {
+        return orderSubmissionService.getSubmission(id);
     }
 
     @GetMapping("/{id}")
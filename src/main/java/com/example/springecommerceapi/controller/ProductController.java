@@ -1,13 +1,22 @@
 package com.example.springecommerceapi.controller;
 
+import com.example.springecommerceapi.dto.CursorPage;
 import com.example.springecommerceapi.dto.ProductRequest;
 import com.example.springecommerceapi.dto.ProductResponse;
 import com.example.springecommerceapi.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -16,6 +25,7 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -28,9 +38,32 @@ public class ProductController {
         return productService.getById(id);
     }
 
+    @GetMapping("/sku/{sku}")
+    public ProductResponse getBySku(@PathVariable String sku) {
+        return productService.getBySku(sku);
+    }
+
     @GetMapping
-    public List<ProductResponse> getAll() {
-        return productService.getAll();
+    public CursorPage<ProductResponse> getAll(@RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer size) {
+        return productService.getPage(cursor, size);
+    }
+
+    @GetMapping("/search")
+    public List<ProductResponse> search(@RequestParam(required = false) String keyword,
+                                        @RequestParam(required = false) BigDecimal minPrice,
+                                        @RequestParam(required = false) BigDecimal maxPrice,
+                                        @RequestParam(required = false) Boolean inStock,
+                                        @RequestParam(required = false) Long categoryId) {
+        return productService.searchProducts(keyword, minPrice, maxPrice, inStock, categoryId);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = out -> productService.exportAll(product -> writeLine(out, product));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @PutMapping("/{id}")
@@ -44,4 +77,13 @@ public class ProductController {
     public void delete(@PathVariable Long id) {
         productService.delete(id);
     }
+
+    private void writeLine(OutputStream out, ProductResponse product) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(product));
+            out.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package com.example.springecommerceapi.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Transitive closure of the category hierarchy: one row per ancestor/descendant pair, plus a depth-0 row per
+ * category. Maintained by {@code CategoryService} alongside {@link Category#getParent()}.
+ */
+@Entity
+@Table(name = "category_closure")
+@IdClass(CategoryClosureId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryClosure {
+
+    @Id
+    @Column(name = "ancestor_id")
+    private Long ancestorId;
+
+    @Id
+    @Column(name = "descendant_id")
+    private Long descendantId;
+
+    @Column(nullable = false)
+    private Integer depth;
+}
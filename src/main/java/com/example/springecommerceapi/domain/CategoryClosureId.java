@@ -0,0 +1,16 @@
+package com.example.springecommerceapi.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryClosureId implements Serializable {
+
+    private Long ancestorId;
+    private Long descendantId;
+}
@@ -0,0 +1,59 @@
+package com.example.springecommerceapi.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An order placement request, remembered so that retries with the same {@code Idempotency-Key} replay the
+ * original outcome and so that asynchronously accepted orders can be processed and polled.
+ */
+@Entity
+@Table(name = "order_submission")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSubmission {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "idempotency_key", unique = true, length = 100)
+    private String idempotencyKey;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderSubmissionStatus status;
+
+    @Column(name = "claim_token")
+    private UUID claimToken;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(columnDefinition = "TEXT")
+    private String response;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
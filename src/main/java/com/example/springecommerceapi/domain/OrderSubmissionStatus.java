@@ -0,0 +1,8 @@
+package com.example.springecommerceapi.domain;
+
+public enum OrderSubmissionStatus {
+    PENDING,
+    PROCESSING,
+    COMPLETED,
+    FAILED
+}
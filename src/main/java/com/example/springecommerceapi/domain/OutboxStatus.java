@@ -0,0 +1,7 @@
+package com.example.springecommerceapi.domain;
+
+public enum OutboxStatus {
+    PENDING,
+    DISPATCHED,
+    DEAD
+}
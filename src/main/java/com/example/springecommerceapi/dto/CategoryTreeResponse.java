@@ -0,0 +1,9 @@
+package com.example.springecommerceapi.dto;
+
+import java.util.List;
+
+public record CategoryTreeResponse(
+        Long id,
+        String name,
+        List<CategoryTreeResponse> children) {
+}
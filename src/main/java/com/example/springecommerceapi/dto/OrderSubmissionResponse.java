@@ -0,0 +1,24 @@
+package com.example.springecommerceapi.dto;
+
+import com.example.springecommerceapi.domain.OrderSubmissionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSubmissionResponse {
+
+    private Long id;
+    private OrderSubmissionStatus status;
+    private Long orderId;
+    private OrderResponse order;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
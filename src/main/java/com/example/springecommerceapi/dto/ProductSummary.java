@@ -0,0 +1,18 @@
+package com.example.springecommerceapi.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * The fields of a product the assistant's search tool hands to the model.
+ */
+public record ProductSummary(
+        Long id,
+        String name,
+        BigDecimal price,
+        boolean inStock) {
+
+    public static ProductSummary of(ProductResponse product) {
+        Integer stock = product.getStockQuantity();
+        return new ProductSummary(product.getId(), product.getName(), product.getPrice(), stock != null && stock > 0);
+    }
+}
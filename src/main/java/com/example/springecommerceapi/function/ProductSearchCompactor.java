@@ -0,0 +1,102 @@
+package com.example.springecommerceapi.function;
+
+import com.example.springecommerceapi.dto.ProductResponse;
+import com.example.springecommerceapi.dto.ProductSummary;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounds what one {@code productSearchFunction} call puts into the model's context.
+ * <p>
+ * Results arrive ranked and already limited by the search query (in-stock first, see
+ * {@code ProductRepository}); they keep that order and are cut at {@code max-results} or when the estimated size
+ * of their {@link ProductSummary} JSON would exceed {@code token-budget}, whichever comes first. The first result
+ * is always kept.
+ */
+@Component
+@Slf4j
+public class ProductSearchCompactor {
+
+    // rough token count of JSON for the models we run: about four characters per token
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final ObjectWriter summaryWriter;
+    private final int maxResults;
+    private final int tokenBudget;
+
+    private final DistributionSummary found;
+    private final DistributionSummary returned;
+    private final DistributionSummary tokens;
+    private final Counter truncated;
+
+    public ProductSearchCompactor(ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${assistant.tool.max-results:10}") int maxResults,
+                                  @Value("${assistant.tool.token-budget:800}") int tokenBudget) {
+        this.summaryWriter = objectMapper.writerFor(ProductSummary.class);
+        this.maxResults = Math.max(1, maxResults);
+        this.tokenBudget = tokenBudget;
+
+        this.found = DistributionSummary.builder("assistant.tool.results")
+                .description("Products per search tool call")
+                .tag("stage", "found")
+                .register(meterRegistry);
+        this.returned = DistributionSummary.builder("assistant.tool.results")
+                .description("Products per search tool call")
+                .tag("stage", "returned")
+                .register(meterRegistry);
+        this.tokens = DistributionSummary.builder("assistant.tool.result.tokens")
+                .description("Estimated tokens a search tool call adds to the prompt")
+                .baseUnit("tokens")
+                .register(meterRegistry);
+        this.truncated = meterRegistry.counter("assistant.tool.results.truncated");
+    }
+
+    /**
+     * Returns the results to hand to the model, in the order they should be listed.
+     */
+    public List<ProductResponse> compact(List<ProductResponse> results) {
+        List<ProductResponse> kept = new ArrayList<>(Math.min(results.size(), maxResults));
+        // the enclosing [ ]
+        int used = 1;
+        for (ProductResponse product : results) {
+            if (kept.size() == maxResults) {
+                break;
+            }
+            int cost = estimateTokens(product);
+            if (!kept.isEmpty() && used + cost > tokenBudget) {
+                break;
+            }
+            kept.add(product);
+            used += cost;
+        }
+
+        found.record(results.size());
+        returned.record(kept.size());
+        tokens.record(used);
+        if (kept.size() < results.size()) {
+            truncated.increment();
+            log.debug("Search tool results compacted from {} to {} (~{} tokens)", results.size(), kept.size(), used);
+        }
+        return kept;
+    }
+
+    private int estimateTokens(ProductResponse product) {
+        try {
+            // plus the separating comma
+            return summaryWriter.writeValueAsString(ProductSummary.of(product)).length() / CHARS_PER_TOKEN + 1;
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize product summary", ex);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.example.springecommerceapi.dto.ProductSearchRequest;
 import com.example.springecommerceapi.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Description;
@@ -17,10 +18,17 @@ import java.util.function.Function;
 @Slf4j
 public class ProductSearchFunctionConfig {
 
+    public static final String FUNCTION_NAME = "productSearchFunction";
+    public static final String DESCRIPTION = "Katalogdan ürün aramak için kullanılır. İstenilen anahtar kelime, minimum fiyat, maksimum fiyat veya stok durumu (true/false) kriterlerine göre filtreleme yapar. Kullanıcı 'ucuz', 'pahalı' veya 'oyuncu' gibi şeyler aradığında bu tool'u kullanarak veritabanındaki ürünleri sorgula.";
+
     private final ProductService productService;
 
+    // one more than the compactor keeps, so it can still tell when results were cut
+    @Value("${assistant.tool.max-results:10}")
+    private int maxResults;
+
     @Bean
-    @Description("Katalogdan ürün aramak için kullanılır. İstenilen anahtar kelime, minimum fiyat, maksimum fiyat veya stok durumu (true/false) kriterlerine göre filtreleme yapar. Kullanıcı 'ucuz', 'pahalı' veya 'oyuncu' gibi şeyler aradığında bu tool'u kullanarak veritabanındaki ürünleri sorgula.")
+    @Description(DESCRIPTION)
     public Function<ProductSearchRequest, List<ProductResponse>> productSearchFunction() {
         return request -> {
             log.info("AI is searching products with criteria: {}", request);
@@ -28,7 +36,9 @@ public class ProductSearchFunctionConfig {
                     request.keyword(),
                     request.minPrice(),
                     request.maxPrice(),
-                    request.inStock());
+                    request.inStock(),
+                    null,
+                    maxResults + 1);
         };
     }
 }
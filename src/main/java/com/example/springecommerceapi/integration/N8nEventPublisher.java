@@ -1,24 +1,66 @@
 package com.example.springecommerceapi.integration;
 
+import com.example.springecommerceapi.domain.OutboxEvent;
 import com.example.springecommerceapi.dto.ProductResponse;
+import com.example.springecommerceapi.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.util.HashMap;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Records n8n events in the {@code outbox_event} table. Delivery happens later in {@link N8nOutboxDispatcher},
+ * so a slow or unavailable webhook never loses events or holds up the caller.
+ * <p>
+ * With {@code n8n.batch.enabled} events are first collected in a bounded in-memory queue and written every
+ * {@code n8n.batch.linger-ms} as outbox rows of at most {@code n8n.batch.size} events, each holding a JSON array.
+ * Queued events are not yet durable: a crash loses at most one linger window. Only the scheduled flusher writes
+ * batches, so a publishing request never needs a second pooled connection and never takes other callers' events
+ * down with its rollback.
+ */
 @Slf4j
 @Component
 public class N8nEventPublisher {
 
-    private final WebClient webClient;
+    static final String CONVERSATION_COMPLETED = "conversation_completed";
+    static final String CONVERSATION_COMPLETED_BATCH = "conversation_completed_batch";
+
+    public enum OverflowPolicy {
+        /** Discard the event and count it in {@code n8n.batch.dropped}. */
+        DROP,
+        /** Wait up to {@code n8n.batch.block-timeout} for space, then write the event as its own outbox row. */
+        BLOCK
+    }
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate batchTransaction;
+    private final ReentrantLock flushLock = new ReentrantLock();
 
     @Value("${n8n.webhook-url:}")
     private String webhookUrl;
@@ -29,12 +71,63 @@ public class N8nEventPublisher {
     @Value("${n8n.enabled:true}")
     private boolean enabled;
 
-    public N8nEventPublisher(WebClient.Builder webClientBuilder) {
-        this.webClient = webClientBuilder
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                .build();
+    @Value("${n8n.batch.enabled:false}")
+    private boolean batchEnabled;
+
+    @Value("${n8n.batch.size:100}")
+    private int batchSize;
+
+    @Value("${n8n.batch.max-queue-size:10000}")
+    private int maxQueueSize;
+
+    @Value("${n8n.batch.overflow-policy:DROP}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${n8n.batch.block-timeout:500ms}")
+    private Duration blockTimeout;
+
+    private BlockingQueue<Map<String, Object>> queue;
+    private DistributionSummary batchSizes;
+    private Timer flushLatency;
+    private Counter droppedCounter;
+
+    public N8nEventPublisher(OutboxEventRepository outboxEventRepository,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
     }
 
+    @PostConstruct
+    void init() {
+        log.info("n8n integration: enabled={}, webhookUrlConfigured={}, apiKeyPresent={}, batching={}",
+                enabled, isWebhookConfigured(), (apiKey != null && !apiKey.isBlank()), batchEnabled);
+        if (enabled && !isWebhookConfigured()) {
+            log.warn("n8n webhook URL is not configured, conversation events will be skipped");
+        }
+        if (batchEnabled) {
+            initBatching();
+        }
+    }
+
+    void initBatching() {
+        queue = new ArrayBlockingQueue<>(maxQueueSize);
+        Gauge.builder("n8n.batch.queue.depth", queue, BlockingQueue::size)
+                .description("Events waiting to be flushed into an outbox batch")
+                .register(meterRegistry);
+        batchSizes = DistributionSummary.builder("n8n.batch.size")
+                .description("Events per flushed batch")
+                .register(meterRegistry);
+        flushLatency = Timer.builder("n8n.batch.flush.latency")
+                .description("Time to write a batch to the outbox")
+                .register(meterRegistry);
+        droppedCounter = meterRegistry.counter("n8n.batch.dropped");
+    }
+
+    @Transactional
     public void publishConversationCompletedEvent(
             Long userId,
             String email,
@@ -43,21 +136,18 @@ public class N8nEventPublisher {
             List<ProductResponse> recommendedProducts,
             String source
     ) {
-        log.info("N8nEventPublisher config => webhookUrlConfigured={}, enabled={}, apiKeyPresent={}",
-                (webhookUrl != null && !webhookUrl.isBlank()), enabled, (apiKey != null && !apiKey.isBlank()));
-
         if (!enabled) {
             log.debug("n8n integration disabled. Skipping event publish.");
             return;
         }
 
-        if (webhookUrl == null || webhookUrl.isBlank()) {
-            log.warn("n8n webhook URL is not configured. Skipping event publish.");
+        if (!isWebhookConfigured()) {
+            log.debug("n8n webhook URL is not configured. Skipping event publish.");
             return;
         }
 
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("eventType", "conversation_completed");
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("eventType", CONVERSATION_COMPLETED);
         payload.put("timestamp", Instant.now().toString());
         payload.put("userId", userId);
         payload.put("email", email);
@@ -66,19 +156,81 @@ public class N8nEventPublisher {
         payload.put("assistantAnswer", answer);
         payload.put("recommendedProducts", recommendedProducts);
 
-        WebClient.RequestBodySpec request = webClient.post().uri(webhookUrl);
+        if (batchEnabled) {
+            enqueue(payload);
+        } else {
+            writeOutbox(CONVERSATION_COMPLETED, payload);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${n8n.batch.linger-ms:1000}")
+    public void flushLingering() {
+        if (batchEnabled) {
+            flush();
+        }
+    }
 
-        if (apiKey != null && !apiKey.isBlank()) {
-            request = request.header("X-N8N-API-KEY", apiKey);
+    @PreDestroy
+    void flushOnShutdown() {
+        flushLingering();
+    }
+
+    private boolean isWebhookConfigured() {
+        return webhookUrl != null && !webhookUrl.isBlank();
+    }
+
+    private void enqueue(Map<String, Object> payload) {
+        boolean queued = queue.offer(payload);
+        if (!queued && overflowPolicy == OverflowPolicy.BLOCK) {
+            try {
+                queued = queue.offer(payload, blockTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (!queued) {
+                log.warn("n8n batch queue still full after {}, writing event directly", blockTimeout);
+                writeOutbox(CONVERSATION_COMPLETED, payload);
+                return;
+            }
         }
 
-        request
-                .bodyValue(payload)
-                .retrieve()
-                .bodyToMono(Void.class)
-                .doOnSuccess(v -> log.info("Event sent to n8n"))
-                .doOnError(error -> log.warn("Failed to send event to n8n", error))
-                .onErrorResume(error -> Mono.empty())
-                .subscribe();
+        if (!queued) {
+            droppedCounter.increment();
+            log.warn("n8n batch queue full ({} events), dropping {} event", maxQueueSize, CONVERSATION_COMPLETED);
+        }
+    }
+
+    /**
+     * Writes everything queued as batches of at most {@code batchSize}, each in a transaction of its own. Runs on the
+     * scheduler and at shutdown, never inside a request; the lock only keeps those two from flushing at once.
+     */
+    void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Map<String, Object>> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                List<Map<String, Object>> events = List.copyOf(batch);
+                batch.clear();
+                batchSizes.record(events.size());
+                flushLatency.record(() -> batchTransaction.executeWithoutResult(
+                        status -> writeOutbox(CONVERSATION_COMPLETED_BATCH, events)));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writeOutbox(String eventType, Object payload) {
+        try {
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .eventType(eventType)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .nextAttemptAt(LocalDateTime.now())
+                    .build());
+        } catch (JsonProcessingException ex) {
+            log.warn("Failed to serialize {} event, dropping it", eventType, ex);
+        }
     }
 }
@@ -0,0 +1,270 @@
+package com.example.springecommerceapi.integration;
+
+import com.example.springecommerceapi.domain.OutboxEvent;
+import com.example.springecommerceapi.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Drains {@code outbox_event} to the n8n webhook.
+ * <p>
+ * Each poll claims a batch with {@code FOR UPDATE SKIP LOCKED} and leases it by pushing {@code next_attempt_at}
+ * forward before committing, so concurrent pollers (or another instance) skip rows that are in flight. The batch
+ * is posted with at most {@code n8n.outbox.max-concurrency} requests in flight, and the lease covers every wave of
+ * the batch timing out plus one request timeout of margin. Outcomes are only recorded while the lease still holds.
+ * Failures back off exponentially with jitter, and after {@code n8n.outbox.max-attempts} the row is marked
+ * {@code DEAD}.
+ * <p>
+ * Batch rows written by {@link N8nEventPublisher} in batch mode are capped at {@code n8n.batch.max-in-flight}
+ * concurrent posts and gzip-compressed when {@code n8n.batch.gzip} is set.
+ */
+@Slf4j
+@Component
+public class N8nOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final WebClient webClient;
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final AtomicLong oldestPendingAgeSeconds = new AtomicLong();
+    private final Counter dispatchedCounter;
+    private final Counter failedCounter;
+    private final Counter deadCounter;
+
+    @Value("${n8n.webhook-url:}")
+    private String webhookUrl;
+
+    @Value("${n8n.api-key:}")
+    private String apiKey;
+
+    @Value("${n8n.enabled:true}")
+    private boolean enabled;
+
+    @Value("${n8n.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${n8n.outbox.max-concurrency:4}")
+    private int maxConcurrency;
+
+    @Value("${n8n.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${n8n.outbox.request-timeout:10s}")
+    private Duration requestTimeout;
+
+    @Value("${n8n.outbox.initial-backoff:5s}")
+    private Duration initialBackoff;
+
+    @Value("${n8n.outbox.max-backoff:1h}")
+    private Duration maxBackoff;
+
+    @Value("${n8n.batch.enabled:false}")
+    private boolean batchEnabled;
+
+    @Value("${n8n.batch.max-in-flight:2}")
+    private int maxInFlightBatches;
+
+    @Value("${n8n.batch.gzip:false}")
+    private boolean gzipBatches;
+
+    public N8nOutboxDispatcher(WebClient.Builder webClientBuilder,
+                               OutboxEventRepository outboxEventRepository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.webClient = webClientBuilder
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .build();
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("n8n.outbox.pending", pendingCount, AtomicLong::get)
+                .description("Outbox events waiting for delivery")
+                .register(meterRegistry);
+        Gauge.builder("n8n.outbox.oldest.pending.age", oldestPendingAgeSeconds, AtomicLong::get)
+                .description("Age of the oldest undelivered outbox event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.dispatchedCounter = meterRegistry.counter("n8n.outbox.dispatched");
+        this.failedCounter = meterRegistry.counter("n8n.outbox.failed");
+        this.deadCounter = meterRegistry.counter("n8n.outbox.dead");
+    }
+
+    @Scheduled(fixedDelayString = "${n8n.outbox.poll-interval-ms:2000}")
+    public void dispatchPending() {
+        if (!enabled || webhookUrl == null || webhookUrl.isBlank()) {
+            return;
+        }
+
+        int concurrency = concurrency();
+        List<OutboxEvent> batch;
+        do {
+            batch = claimBatch();
+            // Outcomes are recorded on this thread as they arrive, keeping JDBC off the HTTP event loop
+            for (Outcome outcome : Flux.fromIterable(batch).flatMap(this::deliver, concurrency).toIterable()) {
+                record(outcome);
+            }
+        } while (batch.size() == batchSize);
+
+        refreshLagMetrics();
+    }
+
+    List<OutboxEvent> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        // A crashed dispatcher's rows become due again once the lease runs out
+        LocalDateTime leaseUntil = now.plus(leaseDuration()).truncatedTo(ChronoUnit.MILLIS);
+        List<OutboxEvent> due = transactionTemplate.execute(status -> {
+            List<OutboxEvent> locked = outboxEventRepository.lockDue(now, batchSize);
+            if (!locked.isEmpty()) {
+                outboxEventRepository.lease(locked.stream().map(OutboxEvent::getId).toList(), leaseUntil);
+            }
+            return locked;
+        });
+        // Detached by now: this only remembers the lease for the outcome updates
+        due.forEach(event -> event.setNextAttemptAt(leaseUntil));
+        return due;
+    }
+
+    /**
+     * Long enough for a full batch whose every request times out: {@code ceil(batchSize / concurrency)} waves of
+     * {@code requestTimeout}, plus one more as margin.
+     */
+    Duration leaseDuration() {
+        int waves = (batchSize + concurrency() - 1) / concurrency();
+        return requestTimeout.multipliedBy(waves + 1L);
+    }
+
+    private int concurrency() {
+        return Math.max(1, batchEnabled ? maxInFlightBatches : maxConcurrency);
+    }
+
+    private Mono<Outcome> deliver(OutboxEvent event) {
+        WebClient.RequestBodySpec request = webClient.post().uri(webhookUrl);
+        if (apiKey != null && !apiKey.isBlank()) {
+            request = request.header("X-N8N-API-KEY", apiKey);
+        }
+
+        Object body = event.getPayload();
+        if (gzipBatches && N8nEventPublisher.CONVERSATION_COMPLETED_BATCH.equals(event.getEventType())) {
+            request = request.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = gzip(event.getPayload());
+        }
+
+        return request
+                .bodyValue(body)
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(requestTimeout)
+                .map(response -> new Outcome(event, null))
+                .onErrorResume(error -> Mono.just(new Outcome(event, error)));
+    }
+
+    private void record(Outcome outcome) {
+        if (outcome.error() == null) {
+            OutboxEvent event = outcome.event();
+            int updated = outboxEventRepository.markDispatched(event.getId(), event.getNextAttemptAt(),
+                    LocalDateTime.now());
+            if (updated == 0) {
+                leaseLost(event);
+                return;
+            }
+            dispatchedCounter.increment();
+        } else {
+            recordFailure(outcome.event(), outcome.error());
+        }
+    }
+
+    private void recordFailure(OutboxEvent event, Throwable error) {
+        int attempt = event.getAttempts() + 1;
+        String message = truncate(error.getClass().getSimpleName() + ": " + error.getMessage());
+
+        if (attempt >= maxAttempts) {
+            log.error("Outbox event {} ({}) failed {} times, marking DEAD: {}",
+                    event.getId(), event.getEventType(), attempt, message);
+            if (outboxEventRepository.markDead(event.getId(), event.getNextAttemptAt(), message) == 0) {
+                leaseLost(event);
+                return;
+            }
+            deadCounter.increment();
+            return;
+        }
+
+        Duration backoff = backoff(attempt);
+        log.warn("Outbox event {} delivery failed (attempt {}), retrying in {}: {}",
+                event.getId(), attempt, backoff, message);
+        int updated = outboxEventRepository.markRetry(event.getId(), event.getNextAttemptAt(),
+                LocalDateTime.now().plus(backoff), message);
+        if (updated == 0) {
+            leaseLost(event);
+            return;
+        }
+        failedCounter.increment();
+    }
+
+    private void leaseLost(OutboxEvent event) {
+        log.warn("Lease on outbox event {} expired before its outcome was recorded, leaving it to the newer claim",
+                event.getId());
+    }
+
+    /**
+     * {@code initialBackoff * 2^(attempt-1)}, capped at {@code maxBackoff}, plus up to 20% jitter so a
+     * recovering webhook is not hit by every retry at once.
+     */
+    Duration backoff(int attempt) {
+        long base = initialBackoff.toMillis();
+        long exponential = base << Math.min(attempt - 1, 30);
+        long capped = Math.min(exponential < 0 ? Long.MAX_VALUE : exponential, maxBackoff.toMillis());
+        long jitter = (long) (capped * 0.2 * ThreadLocalRandom.current().nextDouble());
+        return Duration.ofMillis(capped + jitter);
+    }
+
+    private void refreshLagMetrics() {
+        pendingCount.set(outboxEventRepository.countPending());
+        oldestPendingAgeSeconds.set(outboxEventRepository.findOldestPendingCreatedAt()
+                .map(createdAt -> Math.max(0, Duration.between(createdAt, LocalDateTime.now()).toSeconds()))
+                .orElse(0L));
+    }
+
+    private static byte[] gzip(String payload) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length() / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private record Outcome(OutboxEvent event, Throwable error) {
+    }
+}
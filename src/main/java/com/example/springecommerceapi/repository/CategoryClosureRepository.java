@@ -0,0 +1,53 @@
+package com.example.springecommerceapi.repository;
+
+import com.example.springecommerceapi.domain.CategoryClosure;
+import com.example.springecommerceapi.domain.CategoryClosureId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Statements keeping {@code category_closure} in step with {@code category.parent_id}. Callers run them in the
+ * same transaction as the category write.
+ */
+public interface CategoryClosureRepository extends JpaRepository<CategoryClosure, CategoryClosureId> {
+
+    boolean existsByAncestorIdAndDescendantId(Long ancestorId, Long descendantId);
+
+    /**
+     * Links a new leaf category to itself and to every ancestor of its parent.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT ancestor_id, CAST(:id AS BIGINT), depth + 1 FROM category_closure WHERE descendant_id = :parentId " +
+            "UNION ALL SELECT CAST(:id AS BIGINT), CAST(:id AS BIGINT), 0",
+            nativeQuery = true)
+    int insertLeaf(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    /**
+     * Cuts every link between the subtree rooted at {@code id} and the categories above it. Links inside the subtree
+     * are kept, so the subtree moves as a unit.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM category_closure " +
+            "WHERE descendant_id IN (SELECT descendant_id FROM category_closure WHERE ancestor_id = :id) " +
+            "AND ancestor_id NOT IN (SELECT descendant_id FROM category_closure WHERE ancestor_id = :id)",
+            nativeQuery = true)
+    int detachSubtree(@Param("id") Long id);
+
+    /**
+     * Links every category in the subtree rooted at {@code id} to {@code parentId} and all of its ancestors.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT above.ancestor_id, below.descendant_id, above.depth + below.depth + 1 " +
+            "FROM category_closure above CROSS JOIN category_closure below " +
+            "WHERE above.descendant_id = :parentId AND below.ancestor_id = :id",
+            nativeQuery = true)
+    int attachSubtree(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    @Modifying
+    @Query(value = "DELETE FROM category_closure WHERE ancestor_id = :id OR descendant_id = :id", nativeQuery = true)
+    int deleteAllFor(@Param("id") Long id);
+}
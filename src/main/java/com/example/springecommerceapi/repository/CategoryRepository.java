@@ -1,7 +1,15 @@
 package com.example.springecommerceapi.repository;
 
 import com.example.springecommerceapi.domain.Category;
+import com.example.springecommerceapi.service.CategoryTree;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    @Query("SELECT new com.example.springecommerceapi.service.CategoryTree$Node(c.id, c.name, p.id) " +
+            "FROM Category c LEFT JOIN c.parent p")
+    List<CategoryTree.Node> findAllNodes();
 }
@@ -1,9 +1,46 @@
 package com.example.springecommerceapi.repository;
 
 import com.example.springecommerceapi.domain.Order;
+import com.example.springecommerceapi.domain.OrderItem;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    @EntityGraph(attributePaths = {"customer", "items", "items.product"})
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findWithDetailsById(@Param("id") Long id);
+
+    @Query("SELECT o FROM Order o JOIN FETCH o.customer ORDER BY o.id")
+    List<Order> findAllWithCustomer();
+
+    @Query("SELECT o FROM Order o WHERE o.customer.id = :customerId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findLatestByCustomerId(@Param("customerId") Long customerId, Limit limit);
+
+    /**
+     * Keyset page strictly older than {@code (createdAt, id)}; served by {@code idx_orders_customer_created_at}.
+     */
+    @Query("""
+            SELECT o FROM Order o
+            WHERE o.customer.id = :customerId
+              AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id))
+            ORDER BY o.createdAt DESC, o.id DESC
+            """)
+    List<Order> findByCustomerIdBefore(@Param("customerId") Long customerId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Limit limit);
+
+    @Query("SELECT i FROM OrderItem i JOIN FETCH i.product WHERE i.order.id IN :orderIds ORDER BY i.id")
+    List<OrderItem> findItemsWithProductByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
 }
@@ -0,0 +1,80 @@
+package com.example.springecommerceapi.repository;
+
+import com.example.springecommerceapi.domain.OrderSubmission;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface OrderSubmissionRepository extends JpaRepository<OrderSubmission, Long> {
+
+    Optional<OrderSubmission> findByIdempotencyKey(String idempotencyKey);
+
+    /**
+     * Moves a pending submission to {@code PROCESSING} under a new claim token. Only one worker gets a non-zero
+     * result.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderSubmission s SET s.status = com.example.springecommerceapi.domain.OrderSubmissionStatus.PROCESSING, " +
+            "s.claimToken = :token, s.updatedAt = :now WHERE s.id = :id " +
+            "AND s.status = com.example.springecommerceapi.domain.OrderSubmissionStatus.PENDING")
+    int claim(@Param("id") Long id, @Param("token") UUID token, @Param("now") LocalDateTime now);
+
+    /**
+     * Locks the submission for the order transaction if the claim is still held. The row lock keeps
+     * {@link #requeueStuck} waiting until the order commits or rolls back.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM OrderSubmission s WHERE s.id = :id AND s.claimToken = :token " +
+            "AND s.status = com.example.springecommerceapi.domain.OrderSubmissionStatus.PROCESSING")
+    Optional<OrderSubmission> lockClaimed(@Param("id") Long id, @Param("token") UUID token);
+
+    @Modifying
+    @Query("UPDATE OrderSubmission s SET s.status = com.example.springecommerceapi.domain.OrderSubmissionStatus.COMPLETED, " +
+            "s.orderId = :orderId, s.response = :response, s.updatedAt = :now WHERE s.id = :id " +
+            "AND s.claimToken = :token")
+    int markCompleted(@Param("id") Long id, @Param("token") UUID token, @Param("orderId") Long orderId,
+                      @Param("response") String response, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderSubmission s SET s.status = com.example.springecommerceapi.domain.OrderSubmissionStatus.FAILED, " +
+            "s.error = :error, s.updatedAt = :now WHERE s.id = :id AND s.claimToken = :token " +
+            "AND s.status = com.example.springecommerceapi.domain.OrderSubmissionStatus.PROCESSING")
+    int markFailed(@Param("id") Long id, @Param("token") UUID token, @Param("error") String error,
+                   @Param("now") LocalDateTime now);
+
+    @Query("SELECT s.id FROM OrderSubmission s " +
+            "WHERE s.status = com.example.springecommerceapi.domain.OrderSubmissionStatus.PENDING " +
+            "AND s.updatedAt < :before ORDER BY s.id")
+    List<Long> findPendingIdsUpdatedBefore(@Param("before") LocalDateTime before, Limit limit);
+
+    /**
+     * Returns submissions whose worker died mid-flight to the queue. A worker still inside its order transaction
+     * holds the row lock from {@link #lockClaimed}, so this waits for it and then skips the row if it completed.
+     * A worker that stalled before taking the lock loses its claim token and cannot create the order afterwards.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderSubmission s SET s.status = com.example.springecommerceapi.domain.OrderSubmissionStatus.PENDING " +
+            "WHERE s.status = com.example.springecommerceapi.domain.OrderSubmissionStatus.PROCESSING " +
+            "AND s.updatedAt < :before")
+    int requeueStuck(@Param("before") LocalDateTime before);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OrderSubmission s WHERE s.expiresAt < :now AND s.status IN (" +
+            "com.example.springecommerceapi.domain.OrderSubmissionStatus.COMPLETED, " +
+            "com.example.springecommerceapi.domain.OrderSubmissionStatus.FAILED)")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,61 @@
+package com.example.springecommerceapi.repository;
+
+import com.example.springecommerceapi.domain.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks up to {@code limit} due rows. Rows already locked by another dispatcher are skipped
+     * rather than waited on, so several instances can drain the table side by side.
+     */
+    @Query(value = "SELECT * FROM outbox_event WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.nextAttemptAt = :leaseUntil WHERE e.id IN :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Applies only while the caller's lease is still in place: once it has run out and the row was claimed again,
+     * {@code next_attempt_at} no longer matches and the newer claim owns the row. {@link #markRetry} and
+     * {@link #markDead} carry the same guard.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = com.example.springecommerceapi.domain.OutboxStatus.DISPATCHED, " +
+            "e.attempts = e.attempts + 1, e.dispatchedAt = :now, e.lastError = NULL " +
+            "WHERE e.id = :id AND e.nextAttemptAt = :leaseUntil")
+    int markDispatched(@Param("id") Long id, @Param("leaseUntil") LocalDateTime leaseUntil,
+                       @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt, " +
+            "e.lastError = :error WHERE e.id = :id AND e.nextAttemptAt = :leaseUntil")
+    int markRetry(@Param("id") Long id, @Param("leaseUntil") LocalDateTime leaseUntil,
+                  @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = com.example.springecommerceapi.domain.OutboxStatus.DEAD, " +
+            "e.attempts = e.attempts + 1, e.lastError = :error WHERE e.id = :id AND e.nextAttemptAt = :leaseUntil")
+    int markDead(@Param("id") Long id, @Param("leaseUntil") LocalDateTime leaseUntil, @Param("error") String error);
+
+    @Query("SELECT count(e) FROM OutboxEvent e WHERE e.status = com.example.springecommerceapi.domain.OutboxStatus.PENDING")
+    long countPending();
+
+    @Query("SELECT min(e.createdAt) FROM OutboxEvent e " +
+            "WHERE e.status = com.example.springecommerceapi.domain.OutboxStatus.PENDING")
+    Optional<LocalDateTime> findOldestPendingCreatedAt();
+}
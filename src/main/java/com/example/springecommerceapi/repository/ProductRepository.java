@@ -1,28 +1,128 @@
 package com.example.springecommerceapi.repository;
 
+import com.example.springecommerceapi.config.CacheConfig;
 import com.example.springecommerceapi.domain.Product;
+import com.example.springecommerceapi.dto.ProductResponse;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
-    boolean existsBySku(String sku);
+    /**
+     * Read model shared by every catalog query: selects {@link ProductResponse} rows directly,
+     * joining the category once instead of lazily per product.
+     */
+    String SELECT_RESPONSE = "SELECT new com.example.springecommerceapi.dto.ProductResponse(" +
+            "p.id, p.name, p.sku, p.price, p.stockQuantity, p.active, c.id, c.name, p.createdAt, p.updatedAt) " +
+            "FROM Product p LEFT JOIN p.category c ";
 
-    @Query("SELECT p FROM Product p WHERE " +
-            "(:keyword IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(p.category.name) LIKE LOWER(CONCAT('%', :keyword, '%'))) AND "
-            +
+    String SEARCH_FILTER = "WHERE " +
+            "(:keyword IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(c.name) LIKE LOWER(CONCAT('%', :keyword, '%'))) AND " +
             "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
             "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
-            "(:inStock IS NULL OR (:inStock = true AND p.stockQuantity > 0) OR (:inStock = false AND p.stockQuantity = 0)) AND "
-            +
-            "p.active = true")
-    List<Product> searchProducts(
+            "(:inStock IS NULL OR (:inStock = true AND p.stockQuantity > 0) OR (:inStock = false AND p.stockQuantity = 0)) AND " +
+            "p.active = true";
+
+    String FULL_TEXT_FILTER = "SELECT p.id FROM product p " +
+            "WHERE p.is_active = true " +
+            "AND p.search_vector @@ turkish_search_query(:query) " +
+            "AND (CAST(:minPrice AS NUMERIC) IS NULL OR p.price >= :minPrice) " +
+            "AND (CAST(:maxPrice AS NUMERIC) IS NULL OR p.price <= :maxPrice) " +
+            "AND (CAST(:inStock AS BOOLEAN) IS NULL " +
+            "OR (CAST(:inStock AS BOOLEAN) = true AND p.stock_quantity > 0) " +
+            "OR (CAST(:inStock AS BOOLEAN) = false AND p.stock_quantity = 0)) ";
+
+    String SEARCH_ORDER = " ORDER BY CASE WHEN p.stockQuantity > 0 THEN 0 ELSE 1 END, p.id";
+
+    String FULL_TEXT_ORDER = "ORDER BY CASE WHEN p.stock_quantity > 0 THEN 0 ELSE 1 END, " +
+            "ts_rank(p.search_vector, turkish_search_query(:query)) DESC, p.id " +
+            "LIMIT :limit";
+
+    boolean existsBySku(String sku);
+
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, unless = "#result == null")
+    @Query(SELECT_RESPONSE + "WHERE p.id = :id")
+    Optional<ProductResponse> findResponseById(@Param("id") Long id);
+
+    /**
+     * SKUs resolve to ids rather than to responses, so a stock or price change only has to evict
+     * the {@link CacheConfig#PRODUCTS} entry.
+     */
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_IDS_BY_SKU, unless = "#result == null")
+    @Query("SELECT p.id FROM Product p WHERE p.sku = :sku")
+    Optional<Long> findIdBySku(@Param("sku") String sku);
+
+    @Query(SELECT_RESPONSE + "WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductResponse> findResponsePageAfter(@Param("afterId") long afterId, Limit limit);
+
+    @Query(SELECT_RESPONSE + "WHERE p.id IN :ids")
+    List<ProductResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SELECT_RESPONSE + "ORDER BY p.id")
+    Stream<ProductResponse> streamAllResponses();
+
+    /**
+     * {@code LIKE} fallback for catalog search: in-stock products first, then id order, capped by {@code limit}
+     * like the full-text lookup.
+     */
+    @Query(SELECT_RESPONSE + SEARCH_FILTER + SEARCH_ORDER)
+    List<ProductResponse> searchProducts(
+            @Param("keyword") String keyword,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            @Param("inStock") Boolean inStock,
+            Limit limit);
+
+    /**
+     * {@link #searchProducts} restricted to {@code categoryId} and every category below it. The subtree comes from
+     * a primary key scan of {@code category_closure}, however deep the hierarchy is.
+     */
+    @Query(SELECT_RESPONSE + SEARCH_FILTER + " AND c.id IN (" +
+            "SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId)" + SEARCH_ORDER)
+    List<ProductResponse> searchProductsInSubtree(
             @Param("keyword") String keyword,
             @Param("minPrice") BigDecimal minPrice,
             @Param("maxPrice") BigDecimal maxPrice,
-            @Param("inStock") Boolean inStock);
+            @Param("inStock") Boolean inStock,
+            @Param("categoryId") Long categoryId,
+            Limit limit);
+
+    /**
+     * Ranked full-text lookup over the GIN-indexed {@code search_vector} column (see the V2 and V9 migrations).
+     * Returns product ids in-stock first, then best match first; hydrate them with {@link #findResponsesByIdIn}.
+     */
+    @Query(value = FULL_TEXT_FILTER + FULL_TEXT_ORDER, nativeQuery = true)
+    List<Long> fullTextSearchIds(
+            @Param("query") String query,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            @Param("inStock") Boolean inStock,
+            @Param("limit") int limit);
+
+    @Query(value = FULL_TEXT_FILTER + "AND p.category_id IN (" +
+            "SELECT cc.descendant_id FROM category_closure cc WHERE cc.ancestor_id = :categoryId) " + FULL_TEXT_ORDER,
+            nativeQuery = true)
+    List<Long> fullTextSearchIdsInSubtree(
+            @Param("query") String query,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            @Param("inStock") Boolean inStock,
+            @Param("categoryId") Long categoryId,
+            @Param("limit") int limit);
 }
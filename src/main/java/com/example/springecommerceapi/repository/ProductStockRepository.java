@@ -0,0 +1,43 @@
+package com.example.springecommerceapi.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * Atomic stock adjustments. Each line is a single conditional UPDATE so concurrent buyers can never
+ * drive stock below zero; all lines of an order go to the database as one JDBC batch.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductStockRepository {
+
+    private static final String DECREMENT_SQL =
+            "UPDATE product SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?";
+
+    private static final String INCREMENT_SQL =
+            "UPDATE product SET stock_quantity = stock_quantity + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Applies the decrements in key order and returns one update count per entry;
+     * {@code 0} means the product did not have enough stock.
+     */
+    public int[] decrementStock(SortedMap<Long, Integer> quantitiesByProductId) {
+        List<Object[]> args = quantitiesByProductId.entrySet().stream()
+                .map(e -> new Object[]{e.getValue(), e.getKey(), e.getValue()})
+                .toList();
+        return jdbcTemplate.batchUpdate(DECREMENT_SQL, args);
+    }
+
+    public int[] incrementStock(SortedMap<Long, Integer> quantitiesByProductId) {
+        List<Object[]> args = quantitiesByProductId.entrySet().stream()
+                .map(e -> new Object[]{e.getValue(), e.getKey()})
+                .toList();
+        return jdbcTemplate.batchUpdate(INCREMENT_SQL, args);
+    }
+}
@@ -1,49 +1,129 @@
 package com.example.springecommerceapi.service;
 
+import com.example.springecommerceapi.config.AssistantStructuredOutputConfig;
+import com.example.springecommerceapi.config.PayloadLogSampler;
 import com.example.springecommerceapi.dto.AssistantResponse;
 import com.example.springecommerceapi.dto.ProductResponse;
+import com.example.springecommerceapi.dto.ProductSearchRequest;
+import com.example.springecommerceapi.dto.ProductSummary;
+import com.example.springecommerceapi.exception.ServiceOverloadedException;
+import com.example.springecommerceapi.function.ProductSearchCompactor;
+import com.example.springecommerceapi.function.ProductSearchFunctionConfig;
 import com.example.springecommerceapi.integration.N8nEventPublisher;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.model.function.FunctionCallback;
+import org.springframework.ai.ollama.api.OllamaOptions;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class AiShoppingAssistantService {
 
+    /**
+     * JSON schema of {@link ModelReply}, used as Ollama's {@code format} so decoding is constrained to it. The model
+     * only picks product ids; the products themselves are filled in from the search results.
+     */
+    public static final Map<String, Object> REPLY_SCHEMA = replySchema();
+
+    private static final String DEFAULT_SOURCE = "ecommerce_chat";
+    private static final String WARM_UP_MESSAGE = "Merhaba";
+    private static final String FALLBACK_ANSWER = "Şu anda akıllı asistanımızda bir sorun oluştu. " +
+            "Lütfen daha sonra tekrar dener misin?";
+
+    /**
+     * Shared, unchanging start of both system prompts. Ollama reuses the evaluated prompt of the previous request up to
+     * the first differing token, so nothing request-specific may go into the system prompts.
+     */
+    private static final String SYSTEM_PROMPT_PREFIX = """
+            Sen, 'Spring E-Commerce' mağazasının akıllı, yardımsever ve doğal dilde tavsiyeler verebilen alışveriş asistanısın. \
+            Kullanıcı senden bir şey istediğinde 'productSearchFunction' aracını (tool) kullanarak kataloğu tara ve \
+            sonuçlara göre en uygun ürünleri öner. Asla veritabanında olmayan hayali bir ürün önerme. \
+            """;
+
+    private static final String REPLY_SYSTEM_PROMPT = SYSTEM_PROMPT_PREFIX + """
+            Cevabını HER ZAMAN AŞAĞIDAKİ ŞEMAYA UYAN, GEÇERLİ JSON OLARAK DÖN:
+            { "answer": "kısa doğal dil açıklama", "productIds": [1, 2] }
+            ÖNEMLİ:
+            - 'productIds' listesine SADECE 'productSearchFunction' sonuçlarındaki ürünlerin 'id' değerlerini yaz. \
+            Ürün adı, fiyat veya stok gibi alanları JSON'a ekleme; ürün bilgileri kullanıcıya ayrıca gösterilecek.
+            - JSON içinde markdown, backtick veya apostrof için ters eğik çizgi kullanma.
+            - Türkçe açıklamayı 'answer' alanına yaz.\
+            """;
+
+    /**
+     * The streaming endpoint sends products as a separate event built from the tool results,
+     * so the model only has to write the explanation.
+     */
+    private static final String STREAM_SYSTEM_PROMPT = SYSTEM_PROMPT_PREFIX + """
+            Cevabını kısa, düz Türkçe metin olarak yaz. JSON, markdown veya ürün listesi üretme; \
+            bulunan ürünler kullanıcıya ayrıca gösterilecek.\
+            """;
+
     private final ChatClient chatClient;
+    private final ChatClient replyClient;
     private final N8nEventPublisher n8nEventPublisher;
-    private final ObjectMapper objectMapper;
+    private final ModelJsonRepairer jsonRepairer;
+    private final AssistantResponseCache responseCache;
+    private final AssistantConcurrencyLimiter concurrencyLimiter;
+    private final PayloadLogSampler payloadLogSampler;
+    private final ProductService productService;
+    private final Function<ProductSearchRequest, List<ProductResponse>> productSearchFunction;
+    private final ProductSearchCompactor searchCompactor;
 
     public AiShoppingAssistantService(ChatClient.Builder chatClientBuilder,
                                       N8nEventPublisher n8nEventPublisher,
-                                      ObjectMapper objectMapper) {
+                                      ModelJsonRepairer jsonRepairer,
+                                      AssistantResponseCache responseCache,
+                                      AssistantConcurrencyLimiter concurrencyLimiter,
+                                      PayloadLogSampler payloadLogSampler,
+                                      ProductService productService,
+                                      @Qualifier(AssistantStructuredOutputConfig.CHAT_CLIENT)
+                                      ObjectProvider<ChatClient> structuredOutputChatClient,
+                                      @Qualifier(ProductSearchFunctionConfig.FUNCTION_NAME)
+                                      Function<ProductSearchRequest, List<ProductResponse>> productSearchFunction,
+                                      ProductSearchCompactor searchCompactor,
+                                      ModelMetricsAdvisor modelMetricsAdvisor) {
 
         this.chatClient = chatClientBuilder
-                .defaultSystem("""
-                        Sen, 'Spring E-Commerce' mağazasının akıllı, yardımsever ve doğal dilde tavsiyeler verebilen alışveriş asistanısın. \
-                        Kullanıcı senden bir şey istediğinde 'productSearchFunction' aracını (tool) kullanarak kataloğu tara ve \
-                        sonuçlara göre en uygun ürünleri öner. Asla veritabanında olmayan hayali bir ürün önerme. \
-                        Cevabını HER ZAMAN AŞAĞIDAKİ ŞEMAYA UYAN, GEÇERLİ JSON OLARAK DÖN:
-                        { "answer": "kısa doğal dil açıklama", "recommendedProducts": [ { "id": 1, "name": "...", "sku": "...", "price": 199.99, "stockQuantity": 10, "active": true, "categoryId": 1, "categoryName": "...", "createdAt": "2024-01-01T10:00:00", "updatedAt": "2024-01-01T10:00:00" } ] }
-                        ÖNEMLİ:
-                        - JSON içinde ASLA '\\\\' karakterini para birimi veya apostrof için kullanma. Özellikle '\\\\'' (ters eğik çizgi + tek tırnak) yazma.
-                        - '$' karakteri KULLANMA. Fiyatları JSON'da SADECE SAYI olarak yaz (örnek: 199.99). Para birimi ekleme.
-                        - JSON içinde markdown, backtick, yeni satır kaçışları gibi karmaşık şeyler kullanma.
-                        - Sadece geçerli JSON üret; Türkçe açıklamayı 'answer' alanına yaz, ürünleri 'recommendedProducts' listesine koy.\
-                        """)
+                .defaultSystem(REPLY_SYSTEM_PROMPT)
+                .defaultAdvisors(modelMetricsAdvisor)
                 .build();
+        // schema-constrained when structured output is enabled; the streaming answer always uses chatClient
+        ChatClient structured = structuredOutputChatClient.getIfAvailable();
+        this.replyClient = structured != null
+                ? structured.mutate().defaultSystem(REPLY_SYSTEM_PROMPT).defaultAdvisors(modelMetricsAdvisor).build()
+                : this.chatClient;
 
         this.n8nEventPublisher = n8nEventPublisher;
-        this.objectMapper = objectMapper;
+        this.jsonRepairer = jsonRepairer;
+        this.responseCache = responseCache;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.payloadLogSampler = payloadLogSampler;
+        this.productService = productService;
+        this.productSearchFunction = productSearchFunction;
+        this.searchCompactor = searchCompactor;
     }
 
     public AssistantResponse chat(String userMessage) {
-        return chat(userMessage, null, null, "ecommerce_chat");
+        return chat(userMessage, null, null, DEFAULT_SOURCE);
     }
 
     public AssistantResponse chat(String userMessage,
@@ -51,41 +131,145 @@ public class AiShoppingAssistantService {
                                   String email,
                                   String source) {
 
-        log.info("Received chat message from user (userId={}): {}", userId, userMessage);
+        log.info("Received chat message (userId={}, length={})", userId, lengthOf(userMessage));
+        boolean logPayloads = payloadLogSampler.sample(log);
+        if (logPayloads) {
+            log.debug("User message: {}", payloadLogSampler.truncate(userMessage));
+        }
 
         AssistantResponse assistantResponse;
+        AssistantResponseCache.Lookup cached = responseCache.lookup(userMessage, AssistantResponseCache.Mode.REPLY);
 
-        try {
-            String rawContent = chatClient
-                    .prompt()
-                    .user(userMessage)
-                    .functions("productSearchFunction")
-                    .call()
-                    .content();
+        if (cached.hit() != null) {
+            log.info("Assistant response served from cache");
+            assistantResponse = cached.hit();
+        } else {
+            assistantResponse = askModel(userMessage, cached, logPayloads);
+        }
 
-            log.info("Raw model response: {}", rawContent);
+        publishConversationCompleted(userId, email, userMessage, assistantResponse, source);
 
-            String cleaned = sanitizeJsonLikeString(rawContent);
+        return assistantResponse;
+    }
 
-            log.info("Sanitized model response: {}", cleaned);
+    /**
+     * Streams the answer as {@code token} events, then a {@code products} event holding every product the
+     * search tool returned during this request, then {@code done}. A model failure ends the stream with an
+     * {@code error} event carrying the fallback answer. When the model is saturated a
+     * {@link ServiceOverloadedException} is thrown before the stream starts.
+     */
+    public Flux<ServerSentEvent<Object>> chatStream(String userMessage,
+                                                    Long userId,
+                                                    String email,
+                                                    String source) {
 
-            assistantResponse = objectMapper.readValue(cleaned, AssistantResponse.class);
+        log.info("Received streaming chat message (userId={}, length={})", userId, lengthOf(userMessage));
+        if (payloadLogSampler.sample(log)) {
+            log.debug("User message: {}", payloadLogSampler.truncate(userMessage));
+        }
 
-            log.info("Assistant parsed successfully. answerLength={}, recommendedProducts={}",
-                    assistantResponse.answer() != null ? assistantResponse.answer().length() : 0,
-                    assistantResponse.recommendedProducts() != null ? assistantResponse.recommendedProducts().size() : 0
-            );
+        AssistantResponseCache.Lookup cached = responseCache.lookup(userMessage, AssistantResponseCache.Mode.STREAM);
+        if (cached.hit() != null) {
+            log.info("Assistant response served from cache");
+            AssistantResponse hit = cached.hit();
+            publishConversationCompleted(userId, email, userMessage, hit, source);
+            return Flux.just(tokenEvent(hit.answer()), productsEvent(hit.recommendedProducts()), doneEvent());
+        }
 
-        } catch (Exception ex) {
-            log.error("Error while calling AI shopping assistant", ex);
+        AssistantConcurrencyLimiter.Permit permit = concurrencyLimiter.acquire();
+        Map<Long, ProductResponse> toolResults = Collections.synchronizedMap(new LinkedHashMap<>());
+        StringBuffer answer = new StringBuffer();
 
-            String fallbackAnswer = "Şu anda akıllı asistanımızda bir sorun oluştu. " +
-                    "Lütfen daha sonra tekrar dener misin?";
-            List<ProductResponse> emptyList = Collections.emptyList();
+        Flux<ServerSentEvent<Object>> tokens = chatClient
+                .prompt()
+                .system(STREAM_SYSTEM_PROMPT)
+                .user(userMessage)
+                .functions(capturingSearchCallback(toolResults))
+                .stream()
+                .content()
+                .doOnComplete(permit::onSuccess)
+                .doOnError(ex -> permit.onDropped())
+                .doOnCancel(permit::onIgnore)
+                .doOnNext(answer::append)
+                .map(this::tokenEvent);
 
-            assistantResponse = new AssistantResponse(fallbackAnswer, emptyList);
-        }
+        // the model stream completes on a Netty event loop; the outbox insert must not block it
+        Flux<ServerSentEvent<Object>> completion = Mono.fromCallable(() -> {
+                    List<ProductResponse> products;
+                    synchronized (toolResults) {
+                        products = List.copyOf(toolResults.values());
+                    }
+                    AssistantResponse response = new AssistantResponse(answer.toString().trim(), products);
+
+                    log.info("Assistant stream completed. answerLength={}, recommendedProducts={}",
+                            response.answer().length(), products.size());
+
+                    responseCache.store(cached, response);
+                    publishConversationCompleted(userId, email, userMessage, response, source);
+                    return products;
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(products -> Flux.just(productsEvent(products), doneEvent()));
 
+        return tokens
+                .concatWith(completion)
+                .onErrorResume(ex -> {
+                    log.error("Error while streaming AI shopping assistant response", ex);
+                    return Flux.just(
+                            ServerSentEvent.<Object>builder(Map.of("answer", FALLBACK_ANSWER)).event("error").build(),
+                            doneEvent());
+                });
+    }
+
+    /**
+     * Sends both system prompts, with the search tool, exactly as user requests do and asks for a single token. This
+     * loads the model and leaves the shared prompt prefix evaluated in Ollama's cache before the first user arrives.
+     */
+    public void warmUp() {
+        OllamaOptions singleToken = OllamaOptions.builder().numPredict(1).build();
+        replyClient
+                .prompt()
+                .user(WARM_UP_MESSAGE)
+                .functions(capturingSearchCallback(new HashMap<>()))
+                .options(singleToken)
+                .call()
+                .content();
+        chatClient
+                .prompt()
+                .system(STREAM_SYSTEM_PROMPT)
+                .user(WARM_UP_MESSAGE)
+                .functions(capturingSearchCallback(new HashMap<>()))
+                .options(singleToken)
+                .call()
+                .content();
+    }
+
+    private FunctionCallback capturingSearchCallback(Map<Long, ProductResponse> toolResults) {
+        return FunctionCallback.builder()
+                .function(ProductSearchFunctionConfig.FUNCTION_NAME, (ProductSearchRequest request) -> {
+                    List<ProductResponse> results = searchCompactor.compact(productSearchFunction.apply(request));
+                    results.forEach(product -> toolResults.putIfAbsent(product.getId(), product));
+                    return results.stream().map(ProductSummary::of).toList();
+                })
+                .description(ProductSearchFunctionConfig.DESCRIPTION)
+                .inputType(ProductSearchRequest.class)
+                .build();
+    }
+
+    private ServerSentEvent<Object> tokenEvent(String text) {
+        return ServerSentEvent.<Object>builder(Map.of("text", text)).event("token").build();
+    }
+
+    private ServerSentEvent<Object> productsEvent(List<ProductResponse> products) {
+        return ServerSentEvent.<Object>builder(products).event("products").build();
+    }
+
+    private ServerSentEvent<Object> doneEvent() {
+        return ServerSentEvent.<Object>builder(Map.of()).event("done").build();
+    }
+
+    private void publishConversationCompleted(Long userId, String email, String userMessage,
+                                              AssistantResponse assistantResponse, String source) {
         try {
             n8nEventPublisher.publishConversationCompletedEvent(
                     userId,
@@ -93,37 +277,104 @@ public class AiShoppingAssistantService {
                     userMessage,
                     assistantResponse.answer(),
                     assistantResponse.recommendedProducts(),
-                    (source != null && !source.isBlank()) ? source : "ecommerce_chat"
+                    (source != null && !source.isBlank()) ? source : DEFAULT_SOURCE
             );
         } catch (Exception e) {
             log.warn("Failed to publish conversation_completed event to n8n", e);
         }
-
-        return assistantResponse;
     }
 
-    private String sanitizeJsonLikeString(String raw) {
-        if (raw == null) {
-            return "{}";
+    private AssistantResponse askModel(String userMessage, AssistantResponseCache.Lookup cached,
+                                       boolean logPayloads) {
+        try {
+            Map<Long, ProductResponse> toolResults = Collections.synchronizedMap(new LinkedHashMap<>());
+            String rawContent = callModel(userMessage, toolResults);
+
+            if (logPayloads) {
+                log.debug("Raw model response ({} chars): {}", lengthOf(rawContent),
+                        payloadLogSampler.truncate(rawContent));
+                log.debug("Repaired model response: {}", payloadLogSampler.truncate(jsonRepairer.repair(rawContent)));
+            }
+
+            ModelReply reply = jsonRepairer.read(rawContent, ModelReply.class,
+                    answer -> new ModelReply(answer, List.of()));
+            AssistantResponse assistantResponse = new AssistantResponse(reply.answer(),
+                    hydrate(reply.productIds(), toolResults));
+
+            log.info("Assistant parsed successfully. answerLength={}, recommendedProducts={}",
+                    lengthOf(assistantResponse.answer()), assistantResponse.recommendedProducts().size());
+
+            responseCache.store(cached, assistantResponse);
+            return assistantResponse;
+
+        } catch (ServiceOverloadedException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            log.error("Error while calling AI shopping assistant", ex);
+
+            List<ProductResponse> emptyList = Collections.emptyList();
+
+            return new AssistantResponse(FALLBACK_ANSWER, emptyList);
         }
+    }
 
-        String s = raw.trim();
+    private String callModel(String userMessage, Map<Long, ProductResponse> toolResults) {
+        AssistantConcurrencyLimiter.Permit permit = concurrencyLimiter.acquire();
+        try {
+            String content = replyClient
+                    .prompt()
+                    .user(userMessage)
+                    .functions(capturingSearchCallback(toolResults))
+                    .call()
+                    .content();
+            permit.onSuccess();
+            return content;
+        } catch (RuntimeException ex) {
+            permit.onDropped();
+            throw ex;
+        }
+    }
 
-        int firstBrace = s.indexOf('{');
-        int lastBrace = s.lastIndexOf('}');
-        if (firstBrace >= 0 && lastBrace > firstBrace) {
-            s = s.substring(firstBrace, lastBrace + 1);
-        } else {
-            String escaped = s.replace("\\", "\\\\").replace("\"", "\\\"");
-            return "{\"answer\":\"" + escaped + "\",\"recommendedProducts\":[]}";
+    /**
+     * Resolves the ids the model picked, in its order: from the products the search tool returned during this
+     * request, then through the product cache. Ids that match no product are dropped.
+     */
+    private List<ProductResponse> hydrate(List<Long> productIds, Map<Long, ProductResponse> toolResults) {
+        if (productIds == null || productIds.isEmpty()) {
+            return List.of();
         }
+        Set<Long> ids = productIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
 
-        s = s.replace("\\'", "'");
+        List<Long> unseen = ids.stream().filter(id -> !toolResults.containsKey(id)).toList();
+        Map<Long, ProductResponse> fetched = unseen.isEmpty() ? Map.of() : productService.getByIds(unseen).stream()
+                .collect(Collectors.toMap(ProductResponse::getId, Function.identity()));
+        if (fetched.size() < unseen.size()) {
+            log.warn("Model picked unknown product ids: {}",
+                    unseen.stream().filter(id -> !fetched.containsKey(id)).toList());
+        }
+        return ids.stream()
+                .map(id -> toolResults.getOrDefault(id, fetched.get(id)))
+                .filter(Objects::nonNull)
+                .toList();
+    }
 
-        s = s.replaceAll("\\\\([^\"\\\\bfnrtu/])", "$1");
+    private static Map<String, Object> replySchema() {
+        // answer first, so the explanation is generated before the ids
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("answer", Map.of("type", "string"));
+        properties.put("productIds", Map.of("type", "array", "items", Map.of("type", "integer")));
+        return Map.of("type", "object", "properties", properties, "required", List.of("answer", "productIds"));
+    }
 
-        s = s.replaceAll("\"(\\d+(?:\\.\\d+)?)\\s*TL\"", "\"$1\"");
+    private static int lengthOf(String text) {
+        return text != null ? text.length() : 0;
+    }
 
-        return s;
+    /**
+     * What the model is asked to write; see {@link #REPLY_SCHEMA}.
+     */
+    record ModelReply(String answer, List<Long> productIds) {
     }
-}
\ No newline at end of file
+}
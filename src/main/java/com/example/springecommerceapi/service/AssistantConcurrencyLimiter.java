@@ -0,0 +1,213 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive (AIMD) bulkhead in front of the Ollama model. A single local model serves requests largely one after
+ * another, so letting every request through only makes all of them time out together.
+ * <p>
+ * The limit grows by one per limit's worth of fast calls and shrinks by {@code backoff-ratio} whenever a call
+ * fails or takes longer than {@code latency-threshold}. Callers over the limit wait in a bounded queue for at most
+ * {@code max-wait}; beyond that they get a {@link ServiceOverloadedException} (HTTP 429) straight away.
+ */
+@Slf4j
+@Component
+public class AssistantConcurrencyLimiter {
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final Duration maxWait;
+    private final Duration latencyThreshold;
+    private final double backoffRatio;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int queued;
+
+    private final Timer queueWait;
+    private final Counter rejected;
+
+    public AssistantConcurrencyLimiter(@Value("${assistant.limiter.enabled:true}") boolean enabled,
+                                       @Value("${assistant.limiter.initial-limit:2}") int initialLimit,
+                                       @Value("${assistant.limiter.min-limit:1}") int minLimit,
+                                       @Value("${assistant.limiter.max-limit:8}") int maxLimit,
+                                       @Value("${assistant.limiter.max-queue:32}") int maxQueue,
+                                       @Value("${assistant.limiter.max-wait:5s}") Duration maxWait,
+                                       @Value("${assistant.limiter.latency-threshold:20s}") Duration latencyThreshold,
+                                       @Value("${assistant.limiter.backoff-ratio:0.7}") double backoffRatio,
+                                       MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = maxQueue;
+        this.maxWait = maxWait;
+        this.latencyThreshold = latencyThreshold;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+
+        Gauge.builder("assistant.limiter.limit", this, AssistantConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit for model calls")
+                .register(meterRegistry);
+        Gauge.builder("assistant.limiter.inflight", this, AssistantConcurrencyLimiter::getInFlight)
+                .description("Model calls in flight")
+                .register(meterRegistry);
+        Gauge.builder("assistant.limiter.queued", this, AssistantConcurrencyLimiter::getQueued)
+                .description("Requests waiting for a model call slot")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("assistant.limiter.queue.wait")
+                .description("Time spent waiting for a model call slot")
+                .register(meterRegistry);
+        this.rejected = meterRegistry.counter("assistant.limiter.rejected");
+    }
+
+    /**
+     * Blocks until a slot is free, for at most {@code max-wait}. Every returned permit must be completed with
+     * exactly one of its {@code on*} methods; later calls are ignored.
+     *
+     * @throws ServiceOverloadedException when the wait queue is full or the wait times out
+     */
+    public Permit acquire() {
+        if (!enabled) {
+            return new Permit(System.nanoTime(), false);
+        }
+
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit) {
+                awaitSlot();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+
+        long acquired = System.nanoTime();
+        queueWait.record(acquired - start, TimeUnit.NANOSECONDS);
+        return new Permit(acquired, true);
+    }
+
+    private void awaitSlot() {
+        if (queued >= maxQueue) {
+            throw reject("Assistant is busy, wait queue is full");
+        }
+
+        queued++;
+        try {
+            long remaining = maxWait.toNanos();
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    throw reject("Assistant is busy, no slot freed up within " + maxWait.toMillis() + " ms");
+                }
+                remaining = permitReleased.awaitNanos(remaining);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw reject("Interrupted while waiting for the assistant");
+        } finally {
+            queued--;
+        }
+    }
+
+    private ServiceOverloadedException reject(String message) {
+        rejected.increment();
+        log.warn("{} (limit={}, inFlight={}, queued={})", message, (int) limit, inFlight, queued);
+        return new ServiceOverloadedException(message, maxWait);
+    }
+
+    private void release(long startNanos, Outcome outcome) {
+        long latency = System.nanoTime() - startNanos;
+        lock.lock();
+        try {
+            // Only grow while the limit is actually being used, otherwise idle periods would inflate it
+            boolean saturated = inFlight * 2 >= limit;
+            inFlight--;
+            if (outcome == Outcome.DROPPED || (outcome == Outcome.SUCCESS && latency > latencyThreshold.toNanos())) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (outcome == Outcome.SUCCESS && saturated) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private enum Outcome { SUCCESS, DROPPED, IGNORED }
+
+    public final class Permit {
+
+        private final long startNanos;
+        private final AtomicBoolean open;
+
+        private Permit(long startNanos, boolean tracked) {
+            this.startNanos = startNanos;
+            this.open = new AtomicBoolean(tracked);
+        }
+
+        /** The model answered; fast answers raise the limit, slow ones lower it. */
+        public void onSuccess() {
+            complete(Outcome.SUCCESS);
+        }
+
+        /** The model failed or timed out; the limit is lowered. */
+        public void onDropped() {
+            complete(Outcome.DROPPED);
+        }
+
+        /** The call ended for reasons unrelated to model load, e.g. the client went away. */
+        public void onIgnore() {
+            complete(Outcome.IGNORED);
+        }
+
+        private void complete(Outcome outcome) {
+            if (open.compareAndSet(true, false)) {
+                release(startNanos, outcome);
+            }
+        }
+    }
+}
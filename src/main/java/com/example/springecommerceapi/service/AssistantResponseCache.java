@@ -0,0 +1,171 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.dto.AssistantResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Caches successful assistant answers by normalized message text, so repeated questions skip the model.
+ * <p>
+ * With {@code assistant.cache.semantic.enabled} an exact miss falls back to the closest cached question by
+ * embedding cosine similarity, accepted at or above {@code assistant.cache.semantic.threshold}. Everything
+ * is dropped on {@link CatalogChangedEvent}; the TTL bounds how stale stock levels in an answer can get.
+ * Entries are kept apart per {@link Mode}, since the two endpoints fill {@code recommendedProducts} differently.
+ */
+@Slf4j
+@Component
+public class AssistantResponseCache {
+
+    private static final Locale TURKISH = Locale.forLanguageTag("tr");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final boolean enabled;
+    private final double similarityThreshold;
+    private final EmbeddingModel embeddingModel;
+    private final Cache<String, AssistantResponse> responses;
+    private final Cache<String, float[]> embeddings;
+
+    public AssistantResponseCache(@Value("${assistant.cache.enabled:true}") boolean enabled,
+                                  @Value("${assistant.cache.ttl:10m}") Duration ttl,
+                                  @Value("${assistant.cache.max-size:1000}") long maxSize,
+                                  @Value("${assistant.cache.semantic.enabled:false}") boolean semanticEnabled,
+                                  @Value("${assistant.cache.semantic.threshold:0.92}") double similarityThreshold,
+                                  ObjectProvider<EmbeddingModel> embeddingModelProvider,
+                                  MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.similarityThreshold = similarityThreshold;
+        this.embeddingModel = semanticEnabled ? embeddingModelProvider.getIfAvailable() : null;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.embeddings = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "assistantResponses");
+
+        if (semanticEnabled && embeddingModel == null) {
+            log.warn("Semantic assistant cache enabled but no EmbeddingModel is available; using exact matches only");
+        }
+    }
+
+    public Lookup lookup(String message, Mode mode) {
+        String text = normalize(message);
+        if (!enabled || text.isEmpty()) {
+            return new Lookup(null, null, null);
+        }
+        String prefix = mode.name() + ':';
+        String key = prefix + text;
+
+        AssistantResponse exact = responses.getIfPresent(key);
+        if (exact != null || embeddingModel == null) {
+            return new Lookup(key, null, exact);
+        }
+
+        float[] embedding = embed(text);
+        if (embedding == null) {
+            return new Lookup(key, null, null);
+        }
+
+        String bestKey = null;
+        double bestScore = similarityThreshold;
+        for (Map.Entry<String, float[]> candidate : embeddings.asMap().entrySet()) {
+            if (!candidate.getKey().startsWith(prefix)) {
+                continue;
+            }
+            double score = cosine(embedding, candidate.getValue());
+            if (score >= bestScore) {
+                bestScore = score;
+                bestKey = candidate.getKey();
+            }
+        }
+
+        AssistantResponse similar = bestKey != null ? responses.getIfPresent(bestKey) : null;
+        if (similar != null) {
+            log.debug("Semantic cache hit: '{}' ~ '{}' (score={})", key, bestKey, bestScore);
+        }
+        return new Lookup(key, embedding, similar);
+    }
+
+    public void store(Lookup lookup, AssistantResponse response) {
+        if (lookup.key() == null || response == null) {
+            return;
+        }
+        responses.put(lookup.key(), response);
+        if (lookup.embedding() != null) {
+            embeddings.put(lookup.key(), lookup.embedding());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        log.debug("Catalog changed ({} {}), clearing assistant response cache", event.entity(), event.id());
+        responses.invalidateAll();
+        embeddings.invalidateAll();
+    }
+
+    static String normalize(String message) {
+        if (message == null) {
+            return "";
+        }
+        String folded = Normalizer.normalize(message, Normalizer.Form.NFC).toLowerCase(TURKISH);
+        return NON_WORD.matcher(folded).replaceAll(" ").trim();
+    }
+
+    private float[] embed(String text) {
+        try {
+            return embeddingModel.embed(text);
+        } catch (Exception ex) {
+            log.warn("Embedding lookup failed, treating as cache miss", ex);
+            return null;
+        }
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        if (a.length != b.length) {
+            return -1;
+        }
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return (normA == 0 || normB == 0) ? -1 : dot / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+
+    /**
+     * Endpoint an answer was produced for. {@code REPLY} answers carry the products the model picked,
+     * {@code STREAM} answers every product the search tool returned.
+     */
+    public enum Mode {
+        REPLY,
+        STREAM
+    }
+
+    /**
+     * Result of {@link #lookup}: the normalized key and embedding are kept so a miss can be stored
+     * without normalizing or embedding the message twice.
+     */
+    public record Lookup(String key, float[] embedding, AssistantResponse hit) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.springecommerceapi.service;
+
+/**
+ * Published after a product or category write. Listeners holding derived catalog data
+ * (e.g. cached assistant answers) drop it when this fires.
+ */
+public record CatalogChangedEvent(String entity, Long id) {
+
+    public static CatalogChangedEvent product(Long id) {
+        return new CatalogChangedEvent("product", id);
+    }
+
+    public static CatalogChangedEvent category(Long id) {
+        return new CatalogChangedEvent("category", id);
+    }
+}
@@ -1,22 +1,36 @@
 package com.example.springecommerceapi.service;
 
+import com.example.springecommerceapi.config.CacheConfig;
 import com.example.springecommerceapi.domain.Category;
 import com.example.springecommerceapi.dto.CategoryRequest;
 import com.example.springecommerceapi.dto.CategoryResponse;
+import com.example.springecommerceapi.dto.CategoryTreeResponse;
+import com.example.springecommerceapi.exception.BusinessException;
 import com.example.springecommerceapi.exception.NotFoundException;
+import com.example.springecommerceapi.repository.CategoryClosureRepository;
 import com.example.springecommerceapi.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
-
-
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository categoryClosureRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CategoryTreeCache categoryTreeCache;
+    private final CacheManager cacheManager;
 
     private CategoryResponse mapToResponse(Category category) {
         return CategoryResponse.builder()
@@ -26,6 +40,7 @@ public class CategoryService {
                 .build();
     }
 
+    @Transactional
     public CategoryResponse create(CategoryRequest request) {
         Category parent = null;
 
@@ -40,9 +55,12 @@ public class CategoryService {
                 .build();
 
         Category saved = categoryRepository.save(category);
+        categoryClosureRepository.insertLeaf(saved.getId(), request.getParentId());
+        eventPublisher.publishEvent(CatalogChangedEvent.category(saved.getId()));
         return mapToResponse(saved);
     }
 
+    @Cacheable(CacheConfig.CATEGORIES)
     public CategoryResponse getById(Long id) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Category not found"));
@@ -56,28 +74,80 @@ public class CategoryService {
                 .toList();
     }
 
+    public List<CategoryTreeResponse> getTree() {
+        return categoryTreeCache.get().roots();
+    }
+
+    @Transactional
     public CategoryResponse update(Long id, CategoryRequest request) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Category not found"));
 
         category.setName(request.getName());
 
-        if (request.getParentId() != null) {
-            Category parent = categoryRepository.findById(request.getParentId())
-                    .orElseThrow(() -> new NotFoundException("Parent category not found"));
-            category.setParent(parent);
-        } else {
-            category.setParent(null);
+        Long currentParentId = category.getParent() != null ? category.getParent().getId() : null;
+        if (!Objects.equals(currentParentId, request.getParentId())) {
+            move(category, request.getParentId());
         }
 
         Category updated = categoryRepository.save(category);
+        eventPublisher.publishEvent(CatalogChangedEvent.category(id));
+        evictAfterCommit(id);
         return mapToResponse(updated);
     }
 
+    @Transactional
     public void delete(Long id) {
         if (!categoryRepository.existsById(id)) {
             throw new NotFoundException("Category not found");
         }
+        categoryClosureRepository.deleteAllFor(id);
         categoryRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.category(id));
+        evictAfterCommit(id);
+    }
+
+    private void move(Category category, Long newParentId) {
+        Category parent = null;
+        if (newParentId != null) {
+            parent = categoryRepository.findById(newParentId)
+                    .orElseThrow(() -> new NotFoundException("Parent category not found"));
+            if (categoryClosureRepository.existsByAncestorIdAndDescendantId(category.getId(), newParentId)) {
+                throw new BusinessException("Category cannot be moved under itself or one of its subcategories");
+            }
+        }
+
+        categoryClosureRepository.detachSubtree(category.getId());
+        if (parent != null) {
+            categoryClosureRepository.attachSubtree(category.getId(), parent.getId());
+        }
+        category.setParent(parent);
+    }
+
+    /**
+     * Cached products carry the category name, so they are dropped together with the category. Evicting only once
+     * the transaction commits keeps a concurrent read from caching the pre-write state again.
+     */
+    private void evictAfterCommit(Long id) {
+        Runnable evict = () -> {
+            Cache categories = cacheManager.getCache(CacheConfig.CATEGORIES);
+            if (categories != null) {
+                categories.evict(id);
+            }
+            Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+            if (products != null) {
+                products.clear();
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict.run();
+            }
+        });
     }
 }
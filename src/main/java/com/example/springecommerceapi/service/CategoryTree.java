@@ -0,0 +1,116 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.dto.CategoryTreeResponse;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the category hierarchy, as served by {@code GET /api/categories/tree}. Subtree filters do
+ * not use it; they join the {@code category_closure} table.
+ * <p>
+ * Parent links that form a cycle or point at a missing category are cut, and the category is treated as a root.
+ */
+public final class CategoryTree {
+
+    public record Node(Long id, String name, Long parentId) {
+    }
+
+    private final int size;
+    private final List<CategoryTreeResponse> roots;
+
+    private CategoryTree(int size, List<CategoryTreeResponse> roots) {
+        this.size = size;
+        this.roots = roots;
+    }
+
+    public static CategoryTree of(Collection<Node> categories) {
+        List<Node> nodes = categories.stream()
+                .sorted(Comparator.comparing(Node::id))
+                .toList();
+        int size = nodes.size();
+
+        Map<Long, Integer> indexById = HashMap.newHashMap(size);
+        for (int i = 0; i < size; i++) {
+            indexById.put(nodes.get(i).id(), i);
+        }
+
+        int[] parent = new int[size];
+        for (int i = 0; i < size; i++) {
+            Long parentId = nodes.get(i).parentId();
+            parent[i] = parentId == null ? -1 : indexById.getOrDefault(parentId, -1);
+        }
+        cutCycles(parent);
+
+        List<List<Integer>> children = new ArrayList<>(size);
+        List<Integer> rootIndexes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            children.add(new ArrayList<>());
+        }
+        for (int i = 0; i < size; i++) {
+            if (parent[i] < 0) {
+                rootIndexes.add(i);
+            } else {
+                children.get(parent[i]).add(i);
+            }
+        }
+
+        // Iterative pre-order walk: a deep chain of categories must not overflow the stack
+        int[] preOrder = new int[size];
+        int counter = 0;
+        Deque<Integer> stack = new ArrayDeque<>(rootIndexes);
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            preOrder[counter++] = node;
+            children.get(node).forEach(stack::push);
+        }
+
+        // Reverse pre-order builds every child before its parent
+        CategoryTreeResponse[] responses = new CategoryTreeResponse[size];
+        for (int position = size - 1; position >= 0; position--) {
+            int i = preOrder[position];
+            List<CategoryTreeResponse> childResponses = children.get(i).stream()
+                    .map(child -> responses[child])
+                    .toList();
+            responses[i] = new CategoryTreeResponse(nodes.get(i).id(), nodes.get(i).name(), childResponses);
+        }
+        List<CategoryTreeResponse> roots = rootIndexes.stream()
+                .map(root -> responses[root])
+                .toList();
+
+        return new CategoryTree(size, roots);
+    }
+
+    public List<CategoryTreeResponse> roots() {
+        return roots;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static void cutCycles(int[] parent) {
+        // 0 = unvisited, 1 = on the current walk, 2 = known to reach a root
+        byte[] state = new byte[parent.length];
+        for (int start = 0; start < parent.length; start++) {
+            int current = start;
+            while (current >= 0 && state[current] == 0) {
+                state[current] = 1;
+                current = parent[current];
+            }
+            boolean cycle = current >= 0 && state[current] == 1;
+            for (int node = start; node >= 0 && state[node] == 1; node = parent[node]) {
+                state[node] = 2;
+            }
+            if (cycle) {
+                parent[current] = -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Holds the current {@link CategoryTree}. Readers never lock: they get whichever immutable snapshot was last
+ * published. The snapshot is built on first use and rebuilt from scratch after every committed category write.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategoryTreeCache {
+
+    private final CategoryRepository categoryRepository;
+    private final Object rebuildLock = new Object();
+
+    private volatile CategoryTree snapshot;
+
+    public CategoryTree get() {
+        CategoryTree current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (rebuildLock) {
+            return snapshot != null ? snapshot : rebuild();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!"category".equals(event.entity())) {
+            return;
+        }
+        // Serialised so a rebuild that read older rows can never overwrite a newer snapshot
+        synchronized (rebuildLock) {
+            rebuild();
+        }
+    }
+
+    private CategoryTree rebuild() {
+        long start = System.nanoTime();
+        CategoryTree tree = CategoryTree.of(categoryRepository.findAllNodes());
+        snapshot = tree;
+        log.debug("Rebuilt category tree with {} categories in {} ms", tree.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return tree;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+/**
+ * Encodes keyset positions as opaque, URL-safe continuation tokens.
+ */
+final class CursorCodec {
+
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {
+    }
+
+    static String encode(Object... parts) {
+        String raw = Arrays.stream(parts)
+                .map(String::valueOf)
+                .collect(Collectors.joining(SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decode(String cursor, int expectedParts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != expectedParts) {
+                throw new BusinessException("Invalid cursor");
+            }
+            return parts;
+        } catch (IllegalArgumentException ex) {
+            throw new BusinessException("Invalid cursor");
+        }
+    }
+
+    static long decodeId(String cursor) {
+        try {
+            return Long.parseLong(decode(cursor, 1)[0]);
+        } catch (NumberFormatException ex) {
+            throw new BusinessException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Decodes a {@code (timestamp, id)} keyset position written by {@code encode(createdAt, id)}.
+     */
+    static TimestampedId decodeTimestampedId(String cursor) {
+        String[] parts = decode(cursor, 2);
+        try {
+            return new TimestampedId(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (DateTimeParseException | NumberFormatException ex) {
+            throw new BusinessException("Invalid cursor");
+        }
+    }
+
+    record TimestampedId(LocalDateTime timestamp, long id) {
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.springecommerceapi.service;
+
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Reads the JSON a model wrote, tolerating the ways small models get it wrong.
+ * <p>
+ * The output is streamed to Jackson through a {@link Reader} that repairs it in one pass, with no intermediate copies:
+ * <ul>
+ *     <li>prose and markdown fences around the first top-level object are dropped, including anything after it,</li>
+ *     <li>{@code \'} (and {@code \\'}) become an apostrophe,</li>
+ *     <li>any other invalid escape loses its backslash,</li>
+ *     <li>price strings such as {@code "199.99 TL"} lose the currency.</li>
+ * </ul>
+ * Raw control characters inside strings (a multi-line answer) and trailing commas are accepted by the parser.
+ */
+@Component
+public class ModelJsonRepairer {
+
+    private static final String VALID_ESCAPES = "\"\\/bfnrtu";
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    public ModelJsonRepairer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Reads the first top-level JSON object of {@code raw} as {@code type}. Output without any object is passed, trimmed,
+     * to {@code plainText}; a {@code null} output reads as {@code {}}.
+     */
+    public <T> T read(String raw, Class<T> type, Function<String, T> plainText) throws IOException {
+        ObjectReader reader = readers.computeIfAbsent(type, this::readerFor);
+        if (raw == null) {
+            return reader.readValue("{}");
+        }
+        int start = raw.indexOf('{');
+        int end = raw.lastIndexOf('}');
+        if (start < 0 || end < start) {
+            return plainText.apply(raw.trim());
+        }
+        return reader.readValue(new RepairingReader(raw, start, end + 1));
+    }
+
+    /**
+     * Returns the repaired text {@link #read} would parse, for logging and tests.
+     */
+    public String repair(String raw) {
+        if (raw == null) {
+            return "{}";
+        }
+        int start = raw.indexOf('{');
+        int end = raw.lastIndexOf('}');
+        if (start < 0 || end < start) {
+            return raw.trim();
+        }
+        StringWriter repaired = new StringWriter(end + 1 - start);
+        try (Reader reader = new RepairingReader(raw, start, end + 1)) {
+            reader.transferTo(repaired);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return repaired.toString();
+    }
+
+    private ObjectReader readerFor(Class<?> type) {
+        return objectMapper.readerFor(type)
+                .with(JsonReadFeature.ALLOW_UNESCAPED_CONTROL_CHARS)
+                .with(JsonReadFeature.ALLOW_TRAILING_COMMA);
+    }
+
+    private static final class RepairingReader extends Reader {
+
+        private final String source;
+        private int end;
+        private int position;
+        private int depth;
+        private boolean inString;
+        // the character after a valid backslash is copied as is
+        private boolean verbatim;
+        // " TL" of a price literal: skipped when position reaches skipFrom
+        private int skipFrom = -1;
+        private int skipTo;
+
+        private RepairingReader(String source, int start, int end) {
+            this.source = source;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            int count = 0;
+            while (count < length && position < end) {
+                if (position == skipFrom) {
+                    position = skipTo;
+                    skipFrom = -1;
+                    continue;
+                }
+                char c = source.charAt(position);
+                if (verbatim) {
+                    verbatim = false;
+                } else if (c == '\\') {
+                    char next = charAt(position + 1);
+                    if (next == '\'' || (next == '\\' && charAt(position + 2) == '\'')) {
+                        buffer[offset + count++] = '\'';
+                        position += next == '\'' ? 2 : 3;
+                        continue;
+                    }
+                    if (VALID_ESCAPES.indexOf(next) < 0) {
+                        position++;
+                        continue;
+                    }
+                    verbatim = true;
+                } else if (c == '"') {
+                    inString = !inString;
+                    if (inString) {
+                        markPriceSuffix(position);
+                    }
+                } else if (!inString && c == '{') {
+                    depth++;
+                } else if (!inString && c == '}' && --depth == 0) {
+                    end = position + 1;
+                }
+                buffer[offset + count++] = c;
+                position++;
+            }
+            return count == 0 && length > 0 ? -1 : count;
+        }
+
+        /**
+         * Matches {@code "digits[.digits] TL"} starting at the opening quote and arranges for {@code " TL"} to be
+         * skipped, leaving {@code "digits"}.
+         */
+        private void markPriceSuffix(int quote) {
+            int i = skipDigits(quote + 1);
+            if (i == quote + 1) {
+                return;
+            }
+            if (charAt(i) == '.') {
+                int fraction = skipDigits(i + 1);
+                if (fraction == i + 1) {
+                    return;
+                }
+                i = fraction;
+            }
+            int digitsEnd = i;
+            while (isJavaWhitespace(charAt(i))) {
+                i++;
+            }
+            if (charAt(i) == 'T' && charAt(i + 1) == 'L' && charAt(i + 2) == '"') {
+                skipFrom = digitsEnd;
+                skipTo = i + 2;
+            }
+        }
+
+        private int skipDigits(int i) {
+            while (charAt(i) >= '0' && charAt(i) <= '9') {
+                i++;
+            }
+            return i;
+        }
+
+        private char charAt(int index) {
+            return index < end ? source.charAt(index) : 0;
+        }
+
+        // the characters of the regex \s the previous sanitizer used
+        private static boolean isJavaWhitespace(char c) {
+            return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+        }
+
+        @Override
+        public void close() {
+            // nothing to release
+        }
+    }
+}
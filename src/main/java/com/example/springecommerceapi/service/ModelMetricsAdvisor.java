@@ -0,0 +1,142 @@
+package com.example.springecommerceapi.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.chat.client.advisor.api.AdvisedRequest;
+import org.springframework.ai.chat.client.advisor.api.AdvisedResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAroundAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAroundAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAroundAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAroundAdvisorChain;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-request model timings, recorded around every assistant {@code ChatClient} call.
+ * <p>
+ * Time to first token is measured on streamed answers, from subscription to the first chunk with text, so it includes
+ * any search tool round trips. Prompt evaluation time, model load time and evaluated prompt tokens come from the
+ * durations Ollama reports with its final response, summed over the tool-calling rounds of the request. A non-zero load
+ * time means the model was not resident; prompt evaluation time drops when the system prompt prefix is reused from
+ * Ollama's cache.
+ */
+@Component
+public class ModelMetricsAdvisor implements CallAroundAdvisor, StreamAroundAdvisor {
+
+    // metadata keys OllamaChatModel fills from the response
+    static final String PROMPT_EVAL_DURATION = "prompt-eval-duration";
+    static final String LOAD_DURATION = "load-duration";
+
+    private final Timer firstToken;
+    private final ModeMeters call;
+    private final ModeMeters stream;
+
+    public ModelMetricsAdvisor(MeterRegistry meterRegistry) {
+        this.firstToken = Timer.builder("assistant.model.first.token")
+                .description("Time until the first streamed answer token")
+                .register(meterRegistry);
+        this.call = new ModeMeters(meterRegistry, "call");
+        this.stream = new ModeMeters(meterRegistry, "stream");
+    }
+
+    @Override
+    public AdvisedResponse aroundCall(AdvisedRequest advisedRequest, CallAroundAdvisorChain chain) {
+        AdvisedResponse response = chain.nextAroundCall(advisedRequest);
+        call.record(response.response());
+        return response;
+    }
+
+    @Override
+    public Flux<AdvisedResponse> aroundStream(AdvisedRequest advisedRequest, StreamAroundAdvisorChain chain) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            AtomicBoolean firstSeen = new AtomicBoolean();
+            AtomicReference<ChatResponse> timed = new AtomicReference<>();
+            return chain.nextAroundStream(advisedRequest)
+                    .doOnNext(chunk -> {
+                        ChatResponse response = chunk.response();
+                        if (hasText(response) && firstSeen.compareAndSet(false, true)) {
+                            firstToken.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        }
+                        // only the chunk that ends the answer carries Ollama's durations
+                        if (duration(response, PROMPT_EVAL_DURATION) != null) {
+                            timed.set(response);
+                        }
+                    })
+                    .doOnComplete(() -> stream.record(timed.get()));
+        });
+    }
+
+    @Override
+    public String getName() {
+        return "ModelMetricsAdvisor";
+    }
+
+    @Override
+    public int getOrder() {
+        // outermost, so the timings cover every other advisor and the tool calls
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private static boolean hasText(ChatResponse response) {
+        return response != null && response.getResult() != null
+                && StringUtils.hasLength(response.getResult().getOutput().getText());
+    }
+
+    private static Duration duration(ChatResponse response, String key) {
+        if (response == null || response.getMetadata() == null) {
+            return null;
+        }
+        return response.getMetadata().get(key) instanceof Duration duration ? duration : null;
+    }
+
+    private static final class ModeMeters {
+
+        private final Timer promptEval;
+        private final Timer load;
+        private final DistributionSummary promptTokens;
+
+        private ModeMeters(MeterRegistry meterRegistry, String mode) {
+            this.promptEval = Timer.builder("assistant.model.prompt.eval")
+                    .description("Time Ollama spent evaluating the prompt")
+                    .tag("mode", mode)
+                    .register(meterRegistry);
+            this.load = Timer.builder("assistant.model.load")
+                    .description("Time Ollama spent loading the model")
+                    .tag("mode", mode)
+                    .register(meterRegistry);
+            this.promptTokens = DistributionSummary.builder("assistant.model.prompt.tokens")
+                    .description("Prompt tokens Ollama evaluated")
+                    .baseUnit("tokens")
+                    .tag("mode", mode)
+                    .register(meterRegistry);
+        }
+
+        private void record(ChatResponse response) {
+            Duration promptEvalDuration = duration(response, PROMPT_EVAL_DURATION);
+            if (promptEvalDuration == null) {
+                return;
+            }
+            promptEval.record(promptEvalDuration);
+            Duration loadDuration = duration(response, LOAD_DURATION);
+            if (loadDuration != null) {
+                load.record(loadDuration);
+            }
+            ChatResponseMetadata metadata = response.getMetadata();
+            Long tokens = metadata.getUsage() != null ? metadata.getUsage().getPromptTokens() : null;
+            if (tokens != null && tokens > 0) {
+                promptTokens.record(tokens);
+            }
+        }
+    }
+}
@@ -7,19 +7,31 @@ import com.example.springecommerceapi.repository.CustomerRepository;
 import com.example.springecommerceapi.repository.OrderRepository;
 import com.example.springecommerceapi.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    // order ids bound per item query; keeps the IN list far below pgjdbc's 65,535 bind parameter limit
+    static final int ITEM_QUERY_CHUNK_SIZE = 500;
+
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final CustomerRepository customerRepository;
+    private final StockReservationService stockReservationService;
 
     @Transactional
     public OrderResponse create(OrderRequest request) {
@@ -31,12 +43,18 @@ public class OrderService {
                 .status(OrderStatus.PENDING)
                 .build();
 
+        Map<Long, Integer> quantitiesByProductId = request.getItems().stream()
+                .collect(Collectors.toMap(OrderItemRequest::getProductId, OrderItemRequest::getQuantity, Integer::sum));
+        Map<Long, Product> productsById = productRepository.findAllById(quantitiesByProductId.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
         BigDecimal totalAmount = BigDecimal.ZERO;
 
         for (OrderItemRequest itemRequest : request.getItems()) {
-            Product product = productRepository.findById(itemRequest.getProductId())
-                    .orElseThrow(
-                            () -> new NotFoundException("Product not found with id: " + itemRequest.getProductId()));
+            Product product = productsById.get(itemRequest.getProductId());
+            if (product == null) {
+                throw new NotFoundException("Product not found with id: " + itemRequest.getProductId());
+            }
 
             BigDecimal unitPrice = product.getPrice();
             BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(itemRequest.getQuantity()));
@@ -53,6 +71,7 @@ public class OrderService {
             totalAmount = totalAmount.add(lineTotal);
         }
 
+        stockReservationService.reserve(quantitiesByProductId);
         order.setTotalAmount(totalAmount);
 
         Order savedOrder = orderRepository.save(order);
@@ -61,23 +80,62 @@ public class OrderService {
 
     @Transactional(readOnly = true)
     public OrderResponse getById(Long id) {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new NotFoundException("Order not found with id: " + id));
         return mapToResponse(order);
     }
 
+    /**
+     * Orders with their customers in one statement, then their items with products in one statement per
+     * {@value #ITEM_QUERY_CHUNK_SIZE} orders.
+     */
     @Transactional(readOnly = true)
     public List<OrderResponse> getAll() {
-        return orderRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .toList();
+        return mapWithItems(orderRepository.findAllWithCustomer());
+    }
+
+    /**
+     * One customer's orders, newest first. Costs three statements per page whatever the total order volume:
+     * the customer, a keyset page of orders, and their items with products.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<OrderResponse> getCustomerOrders(Long customerId, String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.clamp(size, 1, MAX_PAGE_SIZE);
+        customerRepository.findById(customerId)
+                .orElseThrow(() -> new NotFoundException("Customer not found with id: " + customerId));
+
+        List<Order> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = orderRepository.findLatestByCustomerId(customerId, Limit.of(pageSize + 1));
+        } else {
+            CursorCodec.TimestampedId after = CursorCodec.decodeTimestampedId(cursor);
+            rows = orderRepository.findByCustomerIdBefore(customerId, after.timestamp(), after.id(),
+                    Limit.of(pageSize + 1));
+        }
+        boolean hasMore = rows.size() > pageSize;
+        List<Order> page = hasMore ? rows.subList(0, pageSize) : rows;
+        if (page.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+
+        List<OrderResponse> responses = mapWithItems(page);
+        Order last = page.get(page.size() - 1);
+        String nextCursor = hasMore ? CursorCodec.encode(last.getCreatedAt(), last.getId()) : null;
+        return new CursorPage<>(responses, nextCursor);
     }
 
     @Transactional
     public OrderResponse updateStatus(Long id, OrderStatus newStatus) {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new NotFoundException("Order not found with id: " + id));
 
+        OrderStatus previousStatus = order.getStatus();
+        if (previousStatus != OrderStatus.CANCELLED && newStatus == OrderStatus.CANCELLED) {
+            stockReservationService.release(quantitiesOf(order));
+        } else if (previousStatus == OrderStatus.CANCELLED && newStatus != OrderStatus.CANCELLED) {
+            stockReservationService.reserve(quantitiesOf(order));
+        }
+
         order.setStatus(newStatus);
         Order updatedOrder = orderRepository.save(order);
         return mapToResponse(updatedOrder);
@@ -85,14 +143,44 @@ public class OrderService {
 
     @Transactional
     public void delete(Long id) {
-        if (!orderRepository.existsById(id)) {
-            throw new NotFoundException("Order not found with id: " + id);
+        Order order = orderRepository.findWithDetailsById(id)
+                .orElseThrow(() -> new NotFoundException("Order not found with id: " + id));
+
+        // A cancelled order already gave its stock back
+        if (order.getStatus() != OrderStatus.CANCELLED) {
+            stockReservationService.release(quantitiesOf(order));
+        }
+        orderRepository.delete(order);
+    }
+
+    private List<OrderResponse> mapWithItems(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        List<Long> orderIds = orders.stream().map(Order::getId).toList();
+        Map<Long, List<OrderItem>> itemsByOrderId = new HashMap<>();
+        for (int from = 0; from < orderIds.size(); from += ITEM_QUERY_CHUNK_SIZE) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + ITEM_QUERY_CHUNK_SIZE, orderIds.size()));
+            orderRepository.findItemsWithProductByOrderIdIn(chunk).forEach(item ->
+                    itemsByOrderId.computeIfAbsent(item.getOrder().getId(), id -> new ArrayList<>()).add(item));
         }
-        orderRepository.deleteById(id);
+
+        return orders.stream()
+                .map(order -> mapToResponse(order, itemsByOrderId.getOrDefault(order.getId(), List.of())))
+                .toList();
+    }
+
+    private Map<Long, Integer> quantitiesOf(Order order) {
+        return order.getItems().stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getId(), OrderItem::getQuantity, Integer::sum));
+    }
+
+    OrderResponse mapToResponse(Order order) {
+        return mapToResponse(order, order.getItems());
     }
 
-    private OrderResponse mapToResponse(Order order) {
-        List<OrderItemResponse> itemResponses = order.getItems().stream()
+    private OrderResponse mapToResponse(Order order, List<OrderItem> items) {
+        List<OrderItemResponse> itemResponses = items.stream()
                 .map(item -> OrderItemResponse.builder()
                         .id(item.getId())
                         .productId(item.getProduct().getId())
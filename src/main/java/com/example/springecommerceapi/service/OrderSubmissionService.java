@@ -0,0 +1,274 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.config.OrderWorkerConfig;
+import com.example.springecommerceapi.domain.OrderSubmission;
+import com.example.springecommerceapi.domain.OrderSubmissionStatus;
+import com.example.springecommerceapi.dto.OrderRequest;
+import com.example.springecommerceapi.dto.OrderResponse;
+import com.example.springecommerceapi.dto.OrderSubmissionResponse;
+import com.example.springecommerceapi.exception.BusinessException;
+import com.example.springecommerceapi.exception.ConflictException;
+import com.example.springecommerceapi.exception.NotFoundException;
+import com.example.springecommerceapi.repository.OrderSubmissionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Idempotent and asynchronous order placement on top of {@link OrderService#create}.
+ * <p>
+ * With an {@code Idempotency-Key} the submission row is inserted in the same transaction as the order, so it is
+ * only ever visible once the order exists. A retry, even a concurrent one blocked on the unique key, replays the
+ * stored {@link OrderResponse}. Failed attempts roll back with the order and may be retried.
+ * <p>
+ * Asynchronous submissions are committed as {@code PENDING} and handed to the order worker pool. A sweeper
+ * re-dispatches anything the pool could not take and requeues work whose worker died. Each claim carries a fresh
+ * token and the order transaction locks the submission row, so a requeued submission is never placed twice.
+ */
+@Slf4j
+@Service
+public class OrderSubmissionService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    private final OrderSubmissionRepository submissionRepository;
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor orderWorkerExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${orders.idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${orders.async.sweep-grace:5s}")
+    private Duration sweepGrace;
+
+    @Value("${orders.async.processing-timeout:5m}")
+    private Duration processingTimeout;
+
+    public OrderSubmissionService(OrderSubmissionRepository submissionRepository,
+                                  OrderService orderService,
+                                  ObjectMapper objectMapper,
+                                  @Qualifier(OrderWorkerConfig.ORDER_WORKER_EXECUTOR) TaskExecutor orderWorkerExecutor,
+                                  PlatformTransactionManager transactionManager) {
+        this.submissionRepository = submissionRepository;
+        this.orderService = orderService;
+        this.objectMapper = objectMapper;
+        this.orderWorkerExecutor = orderWorkerExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public OrderResponse createIdempotent(String idempotencyKey, OrderRequest request) {
+        validateKey(idempotencyKey);
+        String payload = toJson(request);
+        String requestHash = sha256(payload);
+
+        Optional<OrderSubmission> existing = submissionRepository.findByIdempotencyKey(idempotencyKey);
+        if (existing.isPresent()) {
+            return replay(existing.get(), requestHash);
+        }
+
+        try {
+            return transactionTemplate.execute(status -> {
+                OrderSubmission submission = submissionRepository.saveAndFlush(
+                        newSubmission(idempotencyKey, requestHash, payload, OrderSubmissionStatus.PROCESSING));
+                OrderResponse response = orderService.create(request);
+                submission.setStatus(OrderSubmissionStatus.COMPLETED);
+                submission.setOrderId(response.getId());
+                submission.setResponse(toJson(response));
+                return response;
+            });
+        } catch (DataIntegrityViolationException ex) {
+            // A concurrent request with the same key committed first
+            OrderSubmission winner = submissionRepository.findByIdempotencyKey(idempotencyKey).orElseThrow(() -> ex);
+            return replay(winner, requestHash);
+        }
+    }
+
+    public OrderSubmissionResponse submit(String idempotencyKey, OrderRequest request) {
+        String payload = toJson(request);
+        String requestHash = sha256(payload);
+        if (idempotencyKey != null) {
+            validateKey(idempotencyKey);
+            Optional<OrderSubmission> existing = submissionRepository.findByIdempotencyKey(idempotencyKey);
+            if (existing.isPresent()) {
+                return toResponse(checkSameRequest(existing.get(), requestHash));
+            }
+        }
+
+        OrderSubmission submission;
+        try {
+            submission = submissionRepository.saveAndFlush(
+                    newSubmission(idempotencyKey, requestHash, payload, OrderSubmissionStatus.PENDING));
+        } catch (DataIntegrityViolationException ex) {
+            OrderSubmission winner = submissionRepository.findByIdempotencyKey(idempotencyKey).orElseThrow(() -> ex);
+            return toResponse(checkSameRequest(winner, requestHash));
+        }
+
+        dispatch(submission.getId());
+        return toResponse(submission);
+    }
+
+    public OrderSubmissionResponse getSubmission(Long id) {
+        return submissionRepository.findById(id)
+                .map(this::toResponse)
+                .orElseThrow(() -> new NotFoundException("Order submission not found with id: " + id));
+    }
+
+    void process(Long submissionId) {
+        UUID claimToken = UUID.randomUUID();
+        if (submissionRepository.claim(submissionId, claimToken, LocalDateTime.now()) == 0) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Optional<OrderSubmission> submission = submissionRepository.lockClaimed(submissionId, claimToken);
+                if (submission.isEmpty()) {
+                    log.warn("Order submission {} was requeued before its worker started, skipping", submissionId);
+                    return;
+                }
+                OrderResponse response = orderService.create(
+                        fromJson(submission.get().getPayload(), OrderRequest.class));
+                submissionRepository.markCompleted(submissionId, claimToken, response.getId(), toJson(response),
+                        LocalDateTime.now());
+            });
+        } catch (BusinessException | NotFoundException ex) {
+            submissionRepository.markFailed(submissionId, claimToken, truncate(ex.getMessage()), LocalDateTime.now());
+        } catch (RuntimeException ex) {
+            log.error("Failed to process order submission {}", submissionId, ex);
+            submissionRepository.markFailed(submissionId, claimToken, "Unexpected error occurred", LocalDateTime.now());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orders.async.sweep-interval-ms:5000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int requeued = submissionRepository.requeueStuck(now.minus(processingTimeout));
+        if (requeued > 0) {
+            log.warn("Requeued {} order submissions stuck in PROCESSING", requeued);
+        }
+
+        List<Long> pending = submissionRepository.findPendingIdsUpdatedBefore(now.minus(sweepGrace),
+                Limit.of(SWEEP_BATCH_SIZE));
+        pending.forEach(this::dispatch);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.idempotency.cleanup-interval-ms:600000}")
+    public void deleteExpired() {
+        int deleted = submissionRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired order submissions", deleted);
+        }
+    }
+
+    private void dispatch(Long submissionId) {
+        try {
+            orderWorkerExecutor.execute(() -> process(submissionId));
+        } catch (TaskRejectedException ex) {
+            log.debug("Order worker queue full, submission {} left for the sweeper", submissionId);
+        }
+    }
+
+    private OrderResponse replay(OrderSubmission submission, String requestHash) {
+        checkSameRequest(submission, requestHash);
+        return switch (submission.getStatus()) {
+            case COMPLETED -> fromJson(submission.getResponse(), OrderResponse.class);
+            case FAILED -> throw new BusinessException(submission.getError());
+            case PENDING, PROCESSING -> throw new ConflictException(
+                    "Order submission " + submission.getId() + " with this Idempotency-Key is still being processed");
+        };
+    }
+
+    private OrderSubmission checkSameRequest(OrderSubmission submission, String requestHash) {
+        if (!submission.getRequestHash().equals(requestHash)) {
+            throw new ConflictException("Idempotency-Key was already used with a different request");
+        }
+        return submission;
+    }
+
+    private OrderSubmission newSubmission(String idempotencyKey, String requestHash, String payload,
+                                          OrderSubmissionStatus status) {
+        LocalDateTime now = LocalDateTime.now();
+        return OrderSubmission.builder()
+                .idempotencyKey(idempotencyKey)
+                .requestHash(requestHash)
+                .payload(payload)
+                .status(status)
+                .createdAt(now)
+                .updatedAt(now)
+                .expiresAt(now.plus(ttl))
+                .build();
+    }
+
+    private OrderSubmissionResponse toResponse(OrderSubmission submission) {
+        return OrderSubmissionResponse.builder()
+                .id(submission.getId())
+                .status(submission.getStatus())
+                .orderId(submission.getOrderId())
+                .order(submission.getResponse() != null ? fromJson(submission.getResponse(), OrderResponse.class) : null)
+                .error(submission.getError())
+                .createdAt(submission.getCreatedAt())
+                .updatedAt(submission.getUpdatedAt())
+                .build();
+    }
+
+    private void validateKey(String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize " + value.getClass().getSimpleName(), ex);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to read stored " + type.getSimpleName(), ex);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.springecommerceapi.service;
 
+import com.example.springecommerceapi.config.CacheConfig;
 import com.example.springecommerceapi.domain.Category;
 import com.example.springecommerceapi.domain.Product;
+import com.example.springecommerceapi.dto.CursorPage;
 import com.example.springecommerceapi.dto.ProductRequest;
 import com.example.springecommerceapi.dto.ProductResponse;
 import com.example.springecommerceapi.exception.BusinessException;
@@ -9,19 +11,52 @@ import com.example.springecommerceapi.exception.NotFoundException;
 import com.example.springecommerceapi.repository.CategoryRepository;
 import com.example.springecommerceapi.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final Locale TURKISH = Locale.forLanguageTag("tr");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+
+    @Value("${catalog.search.full-text-enabled:true}")
+    private boolean fullTextEnabled;
 
-    private ProductResponse mapToResponse(Product product) {
+    @Value("${catalog.search.max-results:100}")
+    private int maxSearchResults;
+
+    ProductResponse mapToResponse(Product product) {
         return ProductResponse.builder()
                 .id(product.getId())
                 .name(product.getName())
@@ -66,30 +101,140 @@ public class ProductService {
                 .build();
 
         Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(CatalogChangedEvent.product(saved.getId()));
         return mapToResponse(saved);
     }
 
     public ProductResponse getById(Long id) {
-        Product product = productRepository.findById(id)
+        return productRepository.findResponseById(id)
                 .orElseThrow(() -> new NotFoundException("Product not found with id: " + id));
-        return mapToResponse(product);
     }
 
-    public List<ProductResponse> getAll() {
-        return productRepository.findAll()
-                .stream()
-                .map(this::mapToResponse)
-                .toList();
+    /**
+     * Resolves ids in the given order, skipping ids that match no product. Ids found in the
+     * {@link CacheConfig#PRODUCTS} cache are served from it; the rest are loaded with one query and cached.
+     */
+    public List<ProductResponse> getByIds(Collection<Long> ids) {
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+
+        Map<Long, ProductResponse> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinctIds) {
+            ProductResponse cached = products != null ? products.get(id, ProductResponse.class) : null;
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (ProductResponse product : productRepository.findResponsesByIdIn(missing)) {
+                found.put(product.getId(), product);
+                if (products != null) {
+                    products.put(product.getId(), product);
+                }
+            }
+        }
+        return distinctIds.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    public ProductResponse getBySku(String sku) {
+        return productRepository.findIdBySku(sku)
+                .flatMap(productRepository::findResponseById)
+                .orElseThrow(() -> new NotFoundException("Product not found with sku: " + sku));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<ProductResponse> getPage(String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.clamp(size, 1, MAX_PAGE_SIZE);
+        long afterId = (cursor == null || cursor.isBlank()) ? 0L : CursorCodec.decodeId(cursor);
+
+        List<ProductResponse> rows = productRepository.findResponsePageAfter(afterId, Limit.of(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductResponse> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = hasMore ? CursorCodec.encode(page.get(page.size() - 1).getId()) : null;
+        return new CursorPage<>(List.copyOf(page), nextCursor);
+    }
+
+    /**
+     * Streams the whole catalog off a server-side cursor. Rows are DTO projections, so nothing
+     * accumulates in the persistence context however large the table is.
+     */
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<ProductResponse> consumer) {
+        try (Stream<ProductResponse> products = productRepository.streamAllResponses()) {
+            products.forEach(consumer);
+        }
     }
 
     public List<ProductResponse> searchProducts(String keyword, BigDecimal minPrice, BigDecimal maxPrice,
                                                 Boolean inStock) {
-        return productRepository.searchProducts(keyword, minPrice, maxPrice, inStock)
+        return searchProducts(keyword, minPrice, maxPrice, inStock, null);
+    }
+
+    /**
+     * Same as the unfiltered search, restricted to {@code categoryId} and every category below it when given.
+     */
+    public List<ProductResponse> searchProducts(String keyword, BigDecimal minPrice, BigDecimal maxPrice,
+                                                Boolean inStock, Long categoryId) {
+        return searchProducts(keyword, minPrice, maxPrice, inStock, categoryId, maxSearchResults);
+    }
+
+    /**
+     * Returns at most {@code maxResults} matches, in-stock products first. {@code maxResults} is itself capped at
+     * {@code catalog.search.max-results}.
+     */
+    public List<ProductResponse> searchProducts(String keyword, BigDecimal minPrice, BigDecimal maxPrice,
+                                                Boolean inStock, Long categoryId, int maxResults) {
+        int cap = Math.clamp(maxResults, 1, maxSearchResults);
+        String fullTextQuery = fullTextEnabled ? toPrefixQuery(keyword) : null;
+        if (fullTextQuery == null) {
+            Limit limit = Limit.of(cap);
+            return categoryId == null
+                    ? productRepository.searchProducts(keyword, minPrice, maxPrice, inStock, limit)
+                    : productRepository.searchProductsInSubtree(
+                            keyword, minPrice, maxPrice, inStock, categoryId, limit);
+        }
+
+        List<Long> rankedIds = categoryId == null
+                ? productRepository.fullTextSearchIds(fullTextQuery, minPrice, maxPrice, inStock, cap)
+                : productRepository.fullTextSearchIdsInSubtree(
+                        fullTextQuery, minPrice, maxPrice, inStock, categoryId, cap);
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, ProductResponse> byId = productRepository.findResponsesByIdIn(rankedIds)
                 .stream()
-                .map(this::mapToResponse)
+                .collect(Collectors.toMap(ProductResponse::getId, Function.identity()));
+        return rankedIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .toList();
     }
 
+    /**
+     * Turns free text into a prefix-matching tsquery ({@code "oyuncu kulak"} -> {@code "oyuncu:* & kulak:*"}).
+     * Lower-casing uses Turkish rules so that I/İ reach the stemmer the same way indexed text does.
+     */
+    static String toPrefixQuery(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        String query = Arrays.stream(NON_WORD.split(keyword.toLowerCase(TURKISH)))
+                .filter(term -> !term.isEmpty())
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
+        return query.isEmpty() ? null : query;
+    }
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_IDS_BY_SKU, allEntries = true)
+    })
+    @Transactional
     public ProductResponse update(Long id, ProductRequest request) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Product not found with id: " + id));
@@ -109,13 +254,19 @@ public class ProductService {
         product.setCategory(category);
 
         Product updated = productRepository.save(product);
+        eventPublisher.publishEvent(CatalogChangedEvent.product(id));
         return mapToResponse(updated);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_IDS_BY_SKU, allEntries = true)
+    })
     public void delete(Long id) {
         if (!productRepository.existsById(id)) {
             throw new NotFoundException("Product not found with id: " + id);
         }
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.product(id));
     }
 }
@@ -0,0 +1,73 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.config.CacheConfig;
+import com.example.springecommerceapi.exception.BusinessException;
+import com.example.springecommerceapi.repository.ProductStockRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reserves and releases product stock for orders.
+ * <p>
+ * Rows are always touched in ascending product id order, so two multi-line orders competing for the
+ * same products take their row locks in the same sequence and cannot deadlock. Both operations must
+ * join the caller's transaction: a shortfall on any line rolls back the lines already reserved.
+ * Cached product responses carry the stock level, so touched products are evicted once the
+ * transaction commits.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockReservationService {
+
+    private final ProductStockRepository productStockRepository;
+    private final CacheManager cacheManager;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Map<Long, Integer> quantitiesByProductId) {
+        TreeMap<Long, Integer> ordered = new TreeMap<>(quantitiesByProductId);
+        int[] updated = productStockRepository.decrementStock(ordered);
+
+        List<Long> productIds = new ArrayList<>(ordered.keySet());
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                throw new BusinessException("Insufficient stock for product id: " + productIds.get(i));
+            }
+        }
+        evictAfterCommit(productIds);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Map<Long, Integer> quantitiesByProductId) {
+        productStockRepository.incrementStock(new TreeMap<>(quantitiesByProductId));
+        evictAfterCommit(quantitiesByProductId.keySet());
+    }
+
+    private void evictAfterCommit(Collection<Long> productIds) {
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        if (products == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            productIds.forEach(products::evict);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                productIds.forEach(products::evict);
+            }
+        });
+    }
+}
@@ -0,0 +1,46 @@
+-- FULL-TEXT SEARCH
+-- Turkish stemming with accent/dotless-i folding (ı/İ -> i, ş -> s, ğ -> g, ...)
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+CREATE TEXT SEARCH CONFIGURATION turkish_unaccent (COPY = turkish);
+ALTER TEXT SEARCH CONFIGURATION turkish_unaccent
+    ALTER MAPPING FOR hword, hword_part, word WITH unaccent, turkish_stem;
+
+ALTER TABLE product ADD COLUMN search_vector TSVECTOR;
+
+-- name (A) > category name (B) > sku (C)
+CREATE FUNCTION product_search_vector_refresh() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.search_vector :=
+            setweight(to_tsvector('turkish_unaccent', coalesce(NEW.name, '')), 'A') ||
+            setweight(to_tsvector('turkish_unaccent',
+                                  coalesce((SELECT c.name FROM category c WHERE c.id = NEW.category_id), '')), 'B') ||
+            setweight(to_tsvector('simple', coalesce(NEW.sku, '')), 'C');
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_product_search_vector
+    BEFORE INSERT OR UPDATE OF name, sku, category_id
+    ON product
+    FOR EACH ROW
+EXECUTE FUNCTION product_search_vector_refresh();
+
+-- Renaming a category re-indexes its products
+CREATE FUNCTION category_search_vector_cascade() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE product SET name = name WHERE category_id = NEW.id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_category_search_vector
+    AFTER UPDATE OF name
+    ON category
+    FOR EACH ROW
+    WHEN (OLD.name IS DISTINCT FROM NEW.name)
+EXECUTE FUNCTION category_search_vector_cascade();
+
+UPDATE product SET name = name;
+
+CREATE INDEX idx_product_search_vector ON product USING GIN (search_vector);
@@ -0,0 +1,5 @@
+-- ORDERS / ORDER_ITEM
+-- Pooled id allocation (Hibernate allocationSize = 50) so order inserts can be JDBC-batched.
+-- The BIGSERIAL sequences are reused; only their increment changes.
+ALTER SEQUENCE orders_id_seq INCREMENT BY 50;
+ALTER SEQUENCE order_item_id_seq INCREMENT BY 50;
@@ -0,0 +1,16 @@
+-- Durable outbox for outbound webhook events (n8n). Rows are written in the request path and
+-- drained by N8nOutboxDispatcher; see README "n8n Workflow Automation".
+CREATE TABLE outbox_event (
+                              id               BIGSERIAL PRIMARY KEY,
+                              event_type       VARCHAR(100) NOT NULL,
+                              payload          TEXT NOT NULL,
+                              status           VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+                              attempts         INT NOT NULL DEFAULT 0,
+                              next_attempt_at  TIMESTAMP NOT NULL DEFAULT NOW(),
+                              last_error       VARCHAR(1000),
+                              created_at       TIMESTAMP NOT NULL DEFAULT NOW(),
+                              dispatched_at    TIMESTAMP
+);
+
+-- Only pending rows are ever polled; delivered and dead rows stay out of the index.
+CREATE INDEX idx_outbox_event_due ON outbox_event (next_attempt_at, id) WHERE status = 'PENDING';
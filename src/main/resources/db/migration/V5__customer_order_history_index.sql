@@ -0,0 +1,7 @@
+-- ORDERS
+-- Customer order history is keyset-paginated newest first on (created_at, id).
+CREATE INDEX idx_orders_customer_created_at ON orders (customer_id, created_at DESC, id DESC);
+
+-- ORDER_ITEM
+-- Items are loaded for a whole page of orders at once (order_id IN (...)).
+CREATE INDEX idx_order_item_order_id ON order_item (order_id);
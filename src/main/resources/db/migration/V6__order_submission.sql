@@ -0,0 +1,20 @@
+-- ORDER_SUBMISSION
+-- Idempotency-Key dedup and the queue for asynchronously accepted orders. Finished rows are deleted after expires_at.
+CREATE TABLE order_submission (
+                                  id               BIGSERIAL PRIMARY KEY,
+                                  idempotency_key  VARCHAR(100) UNIQUE,
+                                  request_hash     VARCHAR(64)  NOT NULL,
+                                  payload          TEXT         NOT NULL,
+                                  status           VARCHAR(20)  NOT NULL,
+                                  order_id         BIGINT,
+                                  response         TEXT,
+                                  error            VARCHAR(1000),
+                                  created_at       TIMESTAMP    NOT NULL DEFAULT NOW(),
+                                  updated_at       TIMESTAMP    NOT NULL DEFAULT NOW(),
+                                  expires_at       TIMESTAMP    NOT NULL,
+                                  CONSTRAINT fk_order_submission_order
+                                      FOREIGN KEY (order_id) REFERENCES orders (id) ON DELETE SET NULL
+);
+
+CREATE INDEX idx_order_submission_open ON order_submission (updated_at) WHERE status IN ('PENDING', 'PROCESSING');
+CREATE INDEX idx_order_submission_expires_at ON order_submission (expires_at);
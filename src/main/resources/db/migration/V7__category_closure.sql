@@ -0,0 +1,32 @@
+-- CATEGORY_CLOSURE
+-- One row per (ancestor, descendant) pair, including each category paired with itself at depth 0.
+-- Subtree lookups are a primary key range scan on ancestor_id instead of a recursive walk over parent_id.
+CREATE TABLE category_closure (
+                                  ancestor_id    BIGINT NOT NULL,
+                                  descendant_id  BIGINT NOT NULL,
+                                  depth          INT NOT NULL,
+                                  PRIMARY KEY (ancestor_id, descendant_id),
+                                  CONSTRAINT fk_category_closure_ancestor
+                                      FOREIGN KEY (ancestor_id) REFERENCES category (id) ON DELETE CASCADE,
+                                  CONSTRAINT fk_category_closure_descendant
+                                      FOREIGN KEY (descendant_id) REFERENCES category (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_category_closure_descendant ON category_closure (descendant_id, ancestor_id);
+
+-- Backfill from the adjacency list. CYCLE stops at parent loops left by earlier unchecked updates.
+INSERT INTO category_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE tree (ancestor_id, descendant_id, depth) AS (
+    SELECT id, id, 0 FROM category
+    UNION ALL
+    SELECT t.ancestor_id, c.id, t.depth + 1
+    FROM tree t
+             JOIN category c ON c.parent_id = t.descendant_id
+) CYCLE descendant_id SET is_cycle USING path
+SELECT ancestor_id, descendant_id, MIN(depth)
+FROM tree
+WHERE NOT is_cycle
+GROUP BY ancestor_id, descendant_id;
+
+-- Subtree product search joins closure descendants to product.category_id
+CREATE INDEX idx_product_category_id ON product (category_id);
@@ -0,0 +1,4 @@
+-- ORDER_SUBMISSION claim token
+-- Set on every PENDING -> PROCESSING claim. A worker whose claim was requeued and taken over no longer matches it,
+-- so it can neither create the order nor overwrite the new worker's outcome.
+ALTER TABLE order_submission ADD COLUMN claim_token UUID;
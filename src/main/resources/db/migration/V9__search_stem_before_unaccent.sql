@@ -0,0 +1,27 @@
+-- FULL-TEXT SEARCH: stem first, then fold accents
+-- The Turkish stemmer checks vowel harmony (ı/i, o/ö, u/ü), so folding before stemming left inflected words
+-- unstemmed ("kulaklıklar" -> "kulakliklar" instead of "kulaklik"). Words are now stemmed by the stock turkish
+-- configuration and the resulting lexemes are folded. A stemmer always emits a lexeme, so unaccent cannot follow it
+-- in the same mapping; it is applied to the tsvector/tsquery instead.
+CREATE FUNCTION turkish_search_vector(document TEXT) RETURNS TSVECTOR AS $$
+    SELECT unaccent('unaccent', to_tsvector('turkish', document)::text)::tsvector
+$$ LANGUAGE sql STABLE;
+
+CREATE FUNCTION turkish_search_query(query TEXT) RETURNS TSQUERY AS $$
+    SELECT unaccent('unaccent', to_tsquery('turkish', query)::text)::tsquery
+$$ LANGUAGE sql STABLE;
+
+CREATE OR REPLACE FUNCTION product_search_vector_refresh() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.search_vector :=
+            setweight(turkish_search_vector(coalesce(NEW.name, '')), 'A') ||
+            setweight(turkish_search_vector(
+                              coalesce((SELECT c.name FROM category c WHERE c.id = NEW.category_id), '')), 'B') ||
+            setweight(to_tsvector('simple', coalesce(NEW.sku, '')), 'C');
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TEXT SEARCH CONFIGURATION turkish_unaccent;
+
+UPDATE product SET name = name;
@@ -0,0 +1,41 @@
+package com.example.springecommerceapi.config;
+
+import com.example.springecommerceapi.service.AiShoppingAssistantService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.ResourceAccessException;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AssistantModelWarmup Tests")
+class AssistantModelWarmupTest {
+
+    @Mock
+    private AiShoppingAssistantService assistantService;
+
+    @InjectMocks
+    private AssistantModelWarmup warmup;
+
+    @Test
+    @DisplayName("Should warm up the assistant model")
+    void warmUp_ShouldPrimeAssistantModel() {
+        warmup.warmUp();
+
+        verify(assistantService).warmUp();
+    }
+
+    @Test
+    @DisplayName("Should not fail startup when Ollama is unavailable")
+    void warmUp_WhenOllamaUnavailable_ShouldNotThrow() {
+        doThrow(new ResourceAccessException("Connection refused")).when(assistantService).warmUp();
+
+        assertThatCode(() -> warmup.warmUp()).doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.springecommerceapi.config;
+
+import com.example.springecommerceapi.service.AiShoppingAssistantService;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.model.function.DefaultFunctionCallbackResolver;
+import org.springframework.ai.ollama.OllamaChatModel;
+import org.springframework.ai.ollama.api.OllamaApi;
+import org.springframework.ai.ollama.api.OllamaOptions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AssistantStructuredOutputConfig Tests")
+class AssistantStructuredOutputConfigTest {
+
+    @Test
+    @DisplayName("Should keep the configured options and add the reply schema as format")
+    void structuredOutputModel_ShouldUseReplySchemaAsDefaultFormat() {
+        OllamaOptions configured = OllamaOptions.builder().model("llama3.2").temperature(0.2).keepAlive("30m")
+                .build();
+
+        OllamaChatModel model = AssistantStructuredOutputConfig.structuredOutputModel(new OllamaApi(), configured,
+                new DefaultFunctionCallbackResolver(), ObservationRegistry.NOOP);
+
+        OllamaOptions defaults = (OllamaOptions) model.getDefaultOptions();
+        assertThat(defaults.getFormat()).isEqualTo(AiShoppingAssistantService.REPLY_SCHEMA);
+        assertThat(defaults.getModel()).isEqualTo("llama3.2");
+        assertThat(defaults.getTemperature()).isEqualTo(0.2);
+        assertThat(defaults.getKeepAlive()).isEqualTo("30m");
+        assertThat(configured.getFormat()).as("configured options are not modified").isNull();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.springecommerceapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.jdbc.DataSourcePoolMetricsAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+@DisplayName("DataSourceWarmup Tests")
+class DataSourceWarmupTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class, MetricsAutoConfiguration.class,
+                    CompositeMeterRegistryAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class,
+                    DataSourcePoolMetricsAutoConfiguration.class))
+            .withUserConfiguration(DataSourceWarmup.class)
+            .withPropertyValues(
+                    "spring.datasource.url=jdbc:h2:mem:warmup;DB_CLOSE_DELAY=-1",
+                    "spring.datasource.hikari.pool-name=warmup-test",
+                    "spring.datasource.hikari.maximum-pool-size=6",
+                    "spring.datasource.hikari.minimum-idle=4");
+
+    @Test
+    @DisplayName("Should open minimum-idle connections and record them in the pool metrics")
+    void warmUp_ShouldFillPoolToMinimumIdle() {
+        contextRunner.run(context -> {
+            HikariDataSource dataSource = context.getBean(DataSource.class).unwrap(HikariDataSource.class);
+
+            context.getBean(DataSourceWarmup.class).warmUp();
+
+            assertThat(dataSource.getHikariPoolMXBean().getTotalConnections()).isGreaterThanOrEqualTo(4);
+            assertThat(dataSource.getHikariPoolMXBean().getActiveConnections()).isZero();
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+            assertThat(registry.get("hikaricp.connections.acquire").tag("pool", "warmup-test").timer().count())
+                    .isGreaterThanOrEqualTo(4);
+        });
+    }
+
+    @Test
+    @DisplayName("Should not be registered when disabled")
+    void warmUp_WhenDisabled_ShouldBeAbsent() {
+        contextRunner
+                .withPropertyValues("datasource.warmup.enabled=false")
+                .run(context -> assertThat(context).doesNotHaveBean(DataSourceWarmup.class));
+    }
+
+    @Test
+    @DisplayName("Should skip data sources that are not pooled by Hikari")
+    void warmUp_WhenNotHikari_ShouldSkip() {
+        DataSourceWarmup warmup = new DataSourceWarmup(new DriverManagerDataSource("jdbc:h2:mem:plain"));
+
+        assertThatCode(warmup::warmUp).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Should not fail startup when the database is unreachable")
+    void warmUp_WhenDatabaseDown_ShouldOnlyLog() {
+        HikariDataSource unreachable = new HikariDataSource();
+        unreachable.setJdbcUrl("jdbc:h2:tcp://localhost:1/unreachable");
+        unreachable.setInitializationFailTimeout(-1);
+        unreachable.setConnectionTimeout(250);
+        unreachable.setMinimumIdle(2);
+        try (unreachable) {
+            assertThatCode(() -> new DataSourceWarmup(unreachable).warmUp()).doesNotThrowAnyException();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.springecommerceapi.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("MeteredAsyncAppender Tests")
+class MeteredAsyncAppenderTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final BlockingAppender downstream = new BlockingAppender(release);
+    private final MeteredAsyncAppender appender = new MeteredAsyncAppender();
+
+    @BeforeEach
+    void setUp() {
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        downstream.setContext(context);
+        downstream.start();
+        appender.setContext(context);
+        appender.setName("ASYNC_TEST");
+        appender.setQueueSize(4);
+        appender.setDiscardingThreshold(2);
+        appender.setNeverBlock(true);
+        appender.addAppender(downstream);
+        appender.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        appender.stop();
+    }
+
+    @Test
+    @DisplayName("Should count INFO events dropped past the threshold separately from a full queue")
+    void append_WhenQueueFills_ShouldCountDrops() throws InterruptedException {
+        appender.doAppend(event(Level.WARN, "in flight"));
+        assertThat(downstream.firstReceived.await(5, TimeUnit.SECONDS)).isTrue();
+
+        appender.doAppend(event(Level.INFO, "queued 1"));
+        appender.doAppend(event(Level.INFO, "queued 2"));
+        appender.doAppend(event(Level.INFO, "queued 3"));
+        appender.doAppend(event(Level.INFO, "discarded"));
+        appender.doAppend(event(Level.WARN, "queued 4"));
+        appender.doAppend(event(Level.WARN, "overflow"));
+        appender.doAppend(event(Level.INFO, "discarded"));
+
+        assertThat(appender.getDiscardedCount()).isEqualTo(2);
+        assertThat(appender.getOverflowCount()).isEqualTo(1);
+
+        release.countDown();
+        appender.stop();
+        assertThat(downstream.received).containsExactly("in flight", "queued 1", "queued 2", "queued 3", "queued 4");
+    }
+
+    @Test
+    @DisplayName("Should publish drops and queue depth as meters")
+    void bind_ShouldRegisterMeters() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LogbackAsyncMetrics.bind(registry, appender);
+
+        appender.doAppend(event(Level.WARN, "in flight"));
+        assertThat(downstream.firstReceived.await(5, TimeUnit.SECONDS)).isTrue();
+        appender.doAppend(event(Level.INFO, "queued"));
+
+        assertThat(registry.get("logback.async.queue.size").tag("appender", "ASYNC_TEST").gauge().value())
+                .isEqualTo(1.0);
+        assertThat(registry.get("logback.async.queue.capacity").gauge().value()).isEqualTo(4.0);
+        assertThat(registry.get("logback.async.dropped").tag("reason", "discarding-threshold").functionCounter()
+                .count()).isZero();
+        assertThat(registry.get("logback.async.dropped").tag("reason", "queue-full").functionCounter().count())
+                .isZero();
+    }
+
+    private ILoggingEvent event(Level level, String message) {
+        return new LoggingEvent(MeteredAsyncAppenderTest.class.getName(), context.getLogger("test"), level,
+                message, null, null);
+    }
+
+    private static final class BlockingAppender extends AppenderBase<ILoggingEvent> {
+
+        private final CountDownLatch release;
+        private final CountDownLatch firstReceived = new CountDownLatch(1);
+        private final List<String> received = new CopyOnWriteArrayList<>();
+
+        private BlockingAppender(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            received.add(event.getMessage());
+            firstReceived.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.springecommerceapi.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("OrderWorkerConfig Tests")
+class OrderWorkerConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(TaskExecutionAutoConfiguration.class))
+            .withUserConfiguration(OrderWorkerConfig.class);
+
+    @Test
+    @DisplayName("Should keep Boot's applicationTaskExecutor next to the order worker pool")
+    void orderWorkerExecutor_ShouldNotReplaceApplicationTaskExecutor() {
+        contextRunner.run(context -> {
+            assertThat(context).hasBean("applicationTaskExecutor");
+            assertThat(context.getBean(OrderWorkerConfig.ORDER_WORKER_EXECUTOR))
+                    .isInstanceOf(ThreadPoolTaskExecutor.class);
+            assertThat(context.getBean("applicationTaskExecutor")).isNotSameAs(
+                    context.getBean(OrderWorkerConfig.ORDER_WORKER_EXECUTOR));
+        });
+    }
+
+    @Test
+    @DisplayName("Should run the applicationTaskExecutor on virtual threads when enabled")
+    void applicationTaskExecutor_WhenVirtualThreadsEnabled_ShouldBeVirtual() {
+        contextRunner
+                .withPropertyValues("spring.threads.virtual.enabled=true")
+                .run(context -> assertThat(context.getBean("applicationTaskExecutor"))
+                        .isInstanceOf(SimpleAsyncTaskExecutor.class));
+    }
+}
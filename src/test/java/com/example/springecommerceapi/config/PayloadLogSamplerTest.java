@@ -0,0 +1,48 @@
+package com.example.springecommerceapi.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PayloadLogSampler Tests")
+class PayloadLogSamplerTest {
+
+    private final LoggerContext context = new LoggerContext();
+
+    @Test
+    @DisplayName("Should never sample when DEBUG is off")
+    void sample_WhenDebugDisabled_ShouldBeFalse() {
+        Logger logger = logger(Level.INFO);
+
+        assertThat(new PayloadLogSampler(1.0, 100).sample(logger)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should follow the sample rate when DEBUG is on")
+    void sample_WhenDebugEnabled_ShouldFollowRate() {
+        Logger logger = logger(Level.DEBUG);
+
+        assertThat(new PayloadLogSampler(1.0, 100).sample(logger)).isTrue();
+        assertThat(new PayloadLogSampler(0.0, 100).sample(logger)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should truncate long payloads and keep their length")
+    void truncate_ShouldCapLength() {
+        PayloadLogSampler sampler = new PayloadLogSampler(1.0, 10);
+
+        assertThat(sampler.truncate("short")).isEqualTo("short");
+        assertThat(sampler.truncate(null)).isNull();
+        assertThat(sampler.truncate("{\"answer\":\"uzun bir cevap\"}")).isEqualTo("{\"answer\":... (27 chars)");
+    }
+
+    private Logger logger(Level level) {
+        Logger logger = context.getLogger("payload-test");
+        logger.setLevel(level);
+        return logger;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.springecommerceapi.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskSchedulingAutoConfiguration;
+import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SchedulingConfig Tests")
+class SchedulingConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(new ConfigDataApplicationContextInitializer())
+            .withConfiguration(AutoConfigurations.of(TaskSchedulingAutoConfiguration.class))
+            .withUserConfiguration(SchedulingConfig.class, Jobs.class);
+
+    @Test
+    @DisplayName("A job blocked like the outbox dispatcher should not stall the other scheduled jobs")
+    void scheduledJobs_WhenOneBlocks_ShouldKeepRunning() {
+        contextRunner.run(context -> {
+            Jobs jobs = context.getBean(Jobs.class);
+            try {
+                assertThat(jobs.blockingStarted.await(5, TimeUnit.SECONDS)).isTrue();
+                assertThat(jobs.otherRan.await(5, TimeUnit.SECONDS)).isTrue();
+            } finally {
+                jobs.release.countDown();
+            }
+        });
+    }
+
+    @Configuration
+    static class Jobs {
+
+        final CountDownLatch blockingStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch otherRan = new CountDownLatch(2);
+
+        @Bean
+        Object blockingJob() {
+            return new Object() {
+                @Scheduled(fixedDelay = 10)
+                void drain() throws InterruptedException {
+                    blockingStarted.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                }
+            };
+        }
+
+        @Scheduled(initialDelay = 100, fixedDelay = 10)
+        void sweep() {
+            otherRan.countDown();
+        }
+    }
+}
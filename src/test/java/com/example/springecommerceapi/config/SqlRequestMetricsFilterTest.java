@@ -0,0 +1,84 @@
+package com.example.springecommerceapi.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SqlRequestMetricsFilter Tests")
+class SqlRequestMetricsFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SqlStatementRecorder recorder = new SqlStatementRecorder(registry, Duration.ofSeconds(1), 1.0, 2000);
+    private final SqlRequestMetricsFilter filter = new SqlRequestMetricsFilter(recorder, registry);
+
+    @Test
+    @DisplayName("Should expose running counters in the MDC and publish them per route")
+    void doFilter_ShouldRecordPerRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/7");
+        AtomicReference<String> countDuringRequest = new AtomicReference<>();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/products/{id}");
+                recorder.record("select p1_0.id from product p1_0 where p1_0.id=?",
+                        TimeUnit.MILLISECONDS.toNanos(3), true);
+                recorder.record("select c1_0.id from category c1_0 where c1_0.id=?",
+                        TimeUnit.MILLISECONDS.toNanos(2), true);
+                countDuringRequest.set(MDC.get(SqlStatementRecorder.MDC_SQL_COUNT));
+            }
+        });
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(countDuringRequest.get()).isEqualTo("2");
+        assertThat(MDC.get(SqlStatementRecorder.MDC_SQL_COUNT)).isNull();
+        assertThat(registry.get("db.sql.request.statements").tags("method", "GET", "uri", "/api/products/{id}")
+                .summary().totalAmount()).isEqualTo(2.0);
+        assertThat(registry.get("db.sql.request.time").tags("method", "GET", "uri", "/api/products/{id}")
+                .timer().totalTime(TimeUnit.MILLISECONDS)).isEqualTo(5.0);
+    }
+
+    @Test
+    @DisplayName("Should record requests without statements and clean up after failures")
+    void doFilter_WhenChainThrows_ShouldStillRecord() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/orders");
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                throw new IllegalStateException("boom");
+            }
+        });
+
+        assertThatThrownBy(() -> filter.doFilter(request, new MockHttpServletResponse(), chain))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("boom");
+
+        assertThat(MDC.get(SqlStatementRecorder.MDC_SQL_TIME_MS)).isNull();
+        assertThat(registry.get("db.sql.request.statements").tags("method", "POST", "uri", "UNKNOWN")
+                .summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should skip actuator endpoints")
+    void doFilter_ShouldSkipActuator() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        assertThat(registry.find("db.sql.request.statements").summary()).isNull();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.springecommerceapi.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SqlStatementRecorder Tests")
+class SqlStatementRecorderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SqlStatementRecorder recorder = new SqlStatementRecorder(registry, Duration.ofMillis(100), 0.0, 40);
+
+    @AfterEach
+    void tearDown() {
+        recorder.end();
+    }
+
+    @Nested
+    @DisplayName("record")
+    class Record {
+
+        @Test
+        @DisplayName("Should time statements by operation and outcome")
+        void record_ShouldTagOperationAndOutcome() {
+            recorder.record("select p1_0.id from product p1_0", TimeUnit.MILLISECONDS.toNanos(3), true);
+            recorder.record("insert into orders (id) values (?)", TimeUnit.MILLISECONDS.toNanos(2), true);
+            recorder.record("update product set stock = stock - ? where id = ?", 1_000, false);
+
+            assertThat(registry.get("db.sql.statements").tags("operation", "select", "outcome", "success").timer()
+                    .totalTime(TimeUnit.MILLISECONDS)).isEqualTo(3.0);
+            assertThat(registry.get("db.sql.statements").tags("operation", "insert", "outcome", "success").timer()
+                    .count()).isEqualTo(1);
+            assertThat(registry.get("db.sql.statements").tags("operation", "update", "outcome", "error").timer()
+                    .count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should count slow statements even when none are sampled for logging")
+        void record_WhenSlow_ShouldCount() {
+            recorder.record("select 1", TimeUnit.MILLISECONDS.toNanos(99), true);
+            recorder.record("select 1", TimeUnit.MILLISECONDS.toNanos(100), true);
+            recorder.record("select 1", TimeUnit.SECONDS.toNanos(2), true);
+
+            assertThat(registry.get("db.sql.slow").counter().count()).isEqualTo(2.0);
+        }
+
+        @Test
+        @DisplayName("Should only touch the MDC inside a request")
+        void record_OutsideRequest_ShouldNotSetMdc() {
+            recorder.record("select 1", 1_000, true);
+
+            assertThat(MDC.get(SqlStatementRecorder.MDC_SQL_COUNT)).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("begin/end")
+    class RequestScope {
+
+        @Test
+        @DisplayName("Should accumulate count and time into the MDC until the request ends")
+        void begin_ShouldTrackRequest() {
+            SqlStatementRecorder.RequestStats stats = recorder.begin();
+            assertThat(MDC.get(SqlStatementRecorder.MDC_SQL_COUNT)).isEqualTo("0");
+
+            recorder.record("select 1", TimeUnit.MILLISECONDS.toNanos(4), true);
+            recorder.record("select 2", TimeUnit.MILLISECONDS.toNanos(7), true);
+
+            assertThat(stats.count()).isEqualTo(2);
+            assertThat(stats.timeMillis()).isEqualTo(11);
+            assertThat(MDC.get(SqlStatementRecorder.MDC_SQL_COUNT)).isEqualTo("2");
+            assertThat(MDC.get(SqlStatementRecorder.MDC_SQL_TIME_MS)).isEqualTo("11");
+
+            recorder.end();
+            recorder.record("select 3", 1_000, true);
+
+            assertThat(stats.count()).isEqualTo(2);
+            assertThat(MDC.get(SqlStatementRecorder.MDC_SQL_COUNT)).isNull();
+            assertThat(MDC.get(SqlStatementRecorder.MDC_SQL_TIME_MS)).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("operationOf")
+    class OperationOf {
+
+        @Test
+        @DisplayName("Should classify by the first keyword, skipping whitespace, parentheses and comments")
+        void operationOf_ShouldUseFirstKeyword() {
+            assertThat(SqlStatementRecorder.operationOf("\n    SELECT 1")).isEqualTo(SqlStatementRecorder.Operation.SELECT);
+            assertThat(SqlStatementRecorder.operationOf("(select 1) union (select 2)"))
+                    .isEqualTo(SqlStatementRecorder.Operation.SELECT);
+            assertThat(SqlStatementRecorder.operationOf("with recursive t as (select 1) select * from t"))
+                    .isEqualTo(SqlStatementRecorder.Operation.SELECT);
+            assertThat(SqlStatementRecorder.operationOf("/* insert Order */ insert into orders values (?)"))
+                    .isEqualTo(SqlStatementRecorder.Operation.INSERT);
+            assertThat(SqlStatementRecorder.operationOf("delete from category_closure where ancestor_id = ?"))
+                    .isEqualTo(SqlStatementRecorder.Operation.DELETE);
+            assertThat(SqlStatementRecorder.operationOf("create table t (id int)"))
+                    .isEqualTo(SqlStatementRecorder.Operation.OTHER);
+            assertThat(SqlStatementRecorder.operationOf("/* unterminated")).isEqualTo(SqlStatementRecorder.Operation.OTHER);
+            assertThat(SqlStatementRecorder.operationOf(null)).isEqualTo(SqlStatementRecorder.Operation.OTHER);
+        }
+    }
+
+    @Nested
+    @DisplayName("abbreviate")
+    class Abbreviate {
+
+        @Test
+        @DisplayName("Should collapse formatted SQL onto one line")
+        void abbreviate_ShouldCollapseWhitespace() {
+            assertThat(recorder.abbreviate("  select\n        p.id\n    from\n        product p "))
+                    .isEqualTo("select p.id from product p");
+        }
+
+        @Test
+        @DisplayName("Should truncate long SQL and keep its length")
+        void abbreviate_ShouldTruncate() {
+            String sql = "select " + "p.name, ".repeat(20) + "p.id from product p";
+
+            String abbreviated = recorder.abbreviate(sql);
+
+            assertThat(abbreviated).startsWith(sql.substring(0, 40)).endsWith("... (" + sql.length() + " chars)");
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.springecommerceapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.jdbc.DataSourcePoolMetricsAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SqlTimingDataSource Tests")
+class SqlTimingDataSourceTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+                    JdbcTemplateAutoConfiguration.class, MetricsAutoConfiguration.class,
+                    CompositeMeterRegistryAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class,
+                    DataSourcePoolMetricsAutoConfiguration.class))
+            .withInitializer(context -> context.getBeanFactory()
+                    .setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withUserConfiguration(SqlObservabilityConfig.class)
+            .withPropertyValues(
+                    "spring.datasource.url=jdbc:h2:mem:sqltiming;DB_CLOSE_DELAY=-1",
+                    "spring.datasource.hikari.pool-name=sqltiming-test",
+                    "datasource.warmup.enabled=false");
+
+    @Test
+    @DisplayName("Should time JdbcTemplate statements and keep the pool reachable")
+    void wrap_ShouldRecordStatementsAndDelegateUnwrap() {
+        contextRunner.run(context -> {
+            DataSource dataSource = context.getBean(DataSource.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+            jdbcTemplate.execute("create table timed (id int primary key, name varchar(20))");
+            jdbcTemplate.update("insert into timed values (?, ?)", 1, "a");
+            jdbcTemplate.batchUpdate("insert into timed values (?, ?)", List.of(new Object[]{2, "b"},
+                    new Object[]{3, "c"}));
+            Integer count = jdbcTemplate.queryForObject("select count(*) from timed", Integer.class);
+
+            assertThat(count).isEqualTo(3);
+            assertThat(SqlTimingDataSource.isWrapped(dataSource)).isTrue();
+            assertThat(dataSource.isWrapperFor(HikariDataSource.class)).isTrue();
+            assertThat(dataSource.unwrap(HikariDataSource.class).getPoolName()).isEqualTo("sqltiming-test");
+
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+            assertThat(registry.get("db.sql.statements").tags("operation", "insert", "outcome", "success").timer()
+                    .count()).isEqualTo(2);
+            assertThat(registry.get("db.sql.statements").tags("operation", "select", "outcome", "success").timer()
+                    .count()).isEqualTo(1);
+            assertThat(registry.get("db.sql.statements").tags("operation", "other", "outcome", "success").timer()
+                    .count()).isEqualTo(1);
+            assertThat(registry.get("hikaricp.connections").tag("pool", "sqltiming-test").gauge()).isNotNull();
+        });
+    }
+
+    @Test
+    @DisplayName("Should record failed statements and rethrow the original exception")
+    void wrap_WhenStatementFails_ShouldRecordError() {
+        contextRunner.run(context -> {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+            assertThatThrownBy(() -> jdbcTemplate.queryForObject("select missing from nowhere", Integer.class))
+                    .isInstanceOf(BadSqlGrammarException.class);
+
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+            assertThat(registry.get("db.sql.statements").tags("operation", "select", "outcome", "error").timer()
+                    .count()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    @DisplayName("Should give proxies their own identity and keep the statement type")
+    void wrap_ShouldProxyStatementTypes() {
+        contextRunner.run(context -> {
+            try (Connection connection = context.getBean(DataSource.class).getConnection();
+                 PreparedStatement prepared = connection.prepareStatement("select 1");
+                 Statement plain = connection.createStatement()) {
+                assertThat(prepared).isNotInstanceOf(CallableStatement.class);
+                assertThat(prepared).isEqualTo(prepared).isNotEqualTo(plain);
+                assertThat(prepared.hashCode()).isEqualTo(System.identityHashCode(prepared));
+                assertThat(prepared.executeQuery().next()).isTrue();
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Should leave the DataSource alone when disabled")
+    void wrap_WhenDisabled_ShouldNotProxy() {
+        contextRunner
+                .withPropertyValues("sql.observability.enabled=false")
+                .run(context -> {
+                    assertThat(context).doesNotHaveBean(SqlStatementRecorder.class);
+                    assertThat(context.getBean(DataSource.class)).isInstanceOf(HikariDataSource.class);
+                });
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.springecommerceapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("VirtualThreadPinningGuard Tests")
+class VirtualThreadPinningGuardTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory()
+                    .setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withUserConfiguration(VirtualThreadPinningGuard.class);
+
+    @Test
+    @DisplayName("Should compare major and minor versions, ignoring qualifiers")
+    void isAtLeast_ShouldCompareMajorAndMinor() {
+        assertThat(VirtualThreadPinningGuard.isAtLeast("42.7.5", "42.6")).isTrue();
+        assertThat(VirtualThreadPinningGuard.isAtLeast("42.6", "42.6")).isTrue();
+        assertThat(VirtualThreadPinningGuard.isAtLeast("5.1.0-SNAPSHOT", "5.1")).isTrue();
+        assertThat(VirtualThreadPinningGuard.isAtLeast("6.0.0", "5.1")).isTrue();
+        assertThat(VirtualThreadPinningGuard.isAtLeast("42.5.4", "42.6")).isFalse();
+        assertThat(VirtualThreadPinningGuard.isAtLeast("4.0.3", "5.1")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should start with the bundled JDBC driver and pool when virtual threads are enabled")
+    void guard_WhenVirtualThreadsEnabled_ShouldAcceptBundledVersions() {
+        contextRunner
+                .withPropertyValues("spring.threads.virtual.enabled=true")
+                .withSystemProperties("java.specification.version=21")
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    assertThat(context).hasSingleBean(VirtualThreadPinningGuard.class);
+                });
+    }
+
+    @Test
+    @DisplayName("Should count a virtual thread that blocks inside synchronized")
+    void guard_WhenVirtualThreadPins_ShouldCountIt() {
+        contextRunner
+                .withPropertyValues("spring.threads.virtual.enabled=true", "virtual-threads.pinning.threshold=5ms")
+                .withSystemProperties("java.specification.version=21")
+                .run(context -> {
+                    Object monitor = new Object();
+                    Thread.ofVirtual().start(() -> {
+                        synchronized (monitor) {
+                            sleep(Duration.ofMillis(50));
+                        }
+                    }).join();
+
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+                    for (int i = 0; i < 100 && registry.get("jvm.threads.virtual.pinned").counter().count() == 0; i++) {
+                        sleep(Duration.ofMillis(100));
+                    }
+                    assertThat(registry.get("jvm.threads.virtual.pinned").counter().count()).isGreaterThanOrEqualTo(1);
+                    assertThat(registry.get("jvm.threads.virtual.pinned.duration").timer().totalTime(
+                            TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(5);
+                });
+    }
+
+    @Test
+    @DisplayName("Should not be registered on platform threads")
+    void guard_WhenVirtualThreadsDisabled_ShouldBeAbsent() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(VirtualThreadPinningGuard.class));
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.springecommerceapi.controller;
 
 import com.example.springecommerceapi.dto.AssistantRequest;
 import com.example.springecommerceapi.dto.AssistantResponse;
+import com.example.springecommerceapi.exception.ServiceOverloadedException;
 import com.example.springecommerceapi.service.AiShoppingAssistantService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
@@ -10,11 +11,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -46,4 +55,62 @@ class AiShoppingAssistantControllerTest {
                 .andExpect(jsonPath("$.answer").value("İşte önerim"))
                 .andExpect(jsonPath("$.recommendedProducts").isEmpty());
     }
+
+    @Test
+    @DisplayName("POST /api/assistant/chat/stream - should stream server-sent events")
+    void chatStream_ShouldStreamEvents() throws Exception {
+        AssistantRequest request = new AssistantRequest("laptop öner", 1L, "test@test.com", "web");
+
+        when(assistantService.chatStream("laptop öner", 1L, "test@test.com", "web")).thenReturn(Flux.just(
+                ServerSentEvent.<Object>builder(Map.of("text", "Laptop")).event("token").build(),
+                ServerSentEvent.<Object>builder(List.of()).event("products").build(),
+                ServerSentEvent.<Object>builder(Map.of()).event("done").build()));
+
+        MvcResult result = mockMvc.perform(post("/api/assistant/chat/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("event:token")))
+                .andExpect(content().string(containsString("{\"text\":\"Laptop\"}")))
+                .andExpect(content().string(containsString("event:done")));
+    }
+
+    @Test
+    @DisplayName("POST /api/assistant/chat - should return 429 when the model is saturated")
+    void chat_WhenOverloaded_ShouldReturn429() throws Exception {
+        AssistantRequest request = new AssistantRequest("laptop öner", 1L, "test@test.com", "web");
+
+        when(assistantService.chat("laptop öner", 1L, "test@test.com", "web"))
+                .thenThrow(new ServiceOverloadedException("Assistant is busy", Duration.ofSeconds(5)));
+
+        mockMvc.perform(post("/api/assistant/chat")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "5"))
+                .andExpect(jsonPath("$.message").value("Assistant is busy"));
+    }
+
+    @Test
+    @DisplayName("POST /api/assistant/chat/stream - should return 429 before streaming when saturated")
+    void chatStream_WhenOverloaded_ShouldReturn429() throws Exception {
+        AssistantRequest request = new AssistantRequest("laptop öner", 1L, "test@test.com", "web");
+
+        when(assistantService.chatStream("laptop öner", 1L, "test@test.com", "web"))
+                .thenThrow(new ServiceOverloadedException("Assistant is busy", Duration.ofSeconds(5)));
+
+        mockMvc.perform(post("/api/assistant/chat/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value(429));
+    }
 }
@@ -2,6 +2,7 @@ package com.example.springecommerceapi.controller;
 
 import com.example.springecommerceapi.dto.CategoryRequest;
 import com.example.springecommerceapi.dto.CategoryResponse;
+import com.example.springecommerceapi.dto.CategoryTreeResponse;
 import com.example.springecommerceapi.exception.NotFoundException;
 import com.example.springecommerceapi.service.CategoryService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -53,6 +54,21 @@ class CategoryControllerTest {
                 .andExpect(jsonPath("$.name").value("Electronics"));
     }
 
+    @Test
+    @DisplayName("GET /api/categories/tree - should return nested categories")
+    void getTree_ShouldReturn200() throws Exception {
+        when(categoryService.getTree()).thenReturn(List.of(new CategoryTreeResponse(1L, "Electronics",
+                List.of(new CategoryTreeResponse(2L, "Audio", List.of())))));
+
+        mockMvc.perform(get("/api/categories/tree"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Electronics"))
+                .andExpect(jsonPath("$[0].children[0].id").value(2L))
+                .andExpect(jsonPath("$[0].children[0].children").isEmpty());
+
+        verify(categoryService, never()).getById(any());
+    }
+
     @Test
     @DisplayName("GET /api/categories/{id} - should return category")
     void getById_ShouldReturn200() throws Exception {
@@ -1,8 +1,11 @@
 package com.example.springecommerceapi.controller;
 
 import com.example.springecommerceapi.dto.CustomerRequest;
+import com.example.springecommerceapi.dto.CursorPage;
 import com.example.springecommerceapi.dto.CustomerResponse;
+import com.example.springecommerceapi.dto.OrderResponse;
 import com.example.springecommerceapi.service.CustomerService;
+import com.example.springecommerceapi.service.OrderService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -30,6 +33,9 @@ class CustomerControllerTest {
     @MockitoBean
     private CustomerService customerService;
 
+    @MockitoBean
+    private OrderService orderService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -102,4 +108,16 @@ class CustomerControllerTest {
 
         verify(customerService).delete(1L);
     }
+
+    @Test
+    @DisplayName("GET /api/customers/{id}/orders - should return a cursor page of orders")
+    void getOrders_ShouldReturnCursorPage() throws Exception {
+        OrderResponse order = OrderResponse.builder().id(9L).customerId(1L).items(List.of()).build();
+        when(orderService.getCustomerOrders(1L, "abc", 10)).thenReturn(new CursorPage<>(List.of(order), "next"));
+
+        mockMvc.perform(get("/api/customers/1/orders").param("cursor", "abc").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(9L))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
 }
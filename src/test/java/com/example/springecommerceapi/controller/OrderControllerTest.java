@@ -4,7 +4,11 @@ import com.example.springecommerceapi.domain.OrderStatus;
 import com.example.springecommerceapi.dto.OrderItemRequest;
 import com.example.springecommerceapi.dto.OrderRequest;
 import com.example.springecommerceapi.dto.OrderResponse;
+import com.example.springecommerceapi.dto.OrderSubmissionResponse;
+import com.example.springecommerceapi.domain.OrderSubmissionStatus;
+import com.example.springecommerceapi.exception.ConflictException;
 import com.example.springecommerceapi.service.OrderService;
+import com.example.springecommerceapi.service.OrderSubmissionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -35,6 +39,9 @@ class OrderControllerTest {
     @MockitoBean
     private OrderService orderService;
 
+    @MockitoBean
+    private OrderSubmissionService orderSubmissionService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -47,6 +54,13 @@ class OrderControllerTest {
                 .build();
     }
 
+    private OrderRequest orderRequest() {
+        return OrderRequest.builder()
+                .customerId(1L)
+                .items(List.of(OrderItemRequest.builder().productId(1L).quantity(2).build()))
+                .build();
+    }
+
     @Test
     @DisplayName("POST /api/orders - should create order")
     void create_ShouldReturn201() throws Exception {
@@ -65,6 +79,65 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.status").value("PENDING"));
     }
 
+    @Test
+    @DisplayName("POST /api/orders with Idempotency-Key - should create through the idempotent path")
+    void create_WithIdempotencyKey_ShouldReturn201() throws Exception {
+        when(orderSubmissionService.createIdempotent(eq("abc-123"), any(OrderRequest.class)))
+                .thenReturn(createResponse());
+
+        mockMvc.perform(post("/api/orders")
+                        .header(OrderController.IDEMPOTENCY_KEY_HEADER, "abc-123")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest())))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1L));
+
+        verify(orderService, never()).create(any());
+    }
+
+    @Test
+    @DisplayName("POST /api/orders with reused Idempotency-Key - should return 409")
+    void create_WhenKeyConflicts_ShouldReturn409() throws Exception {
+        when(orderSubmissionService.createIdempotent(eq("abc-123"), any(OrderRequest.class)))
+                .thenThrow(new ConflictException("Idempotency-Key was already used with a different request"));
+
+        mockMvc.perform(post("/api/orders")
+                        .header(OrderController.IDEMPOTENCY_KEY_HEADER, "abc-123")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest())))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Conflict"));
+    }
+
+    @Test
+    @DisplayName("POST /api/orders?async=true - should accept the order for background processing")
+    void submit_ShouldReturn202WithLocation() throws Exception {
+        when(orderSubmissionService.submit(eq("abc-123"), any(OrderRequest.class)))
+                .thenReturn(OrderSubmissionResponse.builder().id(5L).status(OrderSubmissionStatus.PENDING).build());
+
+        mockMvc.perform(post("/api/orders").param("async", "true")
+                        .header(OrderController.IDEMPOTENCY_KEY_HEADER, "abc-123")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest())))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/api/orders/submissions/5"))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    @DisplayName("GET /api/orders/submissions/{id} - should return submission status")
+    void getSubmission_ShouldReturn200() throws Exception {
+        when(orderSubmissionService.getSubmission(5L)).thenReturn(OrderSubmissionResponse.builder()
+                .id(5L).status(OrderSubmissionStatus.COMPLETED).orderId(1L).order(createResponse()).build());
+
+        mockMvc.perform(get("/api/orders/submissions/5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.order.customerName").value("John Doe"));
+    }
+
     @Test
     @DisplayName("GET /api/orders/{id} - should return order")
     void getById_ShouldReturn200() throws Exception {
@@ -1,5 +1,6 @@
 package com.example.springecommerceapi.controller;
 
+import com.example.springecommerceapi.dto.CursorPage;
 import com.example.springecommerceapi.dto.ProductRequest;
 import com.example.springecommerceapi.dto.ProductResponse;
 import com.example.springecommerceapi.service.ProductService;
@@ -11,10 +12,13 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -66,6 +70,21 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.name").value("iPhone 15"));
     }
 
+    @Test
+    @DisplayName("GET /api/products/search - should search within a category subtree")
+    void search_ShouldPassFilters() throws Exception {
+        when(productService.searchProducts("iphone", null, BigDecimal.valueOf(60000), true, 1L))
+                .thenReturn(List.of(createResponse()));
+
+        mockMvc.perform(get("/api/products/search")
+                        .param("keyword", "iphone")
+                        .param("maxPrice", "60000")
+                        .param("inStock", "true")
+                        .param("categoryId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].sku").value("IPHONE-15"));
+    }
+
     @Test
     @DisplayName("GET /api/products/{id} - should return product")
     void getById_ShouldReturn200() throws Exception {
@@ -77,13 +96,58 @@ class ProductControllerTest {
     }
 
     @Test
-    @DisplayName("GET /api/products - should return all products")
+    @DisplayName("GET /api/products/sku/{sku} - should return product")
+    void getBySku_ShouldReturn200() throws Exception {
+        when(productService.getBySku("IPHONE-15")).thenReturn(createResponse());
+
+        mockMvc.perform(get("/api/products/sku/IPHONE-15"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
+    @Test
+    @DisplayName("GET /api/products - should return a cursor page")
     void getAll_ShouldReturn200() throws Exception {
-        when(productService.getAll()).thenReturn(List.of(createResponse()));
+        when(productService.getPage(null, null)).thenReturn(new CursorPage<>(List.of(createResponse()), "Mg"));
 
         mockMvc.perform(get("/api/products"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(1));
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("Mg"));
+    }
+
+    @Test
+    @DisplayName("GET /api/products?cursor=&size= - should pass paging parameters through")
+    void getAll_WithCursor_ShouldPassParameters() throws Exception {
+        when(productService.getPage("Mg", 20)).thenReturn(new CursorPage<>(List.of(), null));
+
+        mockMvc.perform(get("/api/products").param("cursor", "Mg").param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+
+        verify(productService).getPage("Mg", 20);
+    }
+
+    @Test
+    @DisplayName("GET /api/products/export - should stream products as NDJSON")
+    void export_ShouldStreamNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<ProductResponse> consumer = invocation.getArgument(0);
+            consumer.accept(createResponse());
+            consumer.accept(createResponse());
+            return null;
+        }).when(productService).exportAll(any());
+
+        MvcResult result = mockMvc.perform(get("/api/products/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.lines()).hasSize(2).allMatch(line -> line.contains("\"sku\":\"IPHONE-15\""));
     }
 
     @Test
@@ -4,10 +4,13 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpServletRequest;
 
+import java.time.Duration;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,6 +50,36 @@ class GlobalExceptionHandlerTest {
         assertThat(response.getBody().getMessage()).isEqualTo("SKU already exists");
     }
 
+    @Test
+    @DisplayName("Should handle ConflictException with 409")
+    void handleConflict_ShouldReturn409() {
+        ConflictException ex = new ConflictException("Idempotency-Key was already used with a different request");
+
+        ResponseEntity<ErrorResponse> response = handler.handleConflict(ex, request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getStatus()).isEqualTo(409);
+        assertThat(response.getBody().getError()).isEqualTo("Conflict");
+        assertThat(response.getBody().getMessage())
+                .isEqualTo("Idempotency-Key was already used with a different request");
+    }
+
+    @Test
+    @DisplayName("Should handle ServiceOverloadedException with 429 and Retry-After")
+    void handleOverloaded_ShouldReturn429() {
+        ServiceOverloadedException ex = new ServiceOverloadedException("Assistant is busy", Duration.ofMillis(500));
+
+        ResponseEntity<ErrorResponse> response = handler.handleOverloaded(ex, request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getStatus()).isEqualTo(429);
+        assertThat(response.getBody().getError()).isEqualTo("Too Many Requests");
+        assertThat(response.getBody().getMessage()).isEqualTo("Assistant is busy");
+    }
+
     @Test
     @DisplayName("Should handle generic Exception with 500")
     void handleGeneric_ShouldReturn500() {
@@ -0,0 +1,108 @@
+package com.example.springecommerceapi.function;
+
+import com.example.springecommerceapi.dto.ProductResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ProductSearchCompactor Tests")
+class ProductSearchCompactorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Nested
+    @DisplayName("Ranking")
+    class RankingTests {
+
+        @Test
+        @DisplayName("Should keep the order the search query ranked results in")
+        void compact_ShouldKeepSearchOrder() {
+            List<ProductResponse> results = List.of(product(2, 5), product(4, 1), product(1, 0), product(3, null));
+
+            List<ProductResponse> kept = compactor(10, 1000).compact(results);
+
+            assertThat(kept).extracting(ProductResponse::getId).containsExactly(2L, 4L, 1L, 3L);
+        }
+    }
+
+    @Nested
+    @DisplayName("Limits")
+    class LimitTests {
+
+        @Test
+        @DisplayName("Should keep at most the configured number of results")
+        void compact_WhenMoreThanMaxResults_ShouldCap() {
+            List<ProductResponse> kept = compactor(3, 1000).compact(products(50));
+
+            assertThat(kept).extracting(ProductResponse::getId).containsExactly(1L, 2L, 3L);
+            assertThat(meterRegistry.get("assistant.tool.results.truncated").counter().count()).isEqualTo(1.0);
+        }
+
+        @Test
+        @DisplayName("Should stop adding results once the token budget is spent")
+        void compact_WhenOverTokenBudget_ShouldStopEarly() {
+            // each summary is 57 characters, 15 tokens with its comma; the brackets take one more
+            List<ProductResponse> kept = compactor(10, 50).compact(products(10));
+
+            assertThat(kept).hasSize(3);
+            assertThat(meterRegistry.get("assistant.tool.result.tokens").summary().max()).isEqualTo(46);
+        }
+
+        @Test
+        @DisplayName("Should always keep the best result, even over budget")
+        void compact_WhenFirstResultOverBudget_ShouldKeepIt() {
+            List<ProductResponse> kept = compactor(10, 1).compact(products(5));
+
+            assertThat(kept).extracting(ProductResponse::getId).containsExactly(1L);
+        }
+
+        @Test
+        @DisplayName("Should return no results for an empty search")
+        void compact_WhenEmpty_ShouldReturnEmpty() {
+            assertThat(compactor(10, 1000).compact(List.of())).isEmpty();
+            assertThat(meterRegistry.find("assistant.tool.results.truncated").counter().count()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Should record found and returned result counts per call")
+    void compact_ShouldRecordResultSizes() {
+        ProductSearchCompactor compactor = compactor(5, 1000);
+
+        compactor.compact(products(20));
+        compactor.compact(products(2));
+
+        assertThat(meterRegistry.get("assistant.tool.results").tag("stage", "found").summary().totalAmount())
+                .isEqualTo(22);
+        assertThat(meterRegistry.get("assistant.tool.results").tag("stage", "returned").summary().totalAmount())
+                .isEqualTo(7);
+        assertThat(meterRegistry.get("assistant.tool.result.tokens").summary().count()).isEqualTo(2);
+    }
+
+    private ProductSearchCompactor compactor(int maxResults, int tokenBudget) {
+        return new ProductSearchCompactor(new ObjectMapper(), meterRegistry, maxResults, tokenBudget);
+    }
+
+    private static List<ProductResponse> products(int count) {
+        return LongStream.rangeClosed(1, count).mapToObj(id -> product(id, 10)).toList();
+    }
+
+    private static ProductResponse product(long id, Integer stock) {
+        return ProductResponse.builder()
+                .id(id)
+                .name("Kulaklık " + id)
+                .sku("SKU-" + id)
+                .price(BigDecimal.valueOf(199.90))
+                .stockQuantity(stock)
+                .categoryName("Elektronik")
+                .build();
+    }
+}
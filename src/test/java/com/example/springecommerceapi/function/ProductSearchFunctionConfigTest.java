@@ -3,12 +3,14 @@ package com.example.springecommerceapi.function;
 import com.example.springecommerceapi.dto.ProductResponse;
 import com.example.springecommerceapi.dto.ProductSearchRequest;
 import com.example.springecommerceapi.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -28,8 +30,13 @@ class ProductSearchFunctionConfigTest {
     @InjectMocks
     private ProductSearchFunctionConfig config;
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(config, "maxResults", 10);
+    }
+
     @Test
-    @DisplayName("Should search products with given criteria")
+    @DisplayName("Should search with the given criteria, one result past the tool's limit")
     void productSearchFunction_ShouldDelegateToService() {
         ProductSearchRequest request = new ProductSearchRequest("laptop", BigDecimal.valueOf(100), BigDecimal.valueOf(5000), true);
 
@@ -37,7 +44,7 @@ class ProductSearchFunctionConfigTest {
                 ProductResponse.builder().id(1L).name("Laptop").build()
         );
 
-        when(productService.searchProducts("laptop", BigDecimal.valueOf(100), BigDecimal.valueOf(5000), true))
+        when(productService.searchProducts("laptop", BigDecimal.valueOf(100), BigDecimal.valueOf(5000), true, null, 11))
                 .thenReturn(expected);
 
         Function<ProductSearchRequest, List<ProductResponse>> function = config.productSearchFunction();
@@ -45,6 +52,7 @@ class ProductSearchFunctionConfigTest {
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getName()).isEqualTo("Laptop");
-        verify(productService).searchProducts("laptop", BigDecimal.valueOf(100), BigDecimal.valueOf(5000), true);
+        verify(productService)
+                .searchProducts("laptop", BigDecimal.valueOf(100), BigDecimal.valueOf(5000), true, null, 11);
     }
 }
@@ -1,112 +1,212 @@
 package com.example.springecommerceapi.integration;
 
+import com.example.springecommerceapi.domain.OutboxEvent;
+import com.example.springecommerceapi.domain.OutboxStatus;
+import com.example.springecommerceapi.dto.ProductResponse;
+import com.example.springecommerceapi.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("N8nEventPublisher Tests")
 class N8nEventPublisherTest {
 
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private N8nEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.findAndRegisterModules();
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        publisher = new N8nEventPublisher(outboxEventRepository, objectMapper, meterRegistry, transactionManager);
+        ReflectionTestUtils.setField(publisher, "enabled", true);
+        ReflectionTestUtils.setField(publisher, "webhookUrl", "http://localhost:5678/webhook");
+    }
+
     @Test
     @DisplayName("Should skip publish when disabled")
     void publish_WhenDisabled_ShouldSkip() {
-        N8nEventPublisher publisher = new N8nEventPublisher(WebClient.builder());
         ReflectionTestUtils.setField(publisher, "enabled", false);
-        ReflectionTestUtils.setField(publisher, "webhookUrl", "http://localhost:5678/webhook");
 
         publisher.publishConversationCompletedEvent(1L, "test@test.com", "msg", "answer", Collections.emptyList(), "web");
+
+        verifyNoInteractions(outboxEventRepository);
     }
 
     @Test
     @DisplayName("Should skip publish when webhook URL is blank")
     void publish_WhenWebhookUrlBlank_ShouldSkip() {
-        N8nEventPublisher publisher = new N8nEventPublisher(WebClient.builder());
-        ReflectionTestUtils.setField(publisher, "enabled", true);
         ReflectionTestUtils.setField(publisher, "webhookUrl", "");
 
         publisher.publishConversationCompletedEvent(1L, "test@test.com", "msg", "answer", Collections.emptyList(), "web");
+
+        verifyNoInteractions(outboxEventRepository);
     }
 
     @Test
     @DisplayName("Should skip publish when webhook URL is null")
     void publish_WhenWebhookUrlNull_ShouldSkip() {
-        N8nEventPublisher publisher = new N8nEventPublisher(WebClient.builder());
-        ReflectionTestUtils.setField(publisher, "enabled", true);
         ReflectionTestUtils.setField(publisher, "webhookUrl", null);
 
         publisher.publishConversationCompletedEvent(1L, "test@test.com", "msg", "answer", Collections.emptyList(), "web");
+
+        verifyNoInteractions(outboxEventRepository);
     }
 
-    @SuppressWarnings("unchecked")
     @Test
-    @DisplayName("Should publish event when enabled and webhook URL is set")
-    void publish_WhenEnabledAndUrlSet_ShouldSendRequest() {
-        WebClient mockWebClient = mock(WebClient.class);
-        WebClient.RequestBodyUriSpec uriSpec = mock(WebClient.RequestBodyUriSpec.class);
-        WebClient.RequestBodySpec bodySpec = mock(WebClient.RequestBodySpec.class);
-        WebClient.ResponseSpec responseSpec = mock(WebClient.ResponseSpec.class);
-
-        when(mockWebClient.post()).thenReturn(uriSpec);
-        when(uriSpec.uri(anyString())).thenReturn(bodySpec);
-        when(bodySpec.bodyValue(any())).thenReturn(mock(WebClient.RequestHeadersSpec.class));
-        WebClient.RequestHeadersSpec headersSpec = mock(WebClient.RequestHeadersSpec.class);
-        when(bodySpec.bodyValue(any())).thenReturn(headersSpec);
-        when(headersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(Void.class)).thenReturn(Mono.empty());
-
-        WebClient.Builder mockBuilder = mock(WebClient.Builder.class);
-        when(mockBuilder.defaultHeader(anyString(), anyString())).thenReturn(mockBuilder);
-        when(mockBuilder.build()).thenReturn(mockWebClient);
-
-        N8nEventPublisher publisher = new N8nEventPublisher(mockBuilder);
-        ReflectionTestUtils.setField(publisher, "enabled", true);
-        ReflectionTestUtils.setField(publisher, "webhookUrl", "http://localhost:5678/webhook");
-        ReflectionTestUtils.setField(publisher, "apiKey", "");
-
-        publisher.publishConversationCompletedEvent(1L, "test@test.com", "msg", "answer", Collections.emptyList(), "web");
-
-        verify(mockWebClient).post();
+    @DisplayName("Should write a pending outbox row with the event payload")
+    void publish_WhenEnabledAndUrlSet_ShouldWriteOutboxRow() throws Exception {
+        List<ProductResponse> products = List.of(ProductResponse.builder().id(7L).name("Kulaklık").build());
+
+        publisher.publishConversationCompletedEvent(1L, "test@test.com", "msg", "answer", products, "web");
+
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(captor.capture());
+        OutboxEvent saved = captor.getValue();
+        assertThat(saved.getEventType()).isEqualTo("conversation_completed");
+        assertThat(saved.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(saved.getAttempts()).isZero();
+        assertThat(saved.getNextAttemptAt()).isNotNull();
+
+        JsonNode payload = new ObjectMapper().readTree(saved.getPayload());
+        assertThat(payload.fieldNames()).toIterable().containsExactly(
+                "eventType", "timestamp", "userId", "email", "source", "userMessage", "assistantAnswer",
+                "recommendedProducts");
+        assertThat(payload.get("userId").asLong()).isEqualTo(1L);
+        assertThat(payload.get("recommendedProducts").get(0).get("name").asText()).isEqualTo("Kulaklık");
     }
 
-    @SuppressWarnings("unchecked")
     @Test
-    @DisplayName("Should add API key header when apiKey is present")
-    void publish_WhenApiKeyPresent_ShouldAddHeader() {
-        WebClient mockWebClient = mock(WebClient.class);
-        WebClient.RequestBodyUriSpec uriSpec = mock(WebClient.RequestBodyUriSpec.class);
-        WebClient.RequestBodySpec bodySpec = mock(WebClient.RequestBodySpec.class);
-        WebClient.ResponseSpec responseSpec = mock(WebClient.ResponseSpec.class);
-
-        when(mockWebClient.post()).thenReturn(uriSpec);
-        when(uriSpec.uri(anyString())).thenReturn(bodySpec);
-        when(bodySpec.header(anyString(), anyString())).thenReturn(bodySpec);
-        WebClient.RequestHeadersSpec headersSpec = mock(WebClient.RequestHeadersSpec.class);
-        when(bodySpec.bodyValue(any())).thenReturn(headersSpec);
-        when(headersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(Void.class)).thenReturn(Mono.empty());
-
-        WebClient.Builder mockBuilder = mock(WebClient.Builder.class);
-        when(mockBuilder.defaultHeader(anyString(), anyString())).thenReturn(mockBuilder);
-        when(mockBuilder.build()).thenReturn(mockWebClient);
-
-        N8nEventPublisher publisher = new N8nEventPublisher(mockBuilder);
-        ReflectionTestUtils.setField(publisher, "enabled", true);
-        ReflectionTestUtils.setField(publisher, "webhookUrl", "http://localhost:5678/webhook");
-        ReflectionTestUtils.setField(publisher, "apiKey", "my-secret-key");
+    @DisplayName("Should not send anything over HTTP in the request path")
+    void publish_ShouldOnlyTouchOutbox() {
+        publisher.publishConversationCompletedEvent(null, null, "msg", "answer", Collections.emptyList(), "web");
 
-        publisher.publishConversationCompletedEvent(1L, "test@test.com", "msg", "answer", Collections.emptyList(), "web");
+        verify(outboxEventRepository).save(any(OutboxEvent.class));
+        verifyNoMoreInteractions(outboxEventRepository);
+    }
 
-        verify(bodySpec).header("X-N8N-API-KEY", "my-secret-key");
+    @Nested
+    @DisplayName("Batching")
+    class BatchingTests {
+
+        @BeforeEach
+        void enableBatching() {
+            ReflectionTestUtils.setField(publisher, "batchEnabled", true);
+            ReflectionTestUtils.setField(publisher, "batchSize", 3);
+            ReflectionTestUtils.setField(publisher, "maxQueueSize", 5);
+            ReflectionTestUtils.setField(publisher, "overflowPolicy", N8nEventPublisher.OverflowPolicy.DROP);
+            ReflectionTestUtils.setField(publisher, "blockTimeout", Duration.ofMillis(10));
+            publisher.initBatching();
+        }
+
+        @Test
+        @DisplayName("Should only queue events in the request path, even past the batch size")
+        void publish_PastBatchSize_ShouldOnlyQueue() {
+            publish(4);
+
+            verifyNoInteractions(outboxEventRepository, transactionManager);
+            assertThat(meterRegistry.get("n8n.batch.queue.depth").gauge().value()).isEqualTo(4.0);
+        }
+
+        @Test
+        @DisplayName("Should write one outbox row holding a JSON array per full batch")
+        void flushLingering_ShouldWriteArrayPerBatch() throws Exception {
+            publish(5);
+
+            publisher.flushLingering();
+
+            ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+            verify(outboxEventRepository, times(2)).save(captor.capture());
+            assertThat(captor.getAllValues()).extracting(OutboxEvent::getEventType)
+                    .containsOnly("conversation_completed_batch");
+            JsonNode first = new ObjectMapper().readTree(captor.getAllValues().get(0).getPayload());
+            assertThat(first.isArray()).isTrue();
+            assertThat(first).hasSize(3);
+            assertThat(first.get(0).get("eventType").asText()).isEqualTo("conversation_completed");
+            assertThat(new ObjectMapper().readTree(captor.getAllValues().get(1).getPayload())).hasSize(2);
+            assertThat(meterRegistry.get("n8n.batch.size").summary().totalAmount()).isEqualTo(5.0);
+            assertThat(meterRegistry.get("n8n.batch.flush.latency").timer().count()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should write each batch in a transaction of its own")
+        void flushLingering_ShouldCommitPerBatch() {
+            publish(5);
+
+            publisher.flushLingering();
+
+            verify(transactionManager, times(2)).getTransaction(any());
+            verify(transactionManager, times(2)).commit(any());
+        }
+
+        @Test
+        @DisplayName("Should flush a partial batch when the linger time elapses")
+        void flushLingering_ShouldWritePartialBatch() throws Exception {
+            publish(2);
+
+            publisher.flushLingering();
+
+            ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+            verify(outboxEventRepository).save(captor.capture());
+            assertThat(new ObjectMapper().readTree(captor.getValue().getPayload())).hasSize(2);
+            assertThat(meterRegistry.get("n8n.batch.queue.depth").gauge().value()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should drop and count events when the queue is full")
+        void publish_WhenQueueFullAndDropPolicy_ShouldDrop() {
+            publish(7);
+
+            verifyNoInteractions(outboxEventRepository);
+            assertThat(meterRegistry.get("n8n.batch.dropped").counter().count()).isEqualTo(2.0);
+        }
+
+        @Test
+        @DisplayName("Should write the event on its own when the queue stays full under the block policy")
+        void publish_WhenQueueFullAndBlockPolicy_ShouldFallBackToSingleRow() {
+            ReflectionTestUtils.setField(publisher, "overflowPolicy", N8nEventPublisher.OverflowPolicy.BLOCK);
+
+            publish(6);
+
+            ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+            verify(outboxEventRepository).save(captor.capture());
+            assertThat(captor.getValue().getEventType()).isEqualTo("conversation_completed");
+            assertThat(meterRegistry.get("n8n.batch.dropped").counter().count()).isZero();
+        }
+
+        private void publish(int count) {
+            for (int i = 0; i < count; i++) {
+                publisher.publishConversationCompletedEvent((long) i, null, "msg", "answer",
+                        Collections.emptyList(), "web");
+            }
+        }
     }
 }
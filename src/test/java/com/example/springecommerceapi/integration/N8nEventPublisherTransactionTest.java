@@ -0,0 +1,95 @@
+package com.example.springecommerceapi.integration;
+
+import com.example.springecommerceapi.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@DisplayName("N8nEventPublisher transaction Tests")
+class N8nEventPublisherTransactionTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private N8nEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.findAndRegisterModules();
+        publisher = new N8nEventPublisher(outboxEventRepository, objectMapper, new SimpleMeterRegistry(),
+                transactionManager);
+        ReflectionTestUtils.setField(publisher, "enabled", true);
+        ReflectionTestUtils.setField(publisher, "webhookUrl", "http://localhost:5678/webhook");
+        ReflectionTestUtils.setField(publisher, "batchEnabled", true);
+        ReflectionTestUtils.setField(publisher, "batchSize", 3);
+        ReflectionTestUtils.setField(publisher, "maxQueueSize", 10);
+        ReflectionTestUtils.setField(publisher, "overflowPolicy", N8nEventPublisher.OverflowPolicy.DROP);
+        ReflectionTestUtils.setField(publisher, "blockTimeout", Duration.ofMillis(10));
+        publisher.initBatching();
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("A caller that rolls back should not take the batch it filled with it")
+    void publish_WhenCallerRollsBack_ShouldKeepBatch() {
+        publish(2);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            publish(1);
+            status.setRollbackOnly();
+        });
+        publisher.flushLingering();
+
+        assertThat(outboxEventRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A caller that fills a batch should not write it inside its own transaction")
+    void publish_WhenBatchFilled_ShouldLeaveWriteToFlusher() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> publish(3));
+
+        assertThat(outboxEventRepository.count()).isZero();
+
+        publisher.flushLingering();
+
+        assertThat(outboxEventRepository.count()).isEqualTo(1);
+    }
+
+    private void publish(int count) {
+        for (int i = 0; i < count; i++) {
+            publisher.publishConversationCompletedEvent((long) i, null, "msg", "answer",
+                    Collections.emptyList(), "web");
+        }
+    }
+}
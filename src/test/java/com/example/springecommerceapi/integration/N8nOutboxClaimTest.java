@@ -0,0 +1,128 @@
+package com.example.springecommerceapi.integration;
+
+import com.example.springecommerceapi.domain.OutboxEvent;
+import com.example.springecommerceapi.domain.OutboxStatus;
+import com.example.springecommerceapi.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.function.client.WebClientAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({N8nOutboxDispatcher.class, N8nOutboxClaimTest.MetricsConfig.class})
+@ImportAutoConfiguration(WebClientAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "n8n.outbox.batch-size=2",
+        "n8n.outbox.request-timeout=10s"
+})
+@DisplayName("N8nOutboxDispatcher claim Tests")
+class N8nOutboxClaimTest {
+
+    @Autowired
+    private N8nOutboxDispatcher dispatcher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should claim due rows in id order and lease them")
+    void claimBatch_ShouldLeaseDueRows() {
+        LocalDateTime now = LocalDateTime.now();
+        Long first = save(now.minusMinutes(1), OutboxStatus.PENDING);
+        Long second = save(now.minusMinutes(1), OutboxStatus.PENDING);
+        save(now.minusMinutes(1), OutboxStatus.PENDING);
+        save(now.plusMinutes(5), OutboxStatus.PENDING);
+        save(now.minusMinutes(1), OutboxStatus.DEAD);
+
+        List<OutboxEvent> claimed = dispatcher.claimBatch();
+
+        assertThat(claimed).extracting(OutboxEvent::getId).containsExactly(first, second);
+        assertThat(outboxEventRepository.findById(first).orElseThrow().getNextAttemptAt())
+                .isAfter(now.plusSeconds(15));
+    }
+
+    @Test
+    @DisplayName("Should not hand out leased rows again")
+    void claimBatch_ShouldSkipLeasedRows() {
+        LocalDateTime due = LocalDateTime.now().minusMinutes(1);
+        save(due, OutboxStatus.PENDING);
+        save(due, OutboxStatus.PENDING);
+        Long third = save(due, OutboxStatus.PENDING);
+
+        dispatcher.claimBatch();
+        List<OutboxEvent> secondClaim = dispatcher.claimBatch();
+
+        assertThat(secondClaim).extracting(OutboxEvent::getId).containsExactly(third);
+        assertThat(dispatcher.claimBatch()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should only record an outcome while the lease is still held")
+    void markDispatched_WhenLeaseTakenOver_ShouldNotApply() {
+        Long id = save(LocalDateTime.now().minusMinutes(1), OutboxStatus.PENDING);
+        LocalDateTime firstLease = dispatcher.claimBatch().get(0).getNextAttemptAt();
+        // The first lease runs out and another poll claims the row
+        OutboxEvent expired = outboxEventRepository.findById(id).orElseThrow();
+        expired.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxEventRepository.save(expired);
+        LocalDateTime secondLease = dispatcher.claimBatch().get(0).getNextAttemptAt();
+
+        assertThat(outboxEventRepository.markDispatched(id, firstLease, LocalDateTime.now())).isZero();
+        assertThat(outboxEventRepository.findById(id).orElseThrow().getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(outboxEventRepository.markDispatched(id, secondLease, LocalDateTime.now())).isEqualTo(1);
+        assertThat(outboxEventRepository.findById(id).orElseThrow().getStatus()).isEqualTo(OutboxStatus.DISPATCHED);
+    }
+
+    @Test
+    @DisplayName("Should report pending count and oldest pending row")
+    void lagQueries_ShouldOnlyConsiderPendingRows() {
+        save(LocalDateTime.now(), OutboxStatus.PENDING);
+        save(LocalDateTime.now(), OutboxStatus.DEAD);
+
+        assertThat(outboxEventRepository.countPending()).isEqualTo(1);
+        assertThat(outboxEventRepository.findOldestPendingCreatedAt()).isPresent();
+    }
+
+    private Long save(LocalDateTime nextAttemptAt, OutboxStatus status) {
+        return outboxEventRepository.save(OutboxEvent.builder()
+                .eventType("conversation_completed")
+                .payload("{}")
+                .status(status)
+                .nextAttemptAt(nextAttemptAt)
+                .build()).getId();
+    }
+
+    @TestConfiguration
+    static class MetricsConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
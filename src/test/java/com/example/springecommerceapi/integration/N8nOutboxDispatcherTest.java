@@ -0,0 +1,301 @@
+package com.example.springecommerceapi.integration;
+
+import com.example.springecommerceapi.domain.OutboxEvent;
+import com.example.springecommerceapi.repository.OutboxEventRepository;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("N8nOutboxDispatcher Tests")
+class N8nOutboxDispatcherTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private HttpServer server;
+    private final ConcurrentLinkedQueue<String> receivedBodies = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<String> receivedApiKeys = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<String> receivedEncodings = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile int responseStatus = 200;
+    private volatile long responseDelayMillis = 0;
+
+    private N8nOutboxDispatcher dispatcher;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/webhook", exchange -> {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+                InputStream body = exchange.getRequestBody();
+                if ("gzip".equals(encoding)) {
+                    receivedEncodings.add(encoding);
+                    body = new GZIPInputStream(body);
+                }
+                receivedBodies.add(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+                String apiKey = exchange.getRequestHeaders().getFirst("X-N8N-API-KEY");
+                if (apiKey != null) {
+                    receivedApiKeys.add(apiKey);
+                }
+                if (responseDelayMillis > 0) {
+                    Thread.sleep(responseDelayMillis);
+                }
+                exchange.sendResponseHeaders(responseStatus, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        lenient().when(outboxEventRepository.findOldestPendingCreatedAt()).thenReturn(Optional.empty());
+        lenient().when(outboxEventRepository.markDispatched(anyLong(), any(), any())).thenReturn(1);
+        lenient().when(outboxEventRepository.markRetry(anyLong(), any(), any(), anyString())).thenReturn(1);
+        lenient().when(outboxEventRepository.markDead(anyLong(), any(), anyString())).thenReturn(1);
+
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new N8nOutboxDispatcher(WebClient.builder(), outboxEventRepository, transactionManager,
+                meterRegistry);
+        ReflectionTestUtils.setField(dispatcher, "enabled", true);
+        ReflectionTestUtils.setField(dispatcher, "webhookUrl",
+                "http://localhost:" + server.getAddress().getPort() + "/webhook");
+        ReflectionTestUtils.setField(dispatcher, "apiKey", "");
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 100);
+        ReflectionTestUtils.setField(dispatcher, "maxConcurrency", 4);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "requestTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(dispatcher, "initialBackoff", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(dispatcher, "maxBackoff", Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Nested
+    @DisplayName("Delivery")
+    class DeliveryTests {
+
+        @Test
+        @DisplayName("Should post the stored payload and mark the row dispatched")
+        void dispatch_WhenWebhookAccepts_ShouldMarkDispatched() {
+            ReflectionTestUtils.setField(dispatcher, "apiKey", "secret");
+            when(outboxEventRepository.lockDue(any(), eq(100))).thenReturn(List.of(event(1L, 0)));
+
+            dispatcher.dispatchPending();
+
+            assertThat(receivedBodies).containsExactly("{\"eventType\":\"conversation_completed\",\"id\":1}");
+            assertThat(receivedApiKeys).containsExactly("secret");
+            ArgumentCaptor<LocalDateTime> leaseUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+            verify(outboxEventRepository).lease(eq(List.of(1L)), leaseUntil.capture());
+            verify(outboxEventRepository).markDispatched(eq(1L), eq(leaseUntil.getValue()), any(LocalDateTime.class));
+            assertThat(meterRegistry.get("n8n.outbox.dispatched").counter().count()).isEqualTo(1.0);
+        }
+
+        @Test
+        @DisplayName("Should not count a delivery whose lease was taken over")
+        void dispatch_WhenLeaseLost_ShouldNotCountDispatched() {
+            when(outboxEventRepository.lockDue(any(), eq(100))).thenReturn(List.of(event(1L, 0)));
+            when(outboxEventRepository.markDispatched(eq(1L), any(), any())).thenReturn(0);
+
+            dispatcher.dispatchPending();
+
+            assertThat(receivedBodies).hasSize(1);
+            assertThat(meterRegistry.get("n8n.outbox.dispatched").counter().count()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should reschedule with backoff when the webhook fails")
+        void dispatch_WhenWebhookFails_ShouldScheduleRetry() {
+            responseStatus = 503;
+            when(outboxEventRepository.lockDue(any(), eq(100))).thenReturn(List.of(event(1L, 0)));
+            LocalDateTime before = LocalDateTime.now();
+
+            dispatcher.dispatchPending();
+
+            ArgumentCaptor<LocalDateTime> nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+            verify(outboxEventRepository).markRetry(eq(1L), any(), nextAttempt.capture(), contains("503"));
+            assertThat(nextAttempt.getValue()).isAfterOrEqualTo(before.plusSeconds(5));
+            verify(outboxEventRepository, never()).markDispatched(anyLong(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should dead-letter the row on the last allowed attempt")
+        void dispatch_WhenAttemptsExhausted_ShouldMarkDead() {
+            responseStatus = 500;
+            when(outboxEventRepository.lockDue(any(), eq(100))).thenReturn(List.of(event(1L, 2)));
+
+            dispatcher.dispatchPending();
+
+            verify(outboxEventRepository).markDead(eq(1L), any(), contains("500"));
+            verify(outboxEventRepository, never()).markRetry(anyLong(), any(), any(), anyString());
+        }
+
+        @Test
+        @DisplayName("Should never exceed the configured number of in-flight requests")
+        void dispatch_ShouldBoundConcurrency() {
+            responseDelayMillis = 100;
+            ReflectionTestUtils.setField(dispatcher, "maxConcurrency", 3);
+            List<OutboxEvent> batch = LongStream.rangeClosed(1, 12).mapToObj(id -> event(id, 0)).toList();
+            when(outboxEventRepository.lockDue(any(), eq(100))).thenReturn(batch);
+
+            dispatcher.dispatchPending();
+
+            assertThat(receivedBodies).hasSize(12);
+            assertThat(maxInFlight.get()).isBetween(2, 3);
+            verify(outboxEventRepository, times(12)).markDispatched(anyLong(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should keep claiming while batches come back full")
+        void dispatch_WhenBatchFull_ShouldClaimAgain() {
+            ReflectionTestUtils.setField(dispatcher, "batchSize", 2);
+            when(outboxEventRepository.lockDue(any(), eq(2)))
+                    .thenReturn(List.of(event(1L, 0), event(2L, 0)))
+                    .thenReturn(List.of(event(3L, 0)));
+
+            dispatcher.dispatchPending();
+
+            assertThat(receivedBodies).hasSize(3);
+            verify(outboxEventRepository, times(2)).lockDue(any(), eq(2));
+        }
+
+        @Test
+        @DisplayName("Should not poll when the integration is disabled")
+        void dispatch_WhenDisabled_ShouldNotPoll() {
+            ReflectionTestUtils.setField(dispatcher, "enabled", false);
+
+            dispatcher.dispatchPending();
+
+            verifyNoInteractions(outboxEventRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch mode")
+    class BatchModeTests {
+
+        @BeforeEach
+        void enableBatchMode() {
+            ReflectionTestUtils.setField(dispatcher, "batchEnabled", true);
+            ReflectionTestUtils.setField(dispatcher, "maxInFlightBatches", 1);
+            ReflectionTestUtils.setField(dispatcher, "gzipBatches", true);
+        }
+
+        @Test
+        @DisplayName("Should gzip batch rows and leave single events uncompressed")
+        void dispatch_ShouldGzipOnlyBatchRows() {
+            OutboxEvent batchRow = OutboxEvent.builder()
+                    .id(1L)
+                    .eventType("conversation_completed_batch")
+                    .payload("[{\"id\":1},{\"id\":2}]")
+                    .attempts(0)
+                    .nextAttemptAt(LocalDateTime.now())
+                    .build();
+            when(outboxEventRepository.lockDue(any(), eq(100))).thenReturn(List.of(batchRow, event(2L, 0)));
+
+            dispatcher.dispatchPending();
+
+            assertThat(receivedBodies).containsExactlyInAnyOrder("[{\"id\":1},{\"id\":2}]",
+                    "{\"eventType\":\"conversation_completed\",\"id\":2}");
+            assertThat(receivedEncodings).containsExactly("gzip");
+            verify(outboxEventRepository, times(2)).markDispatched(anyLong(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should cap in-flight posts at the batch limit")
+        void dispatch_ShouldUseMaxInFlightBatches() {
+            responseDelayMillis = 50;
+            List<OutboxEvent> batch = LongStream.rangeClosed(1, 4).mapToObj(id -> event(id, 0)).toList();
+            when(outboxEventRepository.lockDue(any(), eq(100))).thenReturn(batch);
+
+            dispatcher.dispatchPending();
+
+            assertThat(receivedBodies).hasSize(4);
+            assertThat(maxInFlight.get()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("The lease should outlast a full batch of timed-out requests")
+    void leaseDuration_ShouldCoverEveryWave() {
+        // 100 rows at 4 in flight: 25 waves of 5s, plus one wave of margin
+        assertThat(dispatcher.leaseDuration()).isEqualTo(Duration.ofSeconds(130));
+
+        ReflectionTestUtils.setField(dispatcher, "batchEnabled", true);
+        ReflectionTestUtils.setField(dispatcher, "maxInFlightBatches", 3);
+        assertThat(dispatcher.leaseDuration()).isEqualTo(Duration.ofSeconds(5 * 35));
+    }
+
+    @Nested
+    @DisplayName("Backoff")
+    class BackoffTests {
+
+        @Test
+        @DisplayName("Should double per attempt and stay within 20% jitter")
+        void backoff_ShouldGrowExponentially() {
+            assertThat(dispatcher.backoff(1)).isBetween(Duration.ofSeconds(5), Duration.ofSeconds(6));
+            assertThat(dispatcher.backoff(3)).isBetween(Duration.ofSeconds(20), Duration.ofSeconds(24));
+        }
+
+        @Test
+        @DisplayName("Should cap at the maximum backoff")
+        void backoff_ShouldBeCapped() {
+            assertThat(dispatcher.backoff(40)).isBetween(Duration.ofMinutes(1), Duration.ofSeconds(72));
+        }
+    }
+
+    private OutboxEvent event(long id, int attempts) {
+        return OutboxEvent.builder()
+                .id(id)
+                .eventType("conversation_completed")
+                .payload("{\"eventType\":\"conversation_completed\",\"id\":" + id + "}")
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.springecommerceapi.service;
 
+import com.example.springecommerceapi.config.PayloadLogSampler;
 import com.example.springecommerceapi.dto.AssistantResponse;
+import com.example.springecommerceapi.dto.ProductResponse;
+import com.example.springecommerceapi.exception.ServiceOverloadedException;
+import com.example.springecommerceapi.function.ProductSearchCompactor;
 import com.example.springecommerceapi.integration.N8nEventPublisher;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,11 +14,26 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.ai.chat.client.ChatClient;
-
-import java.lang.reflect.Method;
+import org.springframework.ai.chat.client.advisor.api.Advisor;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.model.function.FunctionCallback;
+import org.springframework.ai.ollama.api.OllamaOptions;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -22,6 +41,9 @@ import static org.mockito.Mockito.*;
 @DisplayName("AiShoppingAssistantService Tests")
 class AiShoppingAssistantServiceTest {
 
+    private static final ProductResponse HEADSET = ProductResponse.builder()
+            .id(7L).name("Oyuncu Kulaklığı").sku("HS-7").price(BigDecimal.valueOf(499.90)).stockQuantity(5).build();
+
     @Mock
     private ChatClient chatClient;
 
@@ -31,17 +53,50 @@ class AiShoppingAssistantServiceTest {
     @Mock
     private N8nEventPublisher n8nEventPublisher;
 
+    @Mock
+    private ObjectProvider<EmbeddingModel> embeddingModelProvider;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ObjectProvider<ChatClient> structuredOutputChatClient;
+
+    private AssistantResponseCache responseCache;
+
+    private AssistantConcurrencyLimiter concurrencyLimiter;
+
+    private ProductSearchCompactor searchCompactor;
+
+    private ModelMetricsAdvisor modelMetricsAdvisor;
+
     private AiShoppingAssistantService assistantService;
 
+    // what the search callback returned to the model, when a mocked chain called it
+    private String toolOutput;
+
     @BeforeEach
     void setUp() {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.findAndRegisterModules();
 
         when(chatClientBuilder.defaultSystem(anyString())).thenReturn(chatClientBuilder);
+        when(chatClientBuilder.defaultAdvisors(any(Advisor.class))).thenReturn(chatClientBuilder);
         when(chatClientBuilder.build()).thenReturn(chatClient);
 
-        assistantService = new AiShoppingAssistantService(chatClientBuilder, n8nEventPublisher, objectMapper);
+        responseCache = new AssistantResponseCache(true, Duration.ofMinutes(10), 100, false, 0.92,
+                embeddingModelProvider, new SimpleMeterRegistry());
+
+        concurrencyLimiter = new AssistantConcurrencyLimiter(true, 1, 1, 1, 0, Duration.ZERO,
+                Duration.ofSeconds(20), 0.7, new SimpleMeterRegistry());
+
+        searchCompactor = new ProductSearchCompactor(objectMapper, new SimpleMeterRegistry(), 10, 800);
+        modelMetricsAdvisor = new ModelMetricsAdvisor(new SimpleMeterRegistry());
+
+        assistantService = new AiShoppingAssistantService(chatClientBuilder, n8nEventPublisher,
+                new ModelJsonRepairer(objectMapper), responseCache, concurrencyLimiter,
+                new PayloadLogSampler(1.0, 1000), productService, structuredOutputChatClient,
+                request -> List.of(HEADSET), searchCompactor, modelMetricsAdvisor);
     }
 
     @Nested
@@ -51,7 +106,7 @@ class AiShoppingAssistantServiceTest {
         @Test
         @DisplayName("Should return parsed response for valid JSON")
         void chat_WhenValidJsonResponse_ShouldReturnParsedAssistantResponse() {
-            mockChatClientChain("{\"answer\": \"İşte önerim\", \"recommendedProducts\": []}");
+            mockChatClientChain("{\"answer\": \"İşte önerim\", \"productIds\": []}");
 
             AssistantResponse response = assistantService.chat("laptop öner", 1L, "test@test.com", "ecommerce_chat");
 
@@ -60,25 +115,57 @@ class AiShoppingAssistantServiceTest {
         }
 
         @Test
-        @DisplayName("Should return products for valid JSON with products")
-        void chat_WhenValidJsonWithProducts_ShouldReturnProducts() {
-            String modelResponse = "{\"answer\": \"Bu ürünü öneririm\", \"recommendedProducts\": [" +
-                    "{\"id\": 1, \"name\": \"Laptop\", \"sku\": \"LAP-001\", \"price\": 299.99, " +
-                    "\"stockQuantity\": 10, \"active\": true, \"categoryId\": 1, \"categoryName\": \"Elektronik\"}" +
-                    "]}";
-            mockChatClientChain(modelResponse);
+        @DisplayName("Should hydrate the product ids the model picked from the search results")
+        void chat_WhenModelPicksSearchedIds_ShouldReturnToolResultProducts() {
+            mockChatClientChain("{\"answer\": \"Bu ürünü öneririm\", \"productIds\": [7]}", true);
 
-            AssistantResponse response = assistantService.chat("laptop öner");
+            AssistantResponse response = assistantService.chat("kulaklık öner");
 
             assertThat(response.answer()).isEqualTo("Bu ürünü öneririm");
-            assertThat(response.recommendedProducts()).hasSize(1);
-            assertThat(response.recommendedProducts().get(0).getName()).isEqualTo("Laptop");
+            assertThat(response.recommendedProducts()).containsExactly(HEADSET);
+            verifyNoInteractions(productService);
+        }
+
+        @Test
+        @DisplayName("Should hand the model compact summaries of the search results")
+        void chat_WhenToolCalled_ShouldReturnProductSummariesToModel() {
+            mockChatClientChain("{\"answer\": \"Önerim\", \"productIds\": [7]}", true);
+
+            assistantService.chat("kulaklık öner");
+
+            assertThat(toolOutput)
+                    .contains("\"id\":7", "\"name\":\"Oyuncu Kulaklığı\"", "\"inStock\":true")
+                    .doesNotContain("sku", "HS-7");
+        }
+
+        @Test
+        @DisplayName("Should ask the structured-output client for replies and stream through the default one")
+        void chat_WhenStructuredOutputEnabled_ShouldUseStructuredClient() {
+            ChatClient structured = mock(ChatClient.class);
+            ChatClient.Builder structuredBuilder = mock(ChatClient.Builder.class);
+            ChatClient replyClient = mock(ChatClient.class);
+            when(structuredOutputChatClient.getIfAvailable()).thenReturn(structured);
+            when(structured.mutate()).thenReturn(structuredBuilder);
+            when(structuredBuilder.defaultSystem(anyString())).thenReturn(structuredBuilder);
+            when(structuredBuilder.defaultAdvisors(any(Advisor.class))).thenReturn(structuredBuilder);
+            when(structuredBuilder.build()).thenReturn(replyClient);
+            assistantService = new AiShoppingAssistantService(chatClientBuilder, n8nEventPublisher,
+                    new ModelJsonRepairer(new ObjectMapper()), responseCache, concurrencyLimiter,
+                    new PayloadLogSampler(1.0, 1000), productService, structuredOutputChatClient,
+                    request -> List.of(HEADSET), searchCompactor, modelMetricsAdvisor);
+            mockChatClientChain(replyClient, "{\"answer\": \"Önerim\", \"productIds\": [7]}", true);
+
+            AssistantResponse response = assistantService.chat("kulaklık öner");
+
+            assertThat(response.recommendedProducts()).containsExactly(HEADSET);
+            verify(structuredBuilder).defaultSystem(contains("productIds"));
+            verifyNoInteractions(chatClient);
         }
 
         @Test
         @DisplayName("Should parse JSON wrapped with extra text")
         void chat_WhenJsonWrappedWithExtraText_ShouldParseSuccessfully() {
-            mockChatClientChain("İşte sonuç: {\"answer\": \"Önerim budur\", \"recommendedProducts\": []} son.");
+            mockChatClientChain("İşte sonuç: {\"answer\": \"Önerim budur\", \"productIds\": []} son.");
 
             AssistantResponse response = assistantService.chat("telefon öner");
 
@@ -115,33 +202,41 @@ class AiShoppingAssistantServiceTest {
     }
 
     @Nested
-    @DisplayName("JSON sanitization")
-    class SanitizationTests {
+    @DisplayName("Model reply parsing")
+    class ModelReplyParsingTests {
 
         @Test
-        @DisplayName("Should sanitize price containing TL")
-        void chat_WhenPriceContainsTL_ShouldSanitizeAndParse() {
-            String modelResponse = "{\"answer\": \"Önerim\", \"recommendedProducts\": [" +
-                    "{\"id\": 1, \"name\": \"Laptop\", \"sku\": \"LAP-001\", \"price\": \"299.99 TL\", " +
-                    "\"stockQuantity\": 5, \"active\": true, \"categoryId\": 1, \"categoryName\": \"Elektronik\"}" +
-                    "]}";
-            mockChatClientChain(modelResponse);
+        @DisplayName("Should look up ids the search tool did not return and drop unknown ones")
+        void chat_WhenModelPicksOtherIds_ShouldHydrateFromProductService() {
+            ProductResponse laptop = ProductResponse.builder().id(3L).name("Laptop").build();
+            when(productService.getByIds(List.of(3L, 404L))).thenReturn(List.of(laptop));
+            mockChatClientChain("{\"answer\": \"Önerim\", \"productIds\": [3, 7, 404, 3]}", true);
 
             AssistantResponse response = assistantService.chat("laptop öner");
 
-            assertThat(response.recommendedProducts()).hasSize(1);
-            assertThat(response.recommendedProducts().get(0).getPrice()).isEqualByComparingTo("299.99");
+            assertThat(response.recommendedProducts()).containsExactly(laptop, HEADSET);
         }
 
         @Test
         @DisplayName("Should sanitize escaped single quotes in JSON")
         void chat_WhenJsonContainsEscapedSingleQuotes_ShouldSanitizeAndParse() {
-            mockChatClientChain("{\"answer\": \"Kullanıcı\\'nın önerisi\", \"recommendedProducts\": []}");
+            mockChatClientChain("{\"answer\": \"Kullanıcı\\'nın önerisi\", \"productIds\": []}");
 
             AssistantResponse response = assistantService.chat("öner");
 
             assertThat(response.answer()).isEqualTo("Kullanıcı'nın önerisi");
         }
+
+        @Test
+        @DisplayName("Should parse a multi-line answer wrapped in a markdown fence")
+        void chat_WhenFencedJsonHasRawNewlines_ShouldParse() {
+            mockChatClientChain("İşte önerilerim:\n```json\n{\"answer\": \"Birinci satır\nİkinci satır\", " +
+                    "\"productIds\": []}\n```");
+
+            AssistantResponse response = assistantService.chat("öner");
+
+            assertThat(response.answer()).isEqualTo("Birinci satır\nİkinci satır");
+        }
     }
 
     @Nested
@@ -151,7 +246,7 @@ class AiShoppingAssistantServiceTest {
         @Test
         @DisplayName("Should publish N8n event on chat")
         void chat_ShouldPublishN8nEvent() {
-            mockChatClientChain("{\"answer\": \"Önerim\", \"recommendedProducts\": []}");
+            mockChatClientChain("{\"answer\": \"Önerim\", \"productIds\": []}");
 
             assistantService.chat("laptop öner", 1L, "test@test.com", "web");
 
@@ -164,7 +259,7 @@ class AiShoppingAssistantServiceTest {
         @Test
         @DisplayName("Should still return response when N8n publisher fails")
         void chat_WhenN8nPublisherFails_ShouldStillReturnResponse() {
-            mockChatClientChain("{\"answer\": \"Önerim\", \"recommendedProducts\": []}");
+            mockChatClientChain("{\"answer\": \"Önerim\", \"productIds\": []}");
             doThrow(new RuntimeException("n8n down")).when(n8nEventPublisher)
                     .publishConversationCompletedEvent(any(), any(), any(), any(), any(), any());
 
@@ -175,116 +270,308 @@ class AiShoppingAssistantServiceTest {
     }
 
     @Nested
-    @DisplayName("Source parameter handling")
-    class SourceParameterTests {
+    @DisplayName("Response caching")
+    class ResponseCachingTests {
 
         @Test
-        @DisplayName("Should default source to ecommerce_chat when null")
-        void chat_WhenSourceIsNull_ShouldDefaultToEcommerceChat() {
-            mockChatClientChain("{\"answer\": \"Önerim\", \"recommendedProducts\": []}");
+        @DisplayName("Should answer a repeated question without calling the model")
+        void chat_WhenSameQuestionAskedTwice_ShouldCallModelOnce() {
+            mockChatClientChain("{\"answer\": \"Önerim\", \"productIds\": []}");
 
-            assistantService.chat("laptop öner", 1L, "test@test.com", null);
+            assistantService.chat("Ucuz oyuncu kulaklığı");
+            AssistantResponse second = assistantService.chat("  ucuz OYUNCU kulaklığı?! ");
 
-            verify(n8nEventPublisher).publishConversationCompletedEvent(
-                    eq(1L), eq("test@test.com"), eq("laptop öner"),
-                    eq("Önerim"), anyList(), eq("ecommerce_chat")
-            );
+            assertThat(second.answer()).isEqualTo("Önerim");
+            verify(chatClient, times(1)).prompt();
         }
 
         @Test
-        @DisplayName("Should default source to ecommerce_chat when blank")
-        void chat_WhenSourceIsBlank_ShouldDefaultToEcommerceChat() {
-            mockChatClientChain("{\"answer\": \"Önerim\", \"recommendedProducts\": []}");
+        @DisplayName("Should still publish the n8n event on a cache hit")
+        void chat_WhenCacheHit_ShouldStillPublishN8nEvent() {
+            mockChatClientChain("{\"answer\": \"Önerim\", \"productIds\": []}");
 
-            assistantService.chat("laptop öner", 1L, "test@test.com", "   ");
+            assistantService.chat("laptop öner", 1L, "a@test.com", "web");
+            assistantService.chat("laptop öner", 2L, "b@test.com", "web");
 
             verify(n8nEventPublisher).publishConversationCompletedEvent(
-                    eq(1L), eq("test@test.com"), eq("laptop öner"),
-                    eq("Önerim"), anyList(), eq("ecommerce_chat")
+                    eq(2L), eq("b@test.com"), eq("laptop öner"),
+                    eq("Önerim"), anyList(), eq("web")
             );
         }
 
         @Test
-        @DisplayName("Should delegate single param overload with defaults")
-        void chat_SingleParamOverload_ShouldDelegateWithDefaults() {
-            mockChatClientChain("{\"answer\": \"Önerim\", \"recommendedProducts\": []}");
+        @DisplayName("Should not cache the fallback answer")
+        void chat_WhenModelFails_ShouldNotCacheFallback() {
+            mockChatClientChainThrowsException(new RuntimeException("Model error"));
 
             assistantService.chat("laptop öner");
+            assistantService.chat("laptop öner");
+
+            verify(chatClient, times(2)).prompt();
+        }
+
+        @Test
+        @DisplayName("Should not answer /chat with a streamed answer's tool results")
+        void chat_WhenOnlyStreamCached_ShouldCallModel() {
+            mockStreamingChain(Flux.just("Önerim"), true);
+            assistantService.chatStream("laptop öner", null, null, null).blockLast();
+            mockChatClientChain("{\"answer\": \"Önerim\", \"productIds\": []}");
 
+            AssistantResponse response = assistantService.chat("laptop öner");
+
+            assertThat(response.recommendedProducts()).isEmpty();
+            verify(chatClient, times(2)).prompt();
+        }
+
+        @Test
+        @DisplayName("Should call the model again after a catalog change")
+        void chat_AfterCatalogChange_ShouldCallModelAgain() {
+            mockChatClientChain("{\"answer\": \"Önerim\", \"productIds\": []}");
+
+            assistantService.chat("laptop öner");
+            responseCache.onCatalogChanged(CatalogChangedEvent.product(1L));
+            assistantService.chat("laptop öner");
+
+            verify(chatClient, times(2)).prompt();
+        }
+    }
+
+    @Nested
+    @DisplayName("Streaming responses")
+    class StreamingTests {
+
+        @Test
+        @DisplayName("Should emit tokens, then tool-result products, then done")
+        void chatStream_ShouldEmitTokensThenProductsThenDone() {
+            mockStreamingChain(Flux.just("İşte ", "önerim"), true);
+
+            List<ServerSentEvent<Object>> events = assistantService
+                    .chatStream("oyuncu kulaklığı", 1L, "test@test.com", "web")
+                    .collectList()
+                    .block();
+
+            assertThat(events).extracting(ServerSentEvent::event)
+                    .containsExactly("token", "token", "products", "done");
+            assertThat(events.get(0).data()).isEqualTo(Map.of("text", "İşte "));
+            assertThat(events.get(2).data()).isEqualTo(List.of(HEADSET));
             verify(n8nEventPublisher).publishConversationCompletedEvent(
-                    isNull(), isNull(), eq("laptop öner"),
-                    eq("Önerim"), anyList(), eq("ecommerce_chat")
+                    eq(1L), eq("test@test.com"), eq("oyuncu kulaklığı"),
+                    eq("İşte önerim"), eq(List.of(HEADSET)), eq("web")
             );
         }
+
+        @Test
+        @DisplayName("Should publish the completed conversation off the thread that completes the model stream")
+        void chatStream_ShouldPublishOffModelStreamThread() {
+            Scheduler modelThread = Schedulers.newSingle("model-stream");
+            try {
+                mockStreamingChain(Flux.just("Önerim").publishOn(modelThread), false);
+                AtomicReference<String> publishThread = new AtomicReference<>();
+                doAnswer(invocation -> {
+                    publishThread.set(Thread.currentThread().getName());
+                    return null;
+                }).when(n8nEventPublisher).publishConversationCompletedEvent(any(), any(), any(), any(), any(), any());
+
+                assistantService.chatStream("laptop öner", 1L, "test@test.com", "web").blockLast();
+
+                assertThat(publishThread.get()).isNotNull().doesNotStartWith("model-stream");
+            } finally {
+                modelThread.dispose();
+            }
+        }
+
+        @Test
+        @DisplayName("Should emit an empty products event when the tool was not called")
+        void chatStream_WhenToolNotCalled_ShouldEmitEmptyProducts() {
+            mockStreamingChain(Flux.just("Merhaba"), false);
+
+            List<ServerSentEvent<Object>> events = assistantService.chatStream("merhaba", null, null, null)
+                    .collectList()
+                    .block();
+
+            assertThat(events.get(1).event()).isEqualTo("products");
+            assertThat(events.get(1).data()).isEqualTo(List.of());
+        }
+
+        @Test
+        @DisplayName("Should end with an error event when the model fails")
+        void chatStream_WhenModelFails_ShouldEmitErrorEvent() {
+            mockStreamingChain(Flux.error(new RuntimeException("Model error")), false);
+
+            List<ServerSentEvent<Object>> events = assistantService.chatStream("laptop öner", null, null, null)
+                    .collectList()
+                    .block();
+
+            assertThat(events).extracting(ServerSentEvent::event).containsExactly("error", "done");
+            verifyNoInteractions(n8nEventPublisher);
+        }
+
+        @Test
+        @DisplayName("Should replay a cached answer without calling the model")
+        void chatStream_WhenCached_ShouldNotCallModel() {
+            mockStreamingChain(Flux.just("Önerim"), true);
+            assistantService.chatStream("laptop öner", null, null, null).blockLast();
+
+            List<ServerSentEvent<Object>> events = assistantService.chatStream("Laptop öner!", null, null, null)
+                    .collectList()
+                    .block();
+
+            assertThat(events).extracting(ServerSentEvent::event).containsExactly("token", "products", "done");
+            assertThat(events.get(1).data()).isEqualTo(List.of(HEADSET));
+            verify(chatClient, times(1)).prompt();
+        }
     }
 
     @Nested
-    @DisplayName("sanitizeJsonLikeString helper")
-    class SanitizeHelperTests {
+    @DisplayName("Concurrency limiting")
+    class ConcurrencyLimitTests {
 
         @Test
-        @DisplayName("Should return empty JSON for null input")
-        void sanitizeJsonLikeString_WhenNull_ShouldReturnEmptyJson() throws Exception {
-            assertThat(invokeSanitize(null)).isEqualTo("{}");
+        @DisplayName("Should reject without calling the model when every slot is taken")
+        void chat_WhenSaturated_ShouldThrowOverloaded() {
+            AssistantConcurrencyLimiter.Permit held = concurrencyLimiter.acquire();
+
+            assertThatThrownBy(() -> assistantService.chat("laptop öner", 1L, "test@test.com", "web"))
+                    .isInstanceOf(ServiceOverloadedException.class);
+            assertThatThrownBy(() -> assistantService.chatStream("laptop öner", 1L, "test@test.com", "web"))
+                    .isInstanceOf(ServiceOverloadedException.class);
+
+            verifyNoInteractions(chatClient, n8nEventPublisher);
+            held.onIgnore();
         }
 
         @Test
-        @DisplayName("Should wrap as JSON answer when no braces found")
-        void sanitizeJsonLikeString_WhenNoBraces_ShouldWrapAsJsonAnswer() throws Exception {
-            assertThat(invokeSanitize("no json here"))
-                    .isEqualTo("{\"answer\":\"no json here\",\"recommendedProducts\":[]}");
+        @DisplayName("Should still serve cached answers when saturated")
+        void chat_WhenSaturatedButCached_ShouldAnswer() {
+            mockChatClientChain("{\"answer\": \"Önerim\", \"productIds\": []}");
+            assistantService.chat("laptop öner");
+            AssistantConcurrencyLimiter.Permit held = concurrencyLimiter.acquire();
+
+            assertThat(assistantService.chat("laptop öner").answer()).isEqualTo("Önerim");
+            held.onIgnore();
         }
 
         @Test
-        @DisplayName("Should handle empty string input")
-        void sanitizeJsonLikeString_WhenEmpty_ShouldWrapAsJsonAnswer() throws Exception {
-            String result = invokeSanitize("");
-            assertThat(result).contains("answer");
+        @DisplayName("Should free the slot when the model fails")
+        void chat_WhenModelFails_ShouldReleaseSlot() {
+            mockChatClientChainThrowsException(new RuntimeException("Model error"));
+
+            assistantService.chat("laptop öner");
+
+            assertThat(concurrencyLimiter.getInFlight()).isZero();
         }
 
         @Test
-        @DisplayName("Should escape quotes in non-JSON response")
-        void sanitizeJsonLikeString_WhenContainsQuotes_ShouldEscapeQuotes() throws Exception {
-            String result = invokeSanitize("this has \"quotes\" in it");
-            assertThat(result).contains("\\\"quotes\\\"");
+        @DisplayName("Should hold the slot until the stream finishes")
+        void chatStream_ShouldReleaseSlotOnCompletion() {
+            mockStreamingChain(Flux.just("Önerim"), false);
+
+            Flux<ServerSentEvent<Object>> stream = assistantService.chatStream("laptop öner", null, null, null);
+            assertThat(concurrencyLimiter.getInFlight()).isEqualTo(1);
+
+            stream.blockLast();
+            assertThat(concurrencyLimiter.getInFlight()).isZero();
         }
+    }
+
+    @Nested
+    @DisplayName("Model warm-up")
+    class WarmUpTests {
 
         @Test
-        @DisplayName("Should handle backslash in non-JSON response")
-        void sanitizeJsonLikeString_WhenContainsBackslash_ShouldEscape() throws Exception {
-            String result = invokeSanitize("path\\to\\file");
-            assertThat(result).contains("answer");
+        @DisplayName("Should send the reply and streaming system prompts with the search tool for a single token")
+        void warmUp_ShouldPrimeBothSystemPrompts() {
+            ChatClient.ChatClientRequestSpec requestSpec = mock(ChatClient.ChatClientRequestSpec.class);
+            ChatClient.CallResponseSpec callResponseSpec = mock(ChatClient.CallResponseSpec.class);
+            when(chatClient.prompt()).thenReturn(requestSpec);
+            when(requestSpec.system(anyString())).thenReturn(requestSpec);
+            when(requestSpec.user(anyString())).thenReturn(requestSpec);
+            when(requestSpec.functions(any(FunctionCallback.class))).thenReturn(requestSpec);
+            when(requestSpec.options(any(OllamaOptions.class))).thenReturn(requestSpec);
+            when(requestSpec.call()).thenReturn(callResponseSpec);
+
+            assistantService.warmUp();
+
+            verify(chatClient, times(2)).prompt();
+            verify(requestSpec).system(contains("düz Türkçe metin"));
+            verify(requestSpec, times(2)).functions(argThat((FunctionCallback callback) ->
+                    callback.getName().equals("productSearchFunction")));
+            verify(requestSpec, times(2)).options(argThat((OllamaOptions options) -> options.getNumPredict() == 1));
+            verify(callResponseSpec, times(2)).content();
+            verifyNoInteractions(productService);
         }
+    }
+
+    @Nested
+    @DisplayName("Source parameter handling")
+    class SourceParameterTests {
 
         @Test
-        @DisplayName("Should remove invalid escape sequences from JSON")
-        void sanitizeJsonLikeString_WhenInvalidEscapeInJson_ShouldClean() throws Exception {
-            String result = invokeSanitize("{\"answer\": \"test\\x value\"}");
-            assertThat(result).contains("testx value");
+        @DisplayName("Should default source to ecommerce_chat when null")
+        void chat_WhenSourceIsNull_ShouldDefaultToEcommerceChat() {
+            mockChatClientChain("{\"answer\": \"Önerim\", \"productIds\": []}");
+
+            assistantService.chat("laptop öner", 1L, "test@test.com", null);
+
+            verify(n8nEventPublisher).publishConversationCompletedEvent(
+                    eq(1L), eq("test@test.com"), eq("laptop öner"),
+                    eq("Önerim"), anyList(), eq("ecommerce_chat")
+            );
         }
 
         @Test
-        @DisplayName("Should remove TL from price")
-        void sanitizeJsonLikeString_WhenPriceWithTL_ShouldRemoveTL() throws Exception {
-            assertThat(invokeSanitize("{\"price\": \"500 TL\"}")).isEqualTo("{\"price\": \"500\"}");
+        @DisplayName("Should default source to ecommerce_chat when blank")
+        void chat_WhenSourceIsBlank_ShouldDefaultToEcommerceChat() {
+            mockChatClientChain("{\"answer\": \"Önerim\", \"productIds\": []}");
+
+            assistantService.chat("laptop öner", 1L, "test@test.com", "   ");
+
+            verify(n8nEventPublisher).publishConversationCompletedEvent(
+                    eq(1L), eq("test@test.com"), eq("laptop öner"),
+                    eq("Önerim"), anyList(), eq("ecommerce_chat")
+            );
         }
 
         @Test
-        @DisplayName("Should remove TL from decimal price")
-        void sanitizeJsonLikeString_WhenPriceWithDecimalTL_ShouldRemoveTL() throws Exception {
-            assertThat(invokeSanitize("{\"price\": \"199.99 TL\"}")).isEqualTo("{\"price\": \"199.99\"}");
+        @DisplayName("Should delegate single param overload with defaults")
+        void chat_SingleParamOverload_ShouldDelegateWithDefaults() {
+            mockChatClientChain("{\"answer\": \"Önerim\", \"productIds\": []}");
+
+            assistantService.chat("laptop öner");
+
+            verify(n8nEventPublisher).publishConversationCompletedEvent(
+                    isNull(), isNull(), eq("laptop öner"),
+                    eq("Önerim"), anyList(), eq("ecommerce_chat")
+            );
         }
     }
 
     private void mockChatClientChain(String modelResponse) {
+        mockChatClientChain(chatClient, modelResponse, false);
+    }
+
+    private void mockChatClientChain(String modelResponse, boolean callTool) {
+        mockChatClientChain(chatClient, modelResponse, callTool);
+    }
+
+    private void mockChatClientChain(ChatClient client, String modelResponse, boolean callTool) {
         ChatClient.ChatClientRequestSpec requestSpec = mock(ChatClient.ChatClientRequestSpec.class);
         ChatClient.CallResponseSpec callResponseSpec = mock(ChatClient.CallResponseSpec.class);
+        FunctionCallback[] registered = new FunctionCallback[1];
 
-        when(chatClient.prompt()).thenReturn(requestSpec);
+        when(client.prompt()).thenReturn(requestSpec);
         when(requestSpec.user(anyString())).thenReturn(requestSpec);
-        when(requestSpec.functions(any(String[].class))).thenReturn(requestSpec);
+        when(requestSpec.functions(any(FunctionCallback.class))).thenAnswer(invocation -> {
+            registered[0] = invocation.getArgument(0);
+            return requestSpec;
+        });
         when(requestSpec.call()).thenReturn(callResponseSpec);
-        when(callResponseSpec.content()).thenReturn(modelResponse);
+        when(callResponseSpec.content()).thenAnswer(invocation -> {
+            if (callTool) {
+                toolOutput = registered[0].call("{\"keyword\": \"kulaklık\"}");
+            }
+            return modelResponse;
+        });
     }
 
     private void mockChatClientChainThrowsException(RuntimeException exception) {
@@ -293,14 +580,29 @@ class AiShoppingAssistantServiceTest {
 
         when(chatClient.prompt()).thenReturn(requestSpec);
         when(requestSpec.user(anyString())).thenReturn(requestSpec);
-        when(requestSpec.functions(any(String[].class))).thenReturn(requestSpec);
+        when(requestSpec.functions(any(FunctionCallback.class))).thenReturn(requestSpec);
         when(requestSpec.call()).thenReturn(callResponseSpec);
         when(callResponseSpec.content()).thenThrow(exception);
     }
 
-    private String invokeSanitize(String input) throws Exception {
-        Method method = AiShoppingAssistantService.class.getDeclaredMethod("sanitizeJsonLikeString", String.class);
-        method.setAccessible(true);
-        return (String) method.invoke(assistantService, input);
+    private void mockStreamingChain(Flux<String> tokens, boolean callTool) {
+        ChatClient.ChatClientRequestSpec requestSpec = mock(ChatClient.ChatClientRequestSpec.class);
+        ChatClient.StreamResponseSpec streamResponseSpec = mock(ChatClient.StreamResponseSpec.class);
+        FunctionCallback[] registered = new FunctionCallback[1];
+
+        when(chatClient.prompt()).thenReturn(requestSpec);
+        when(requestSpec.system(anyString())).thenReturn(requestSpec);
+        when(requestSpec.user(anyString())).thenReturn(requestSpec);
+        when(requestSpec.functions(any(FunctionCallback.class))).thenAnswer(invocation -> {
+            registered[0] = invocation.getArgument(0);
+            return requestSpec;
+        });
+        when(requestSpec.stream()).thenReturn(streamResponseSpec);
+        when(streamResponseSpec.content()).thenReturn(Flux.defer(() -> {
+            if (callTool) {
+                toolOutput = registered[0].call("{\"keyword\": \"kulaklık\"}");
+            }
+            return tokens;
+        }));
     }
 }
@@ -0,0 +1,221 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("AssistantConcurrencyLimiter Tests")
+class AssistantConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Nested
+    @DisplayName("Bulkhead against a slow stub model")
+    class BulkheadTests {
+
+        @Test
+        @DisplayName("Should never run more model calls than the limit")
+        void acquire_ShouldBoundConcurrentCalls() throws Exception {
+            AssistantConcurrencyLimiter limiter = limiter(2, 1, 2, 100, Duration.ofSeconds(5), Duration.ofSeconds(5));
+            StubModel model = new StubModel(50);
+
+            List<Result> results = runConcurrently(10, () -> model.call(limiter));
+
+            assertThat(results).allMatch(r -> r == Result.ANSWERED);
+            assertThat(model.maxConcurrent.get()).isEqualTo(2);
+            assertThat(limiter.getInFlight()).isZero();
+            assertThat(meterRegistry.get("assistant.limiter.queue.wait").timer().count()).isEqualTo(10);
+        }
+
+        @Test
+        @DisplayName("Should reject immediately once the wait queue is full")
+        void acquire_WhenQueueFull_ShouldReject() throws Exception {
+            AssistantConcurrencyLimiter limiter = limiter(1, 1, 1, 1, Duration.ofSeconds(5), Duration.ofSeconds(5));
+            StubModel model = new StubModel(300);
+
+            List<Result> results = runConcurrently(4, () -> model.call(limiter));
+
+            assertThat(results).filteredOn(r -> r == Result.ANSWERED).hasSize(2);
+            assertThat(results).filteredOn(r -> r == Result.REJECTED).hasSize(2);
+            assertThat(meterRegistry.get("assistant.limiter.rejected").counter().count()).isEqualTo(2.0);
+        }
+
+        @Test
+        @DisplayName("Should give up after the maximum wait")
+        void acquire_WhenNoSlotFreesUp_ShouldTimeOut() {
+            AssistantConcurrencyLimiter limiter = limiter(1, 1, 1, 10, Duration.ofMillis(50), Duration.ofSeconds(5));
+            AssistantConcurrencyLimiter.Permit held = limiter.acquire();
+
+            long start = System.nanoTime();
+            assertThatThrownBy(limiter::acquire)
+                    .isInstanceOf(ServiceOverloadedException.class)
+                    .hasMessageContaining("50 ms")
+                    .extracting("retryAfter").isEqualTo(Duration.ofMillis(50));
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+            assertThat(limiter.getQueued()).isZero();
+
+            held.onSuccess();
+            limiter.acquire().onSuccess();
+        }
+
+        @Test
+        @DisplayName("Should pass everything through when disabled")
+        void acquire_WhenDisabled_ShouldNotTrack() {
+            AssistantConcurrencyLimiter limiter = new AssistantConcurrencyLimiter(false, 1, 1, 1, 0,
+                    Duration.ZERO, Duration.ofSeconds(5), 0.7, meterRegistry);
+
+            limiter.acquire();
+            limiter.acquire().onDropped();
+
+            assertThat(limiter.getInFlight()).isZero();
+            assertThat(limiter.getLimit()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("AIMD limit")
+    class AimdTests {
+
+        @Test
+        @DisplayName("Should grow by roughly one per limit's worth of fast, saturated calls")
+        void onSuccess_WhenFastAndSaturated_ShouldIncreaseLimit() {
+            AssistantConcurrencyLimiter limiter = limiter(1, 1, 4, 0, Duration.ZERO, Duration.ofSeconds(5));
+
+            limiter.acquire().onSuccess();
+            assertThat(limiter.getLimit()).isEqualTo(2);
+
+            // Two calls at a time: each round adds 1/limit, so the limit reaches 3 after three rounds
+            for (int round = 0; round < 3; round++) {
+                AssistantConcurrencyLimiter.Permit first = limiter.acquire();
+                AssistantConcurrencyLimiter.Permit second = limiter.acquire();
+                first.onSuccess();
+                second.onSuccess();
+            }
+            assertThat(limiter.getLimit()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should not grow while the limit is mostly unused")
+        void onSuccess_WhenNotSaturated_ShouldKeepLimit() {
+            AssistantConcurrencyLimiter limiter = limiter(6, 1, 8, 0, Duration.ZERO, Duration.ofSeconds(5));
+
+            for (int i = 0; i < 20; i++) {
+                limiter.acquire().onSuccess();
+            }
+
+            assertThat(limiter.getLimit()).isEqualTo(6);
+        }
+
+        @Test
+        @DisplayName("Should back off multiplicatively on failures down to the minimum")
+        void onDropped_ShouldDecreaseLimit() {
+            AssistantConcurrencyLimiter limiter = limiter(8, 2, 8, 0, Duration.ZERO, Duration.ofSeconds(5));
+
+            limiter.acquire().onDropped();
+            assertThat(limiter.getLimit()).isEqualTo(5);
+
+            for (int i = 0; i < 10; i++) {
+                limiter.acquire().onDropped();
+            }
+            assertThat(limiter.getLimit()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should treat answers slower than the threshold as overload")
+        void onSuccess_WhenSlow_ShouldDecreaseLimit() {
+            AssistantConcurrencyLimiter limiter = limiter(4, 1, 8, 0, Duration.ZERO, Duration.ZERO);
+
+            limiter.acquire().onSuccess();
+
+            assertThat(limiter.getLimit()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should leave the limit alone for ignored calls and count each permit once")
+        void onIgnore_ShouldOnlyReleaseTheSlot() {
+            AssistantConcurrencyLimiter limiter = limiter(4, 1, 8, 0, Duration.ZERO, Duration.ofSeconds(5));
+            AssistantConcurrencyLimiter.Permit permit = limiter.acquire();
+
+            permit.onIgnore();
+            permit.onDropped();
+
+            assertThat(limiter.getLimit()).isEqualTo(4);
+            assertThat(limiter.getInFlight()).isZero();
+        }
+    }
+
+    private AssistantConcurrencyLimiter limiter(int initial, int min, int max, int maxQueue,
+                                                Duration maxWait, Duration latencyThreshold) {
+        return new AssistantConcurrencyLimiter(true, initial, min, max, maxQueue, maxWait, latencyThreshold, 0.7,
+                meterRegistry);
+    }
+
+    private List<Result> runConcurrently(int callers, java.util.concurrent.Callable<Result> call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Result>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return call.call();
+                }));
+            }
+            start.countDown();
+            List<Result> results = new ArrayList<>();
+            for (Future<Result> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private enum Result { ANSWERED, REJECTED }
+
+    /**
+     * Stands in for Ollama: every call takes a fixed time, and the highest number of overlapping calls is recorded.
+     */
+    private static final class StubModel {
+
+        private final long latencyMillis;
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        private StubModel(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        Result call(AssistantConcurrencyLimiter limiter) throws InterruptedException {
+            AssistantConcurrencyLimiter.Permit permit;
+            try {
+                permit = limiter.acquire();
+            } catch (ServiceOverloadedException ex) {
+                return Result.REJECTED;
+            }
+            try {
+                maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                Thread.sleep(latencyMillis);
+                return Result.ANSWERED;
+            } finally {
+                concurrent.decrementAndGet();
+                permit.onIgnore();
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.dto.AssistantResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.example.springecommerceapi.service.AssistantResponseCache.Mode.REPLY;
+import static com.example.springecommerceapi.service.AssistantResponseCache.Mode.STREAM;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AssistantResponseCache Tests")
+class AssistantResponseCacheTest {
+
+    private static final AssistantResponse ANSWER = new AssistantResponse("Önerim", List.of());
+
+    @Mock
+    private ObjectProvider<EmbeddingModel> embeddingModelProvider;
+
+    @Mock
+    private EmbeddingModel embeddingModel;
+
+    private AssistantResponseCache exactCache() {
+        return new AssistantResponseCache(true, Duration.ofMinutes(10), 100, false, 0.92,
+                embeddingModelProvider, new SimpleMeterRegistry());
+    }
+
+    private AssistantResponseCache semanticCache(double threshold) {
+        when(embeddingModelProvider.getIfAvailable()).thenReturn(embeddingModel);
+        return new AssistantResponseCache(true, Duration.ofMinutes(10), 100, true, threshold,
+                embeddingModelProvider, new SimpleMeterRegistry());
+    }
+
+    @Nested
+    @DisplayName("Exact matching")
+    class ExactMatchTests {
+
+        @Test
+        @DisplayName("Should normalize case with Turkish rules and collapse punctuation")
+        void normalize_ShouldFoldCaseAndPunctuation() {
+            assertThat(AssistantResponseCache.normalize("  UCUZ   Oyuncu, KULAKLIĞI?! "))
+                    .isEqualTo("ucuz oyuncu kulaklığı");
+            assertThat(AssistantResponseCache.normalize("İPHONE")).isEqualTo("iphone");
+        }
+
+        @Test
+        @DisplayName("Should hit for differently formatted versions of the same question")
+        void lookup_WhenNormalizedTextMatches_ShouldHit() {
+            AssistantResponseCache cache = exactCache();
+            cache.store(cache.lookup("ucuz oyuncu kulaklığı", REPLY), ANSWER);
+
+            assertThat(cache.lookup("Ucuz oyuncu kulaklığı!", REPLY).hit()).isSameAs(ANSWER);
+            assertThat(cache.lookup("pahalı oyuncu kulaklığı", REPLY).hit()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should not serve an answer cached by one endpoint to the other")
+        void lookup_WhenOtherMode_ShouldMiss() {
+            AssistantResponseCache cache = exactCache();
+            cache.store(cache.lookup("laptop", REPLY), ANSWER);
+
+            assertThat(cache.lookup("laptop", STREAM).hit()).isNull();
+            assertThat(cache.lookup("laptop", REPLY).hit()).isSameAs(ANSWER);
+        }
+
+        @Test
+        @DisplayName("Should never cache blank messages")
+        void lookup_WhenBlank_ShouldNotStore() {
+            AssistantResponseCache cache = exactCache();
+            cache.store(cache.lookup(" ?! ", REPLY), ANSWER);
+
+            assertThat(cache.lookup(" ?! ", REPLY).hit()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should miss everything when disabled")
+        void lookup_WhenDisabled_ShouldMiss() {
+            AssistantResponseCache cache = new AssistantResponseCache(false, Duration.ofMinutes(10), 100, false,
+                    0.92, embeddingModelProvider, new SimpleMeterRegistry());
+            cache.store(cache.lookup("laptop", REPLY), ANSWER);
+
+            assertThat(cache.lookup("laptop", REPLY).hit()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should drop entries when the catalog changes")
+        void onCatalogChanged_ShouldInvalidateAll() {
+            AssistantResponseCache cache = exactCache();
+            cache.store(cache.lookup("laptop", REPLY), ANSWER);
+
+            cache.onCatalogChanged(CatalogChangedEvent.category(3L));
+
+            assertThat(cache.lookup("laptop", REPLY).hit()).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Semantic matching")
+    class SemanticMatchTests {
+
+        @Test
+        @DisplayName("Should hit for a similar question above the threshold")
+        void lookup_WhenSimilarAboveThreshold_ShouldHit() {
+            AssistantResponseCache cache = semanticCache(0.9);
+            when(embeddingModel.embed("ucuz oyuncu kulaklığı")).thenReturn(new float[]{1f, 0f, 0f});
+            when(embeddingModel.embed("uygun fiyatlı oyuncu kulaklığı")).thenReturn(new float[]{0.95f, 0.1f, 0f});
+
+            cache.store(cache.lookup("ucuz oyuncu kulaklığı", REPLY), ANSWER);
+
+            assertThat(cache.lookup("uygun fiyatlı oyuncu kulaklığı", REPLY).hit()).isSameAs(ANSWER);
+        }
+
+        @Test
+        @DisplayName("Should miss for a question below the threshold")
+        void lookup_WhenBelowThreshold_ShouldMiss() {
+            AssistantResponseCache cache = semanticCache(0.9);
+            when(embeddingModel.embed("ucuz oyuncu kulaklığı")).thenReturn(new float[]{1f, 0f, 0f});
+            when(embeddingModel.embed("kablosuz klavye")).thenReturn(new float[]{0f, 1f, 0f});
+
+            cache.store(cache.lookup("ucuz oyuncu kulaklığı", REPLY), ANSWER);
+
+            assertThat(cache.lookup("kablosuz klavye", REPLY).hit()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should only compare against questions cached for the same endpoint")
+        void lookup_WhenSimilarInOtherMode_ShouldMiss() {
+            AssistantResponseCache cache = semanticCache(0.9);
+            when(embeddingModel.embed("ucuz oyuncu kulaklığı")).thenReturn(new float[]{1f, 0f, 0f});
+
+            cache.store(cache.lookup("ucuz oyuncu kulaklığı", STREAM), ANSWER);
+
+            assertThat(cache.lookup("ucuz oyuncu kulaklığı", REPLY).hit()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should skip the embedding call on an exact hit")
+        void lookup_WhenExactHit_ShouldNotEmbed() {
+            AssistantResponseCache cache = semanticCache(0.9);
+            when(embeddingModel.embed("laptop")).thenReturn(new float[]{1f, 0f});
+            cache.store(cache.lookup("laptop", REPLY), ANSWER);
+
+            cache.lookup("Laptop", REPLY);
+
+            verify(embeddingModel, times(1)).embed(anyString());
+        }
+
+        @Test
+        @DisplayName("Should treat embedding failures as a miss")
+        void lookup_WhenEmbeddingFails_ShouldMiss() {
+            AssistantResponseCache cache = semanticCache(0.9);
+            when(embeddingModel.embed(anyString())).thenThrow(new RuntimeException("model not pulled"));
+
+            assertThat(cache.lookup("laptop", REPLY).hit()).isNull();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.config.CacheConfig;
+import com.example.springecommerceapi.domain.Product;
+import com.example.springecommerceapi.dto.CategoryRequest;
+import com.example.springecommerceapi.dto.ProductResponse;
+import com.example.springecommerceapi.exception.BusinessException;
+import com.example.springecommerceapi.repository.CategoryClosureRepository;
+import com.example.springecommerceapi.repository.CategoryRepository;
+import com.example.springecommerceapi.repository.ProductRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({CacheConfig.class, CategoryService.class, CategoryTreeCache.class, ProductService.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "catalog.search.full-text-enabled=false"
+})
+@DisplayName("Category closure table Tests")
+class CategoryClosureTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryClosureRepository categoryClosureRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    @DisplayName("Creating categories should link them to every ancestor")
+    void create_ShouldInsertAncestorLinks() {
+        Long electronics = create("Electronics", null);
+        Long audio = create("Audio", electronics);
+        Long headphones = create("Headphones", audio);
+
+        assertThat(closureRows()).containsExactlyInAnyOrder(
+                row(electronics, electronics, 0), row(audio, audio, 0), row(headphones, headphones, 0),
+                row(electronics, audio, 1), row(audio, headphones, 1), row(electronics, headphones, 2));
+    }
+
+    @Test
+    @DisplayName("Moving a category should move its whole subtree")
+    void update_WhenParentChanges_ShouldMoveSubtree() {
+        Long electronics = create("Electronics", null);
+        Long audio = create("Audio", electronics);
+        Long headphones = create("Headphones", audio);
+        Long gaming = create("Gaming", null);
+
+        move(audio, gaming);
+
+        assertThat(closureRows()).containsExactlyInAnyOrderElementsOf(expectedRows());
+        assertThat(categoryClosureRepository.existsByAncestorIdAndDescendantId(gaming, headphones)).isTrue();
+        assertThat(categoryClosureRepository.existsByAncestorIdAndDescendantId(electronics, headphones)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Random moves should keep the closure equal to the adjacency list")
+    void update_WhenMovedRepeatedly_ShouldStayConsistent() {
+        Random random = new Random(17);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            ids.add(create("c" + i, ids.isEmpty() || random.nextInt(5) == 0 ? null : ids.get(random.nextInt(ids.size()))));
+        }
+
+        for (int i = 0; i < 150; i++) {
+            Long id = ids.get(random.nextInt(ids.size()));
+            Long parentId = random.nextInt(6) == 0 ? null : ids.get(random.nextInt(ids.size()));
+            try {
+                move(id, parentId);
+            } catch (BusinessException cycle) {
+                assertThat(categoryClosureRepository.existsByAncestorIdAndDescendantId(id, parentId)).isTrue();
+            }
+        }
+
+        assertThat(closureRows()).containsExactlyInAnyOrderElementsOf(expectedRows());
+    }
+
+    @Test
+    @DisplayName("Moving a category under its own subtree should be rejected")
+    void update_WhenMovedUnderDescendant_ShouldThrow() {
+        Long electronics = create("Electronics", null);
+        Long audio = create("Audio", electronics);
+
+        assertThatThrownBy(() -> move(electronics, audio)).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> move(electronics, electronics)).isInstanceOf(BusinessException.class);
+        assertThat(closureRows()).containsExactlyInAnyOrderElementsOf(expectedRows());
+    }
+
+    @Test
+    @DisplayName("Deleting a leaf should remove its links")
+    void delete_ShouldRemoveLinks() {
+        Long electronics = create("Electronics", null);
+        Long audio = create("Audio", electronics);
+
+        categoryService.delete(audio);
+
+        assertThat(closureRows()).containsExactly(row(electronics, electronics, 0));
+    }
+
+    @Test
+    @DisplayName("Subtree search should follow moves")
+    void searchProducts_InSubtree_ShouldFollowMoves() {
+        Long electronics = create("Electronics", null);
+        Long audio = create("Audio", electronics);
+        Long headphones = create("Headphones", audio);
+        Long gaming = create("Gaming", null);
+        Long headsetId = productRepository.save(Product.builder()
+                .name("Headset").sku("HS-1").price(BigDecimal.TEN).stockQuantity(1).active(true)
+                .category(categoryRepository.getReferenceById(headphones)).build()).getId();
+
+        assertThat(search(electronics)).containsExactly(headsetId);
+        assertThat(search(gaming)).isEmpty();
+
+        move(audio, gaming);
+
+        assertThat(search(electronics)).isEmpty();
+        assertThat(search(gaming)).containsExactly(headsetId);
+    }
+
+    private Long create(String name, Long parentId) {
+        CategoryRequest request = new CategoryRequest();
+        request.setName(name);
+        request.setParentId(parentId);
+        return categoryService.create(request).getId();
+    }
+
+    private void move(Long id, Long parentId) {
+        CategoryRequest request = new CategoryRequest();
+        request.setName(categoryService.getById(id).getName());
+        request.setParentId(parentId);
+        categoryService.update(id, request);
+    }
+
+    private List<Long> search(Long categoryId) {
+        return productService.searchProducts(null, null, null, null, categoryId).stream()
+                .map(ProductResponse::getId)
+                .toList();
+    }
+
+    private List<String> closureRows() {
+        return categoryClosureRepository.findAll().stream()
+                .map(cc -> row(cc.getAncestorId(), cc.getDescendantId(), cc.getDepth()))
+                .toList();
+    }
+
+    private Set<String> expectedRows() {
+        Map<Long, Long> parentById = new HashMap<>();
+        for (CategoryTree.Node node : categoryRepository.findAllNodes()) {
+            parentById.put(node.id(), node.parentId());
+        }
+        Set<String> rows = new HashSet<>();
+        for (Long id : parentById.keySet()) {
+            int depth = 0;
+            for (Long ancestor = id; ancestor != null; ancestor = parentById.get(ancestor)) {
+                rows.add(row(ancestor, id, depth++));
+            }
+        }
+        return rows;
+    }
+
+    private static String row(Long ancestorId, Long descendantId, int depth) {
+        return ancestorId + "->" + descendantId + "@" + depth;
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.springecommerceapi.service;
 
+import com.example.springecommerceapi.config.CacheConfig;
 import com.example.springecommerceapi.domain.Category;
 import com.example.springecommerceapi.dto.CategoryRequest;
 import com.example.springecommerceapi.dto.CategoryResponse;
+import com.example.springecommerceapi.dto.CategoryTreeResponse;
+import com.example.springecommerceapi.exception.BusinessException;
+import com.example.springecommerceapi.repository.CategoryClosureRepository;
 import com.example.springecommerceapi.repository.CategoryRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -11,6 +15,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Optional;
@@ -27,6 +34,18 @@ class CategoryServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private CategoryClosureRepository categoryClosureRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CategoryTreeCache categoryTreeCache;
+
+    @Mock
+    private CacheManager cacheManager;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -85,6 +104,7 @@ class CategoryServiceTest {
             assertThat(response.getParentId()).isEqualTo(10L);
             verify(categoryRepository).findById(10L);
             verify(categoryRepository).save(any(Category.class));
+            verify(categoryClosureRepository).insertLeaf(11L, 10L);
         }
     }
 
@@ -134,6 +154,22 @@ class CategoryServiceTest {
             assertThat(responses).hasSize(2);
             verify(categoryRepository).findAll();
         }
+
+        @Test
+        @DisplayName("Should return the category tree from the snapshot")
+        void getTree_ShouldReturnRoots() {
+            when(categoryTreeCache.get()).thenReturn(CategoryTree.of(List.of(
+                    new CategoryTree.Node(1L, "Electronics", null),
+                    new CategoryTree.Node(2L, "Audio", 1L))));
+
+            List<CategoryTreeResponse> tree = categoryService.getTree();
+
+            assertThat(tree).singleElement().satisfies(root -> {
+                assertThat(root.name()).isEqualTo("Electronics");
+                assertThat(root.children()).extracting(CategoryTreeResponse::name).containsExactly("Audio");
+            });
+            verifyNoInteractions(categoryRepository);
+        }
     }
 
     @Nested
@@ -176,6 +212,67 @@ class CategoryServiceTest {
             CategoryResponse response = categoryService.update(1L, request);
 
             assertThat(response.getParentId()).isEqualTo(10L);
+            verify(categoryClosureRepository).detachSubtree(1L);
+            verify(categoryClosureRepository).attachSubtree(1L, 10L);
+        }
+
+        @Test
+        @DisplayName("Should leave the hierarchy alone when the parent is unchanged")
+        void update_WhenParentUnchanged_ShouldNotMove() {
+            Category parent = Category.builder().id(10L).name("Electronics").build();
+            Category existing = Category.builder().id(1L).name("Phones").parent(parent).build();
+
+            CategoryRequest request = new CategoryRequest();
+            request.setName("Mobile Phones");
+            request.setParentId(10L);
+
+            when(categoryRepository.findById(1L)).thenReturn(Optional.of(existing));
+            when(categoryRepository.save(any(Category.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            CategoryResponse response = categoryService.update(1L, request);
+
+            assertThat(response.getName()).isEqualTo("Mobile Phones");
+            verifyNoInteractions(categoryClosureRepository);
+        }
+
+        @Test
+        @DisplayName("Should detach the subtree when moved to the root")
+        void update_WhenMovedToRoot_ShouldOnlyDetach() {
+            Category parent = Category.builder().id(10L).name("Electronics").build();
+            Category existing = Category.builder().id(1L).name("Phones").parent(parent).build();
+
+            CategoryRequest request = new CategoryRequest();
+            request.setName("Phones");
+
+            when(categoryRepository.findById(1L)).thenReturn(Optional.of(existing));
+            when(categoryRepository.save(any(Category.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            CategoryResponse response = categoryService.update(1L, request);
+
+            assertThat(response.getParentId()).isNull();
+            verify(categoryClosureRepository).detachSubtree(1L);
+            verify(categoryClosureRepository, never()).attachSubtree(anyLong(), anyLong());
+        }
+
+        @Test
+        @DisplayName("Should reject moving a category under its own subtree")
+        void update_WhenMovedUnderDescendant_ShouldThrow() {
+            Category existing = Category.builder().id(1L).name("Electronics").build();
+            Category child = Category.builder().id(2L).name("Phones").parent(existing).build();
+
+            CategoryRequest request = new CategoryRequest();
+            request.setName("Electronics");
+            request.setParentId(2L);
+
+            when(categoryRepository.findById(1L)).thenReturn(Optional.of(existing));
+            when(categoryRepository.findById(2L)).thenReturn(Optional.of(child));
+            when(categoryClosureRepository.existsByAncestorIdAndDescendantId(1L, 2L)).thenReturn(true);
+
+            assertThatThrownBy(() -> categoryService.update(1L, request))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("cannot be moved under itself");
+            verify(categoryClosureRepository, never()).detachSubtree(anyLong());
+            verify(categoryRepository, never()).save(any());
         }
     }
 
@@ -190,9 +287,28 @@ class CategoryServiceTest {
 
             categoryService.delete(1L);
 
+            verify(categoryClosureRepository).deleteAllFor(1L);
             verify(categoryRepository).deleteById(1L);
         }
 
+        @Test
+        @DisplayName("Should evict the category and cached products")
+        void delete_ShouldEvictCaches() {
+            ConcurrentMapCache categories = new ConcurrentMapCache(CacheConfig.CATEGORIES);
+            ConcurrentMapCache products = new ConcurrentMapCache(CacheConfig.PRODUCTS);
+            categories.put(1L, "Electronics");
+            categories.put(2L, "Home");
+            products.put(7L, "Headset");
+            when(cacheManager.getCache(CacheConfig.CATEGORIES)).thenReturn(categories);
+            when(cacheManager.getCache(CacheConfig.PRODUCTS)).thenReturn(products);
+            when(categoryRepository.existsById(1L)).thenReturn(true);
+
+            categoryService.delete(1L);
+
+            assertThat(categories.getNativeCache()).containsOnlyKeys(2L);
+            assertThat(products.getNativeCache()).isEmpty();
+        }
+
         @Test
         @DisplayName("Should throw NotFoundException when category does not exist")
         void delete_WhenNotFound_ShouldThrow() {
@@ -0,0 +1,63 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.dto.CategoryTreeResponse;
+import com.example.springecommerceapi.repository.CategoryRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CategoryTreeCache Tests")
+class CategoryTreeCacheTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @InjectMocks
+    private CategoryTreeCache categoryTreeCache;
+
+    @Test
+    @DisplayName("Should build the snapshot once and reuse it")
+    void get_ShouldBuildLazilyOnce() {
+        when(categoryRepository.findAllNodes()).thenReturn(List.of(new CategoryTree.Node(1L, "Electronics", null)));
+
+        CategoryTree first = categoryTreeCache.get();
+        CategoryTree second = categoryTreeCache.get();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.roots()).extracting(CategoryTreeResponse::id).containsExactly(1L);
+        verify(categoryRepository, times(1)).findAllNodes();
+    }
+
+    @Test
+    @DisplayName("Should publish a new snapshot after a category write")
+    void onCatalogChanged_WhenCategory_ShouldRebuild() {
+        when(categoryRepository.findAllNodes())
+                .thenReturn(List.of(new CategoryTree.Node(1L, "Electronics", null)))
+                .thenReturn(List.of(new CategoryTree.Node(1L, "Electronics", null),
+                        new CategoryTree.Node(2L, "Audio", 1L)));
+        CategoryTree before = categoryTreeCache.get();
+
+        categoryTreeCache.onCatalogChanged(CatalogChangedEvent.category(2L));
+
+        assertThat(before.size()).isEqualTo(1);
+        assertThat(categoryTreeCache.get().roots().get(0).children())
+                .extracting(CategoryTreeResponse::id).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Should ignore product writes")
+    void onCatalogChanged_WhenProduct_ShouldKeepSnapshot() {
+        categoryTreeCache.onCatalogChanged(CatalogChangedEvent.product(7L));
+
+        verifyNoInteractions(categoryRepository);
+    }
+}
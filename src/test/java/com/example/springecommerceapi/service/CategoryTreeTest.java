@@ -0,0 +1,80 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.dto.CategoryTreeResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CategoryTree Tests")
+class CategoryTreeTest {
+
+    //  1 Electronics          5 Home
+    //  ├─ 2 Audio             └─ 6 Kitchen
+    //  │  └─ 3 Headphones
+    //  └─ 4 Gaming
+    private final CategoryTree tree = CategoryTree.of(List.of(
+            new CategoryTree.Node(3L, "Headphones", 2L),
+            new CategoryTree.Node(1L, "Electronics", null),
+            new CategoryTree.Node(6L, "Kitchen", 5L),
+            new CategoryTree.Node(2L, "Audio", 1L),
+            new CategoryTree.Node(5L, "Home", null),
+            new CategoryTree.Node(4L, "Gaming", 1L)));
+
+    @Test
+    @DisplayName("Should expose the nested tree ordered by id")
+    void roots_ShouldNestChildren() {
+        List<CategoryTreeResponse> roots = tree.roots();
+
+        assertThat(roots).extracting(CategoryTreeResponse::name).containsExactly("Electronics", "Home");
+        CategoryTreeResponse electronics = roots.get(0);
+        assertThat(electronics.children()).extracting(CategoryTreeResponse::name).containsExactly("Audio", "Gaming");
+        assertThat(electronics.children().get(0).children()).extracting(CategoryTreeResponse::id).containsExactly(3L);
+        assertThat(roots.get(1).children()).extracting(CategoryTreeResponse::id).containsExactly(6L);
+    }
+
+    @Test
+    @DisplayName("Should cut cycles and dangling parents instead of losing categories")
+    void of_WhenLinksBroken_ShouldTreatCategoryAsRoot() {
+        CategoryTree broken = CategoryTree.of(List.of(
+                new CategoryTree.Node(1L, "A", 2L),
+                new CategoryTree.Node(2L, "B", 1L),
+                new CategoryTree.Node(3L, "C", 1L),
+                new CategoryTree.Node(4L, "Orphan", 42L)));
+
+        assertThat(broken.size()).isEqualTo(4);
+        assertThat(broken.roots()).hasSize(2);
+        assertThat(broken.roots()).filteredOn(root -> root.id() == 4L).singleElement()
+                .satisfies(orphan -> assertThat(orphan.children()).isEmpty());
+        assertThat(broken.roots().stream().mapToInt(CategoryTreeTest::countNodes).sum()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should handle deep chains without recursion")
+    void of_WhenDeep_ShouldBuild() {
+        List<CategoryTree.Node> chain = new ArrayList<>();
+        chain.add(new CategoryTree.Node(1L, "c1", null));
+        for (long id = 2; id <= 50_000; id++) {
+            chain.add(new CategoryTree.Node(id, "c" + id, id - 1));
+        }
+
+        CategoryTree deep = CategoryTree.of(chain);
+
+        assertThat(deep.size()).isEqualTo(50_000);
+        CategoryTreeResponse node = deep.roots().get(0);
+        int depth = 1;
+        while (!node.children().isEmpty()) {
+            node = node.children().get(0);
+            depth++;
+        }
+        assertThat(depth).isEqualTo(50_000);
+        assertThat(node.id()).isEqualTo(50_000L);
+    }
+
+    private static int countNodes(CategoryTreeResponse node) {
+        return 1 + node.children().stream().mapToInt(CategoryTreeTest::countNodes).sum();
+    }
+}
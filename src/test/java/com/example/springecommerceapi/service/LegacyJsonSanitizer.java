@@ -0,0 +1,36 @@
+package com.example.springecommerceapi.service;
+
+/**
+ * The regex-based clean-up {@link ModelJsonRepairer} replaced, kept as the reference for its differential tests and
+ * the benchmark comparison. Each step copies the whole output; the result is parsed as a separate step.
+ */
+final class LegacyJsonSanitizer {
+
+    private LegacyJsonSanitizer() {
+    }
+
+    static String sanitize(String raw) {
+        if (raw == null) {
+            return "{}";
+        }
+
+        String s = raw.trim();
+
+        int firstBrace = s.indexOf('{');
+        int lastBrace = s.lastIndexOf('}');
+        if (firstBrace >= 0 && lastBrace > firstBrace) {
+            s = s.substring(firstBrace, lastBrace + 1);
+        } else {
+            String escaped = s.replace("\\", "\\\\").replace("\"", "\\\"");
+            return "{\"answer\":\"" + escaped + "\",\"recommendedProducts\":[]}";
+        }
+
+        s = s.replace("\\'", "'");
+
+        s = s.replaceAll("\\\\([^\"\\\\bfnrtu/])", "$1");
+
+        s = s.replaceAll("\"(\\d+(?:\\.\\d+)?)\\s*TL\"", "\"$1\"");
+
+        return s;
+    }
+}
@@ -0,0 +1,337 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.dto.AssistantResponse;
+import com.example.springecommerceapi.dto.ProductResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.fail;
+
+@DisplayName("ModelJsonRepairer Tests")
+class ModelJsonRepairerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final ModelJsonRepairer repairer = new ModelJsonRepairer(objectMapper);
+
+    @Nested
+    @DisplayName("Repair")
+    class RepairTests {
+
+        @Test
+        @DisplayName("Should return empty JSON for null input")
+        void repair_WhenNull_ShouldReturnEmptyJson() {
+            assertThat(repairer.repair(null)).isEqualTo("{}");
+        }
+
+        @Test
+        @DisplayName("Should return trimmed text when no object is found")
+        void repair_WhenNoBraces_ShouldReturnTrimmedText() {
+            assertThat(repairer.repair("  no json here \n")).isEqualTo("no json here");
+            assertThat(repairer.repair("} backwards {")).isEqualTo("} backwards {");
+        }
+
+        @Test
+        @DisplayName("Should remove invalid escape sequences")
+        void repair_WhenInvalidEscape_ShouldDropBackslash() {
+            assertThat(repairer.repair("{\"answer\": \"test\\x value \\- \\(ok\\)\"}"))
+                    .isEqualTo("{\"answer\": \"testx value - (ok)\"}");
+        }
+
+        @Test
+        @DisplayName("Should turn escaped single quotes into apostrophes")
+        void repair_WhenEscapedSingleQuote_ShouldUnescape() {
+            assertThat(repairer.repair("{\"answer\": \"Kulaklık\\'ın ve klavye\\\\'nin\"}"))
+                    .isEqualTo("{\"answer\": \"Kulaklık'ın ve klavye'nin\"}");
+        }
+
+        @Test
+        @DisplayName("Should keep valid escape sequences")
+        void repair_WhenValidEscapes_ShouldKeepThem() {
+            String json = "{\"answer\": \"27\\\" ekran \\\\ \\/ \\n\\t\\u00e7\"}";
+
+            assertThat(repairer.repair(json)).isEqualTo(json);
+        }
+
+        @Test
+        @DisplayName("Should remove TL from prices")
+        void repair_WhenPriceWithTL_ShouldRemoveTL() {
+            assertThat(repairer.repair("{\"price\": \"500 TL\"}")).isEqualTo("{\"price\": \"500\"}");
+            assertThat(repairer.repair("{\"price\": \"199.99 TL\"}")).isEqualTo("{\"price\": \"199.99\"}");
+            assertThat(repairer.repair("{\"price\": \"45TL\"}")).isEqualTo("{\"price\": \"45\"}");
+        }
+
+        @Test
+        @DisplayName("Should leave strings that only mention TL alone")
+        void repair_WhenTextMentionsTL_ShouldKeepIt() {
+            String json = "{\"answer\": \"5 TL indirim\", \"note\": \"TL\", \"sku\": \"12.TL\"}";
+
+            assertThat(repairer.repair(json)).isEqualTo(json);
+        }
+
+        @Test
+        @DisplayName("Should drop prose and fences around the first object")
+        void repair_WhenWrapped_ShouldExtractFirstObject() {
+            String raw = """
+                    İşte önerilerim:
+                    ```json
+                    {"answer": "x", "recommendedProducts": [{"id": 1}]}
+                    ```
+                    Not: fiyatlar {KDV} dahildir.""";
+
+            assertThat(repairer.repair(raw)).isEqualTo("{\"answer\": \"x\", \"recommendedProducts\": [{\"id\": 1}]}");
+        }
+
+        @Test
+        @DisplayName("Should not count braces inside strings")
+        void repair_WhenBracesInStrings_ShouldKeepWholeObject() {
+            String json = "{\"answer\": \"} kapandı mı? \\\"{\\\"\", \"n\": {\"a\": \"}\"}}";
+
+            assertThat(repairer.repair(json + " sonra {x}")).isEqualTo(json);
+        }
+    }
+
+    @Nested
+    @DisplayName("Read")
+    class ReadTests {
+
+        @Test
+        @DisplayName("Should read null as an empty object")
+        void read_WhenNull_ShouldReadEmptyObject() throws IOException {
+            assertThat(read(null)).isEqualTo(new AssistantResponse(null, null));
+        }
+
+        @Test
+        @DisplayName("Should pass plain text to the fallback")
+        void read_WhenPlainText_ShouldUseFallback() throws IOException {
+            assertThat(read(" this has \"quotes\" and path\\to\\file\non two lines "))
+                    .isEqualTo(new AssistantResponse("this has \"quotes\" and path\\to\\file\non two lines", List.of()));
+            assertThat(read("")).isEqualTo(new AssistantResponse("", List.of()));
+        }
+
+        @Test
+        @DisplayName("Should parse TL prices as numbers")
+        void read_WhenPriceWithTL_ShouldParsePrice() throws IOException {
+            AssistantResponse response = read(
+                    "{\"answer\": \"Önerim\", \"recommendedProducts\": [{\"id\": 1, \"price\": \"299.99 TL\"}]}");
+
+            assertThat(response.recommendedProducts()).singleElement()
+                    .extracting(ProductResponse::getPrice)
+                    .satisfies(price -> assertThat(price).isEqualByComparingTo("299.99"));
+        }
+
+        @Test
+        @DisplayName("Should accept raw newlines and trailing commas")
+        void read_WhenNewlinesAndTrailingCommas_ShouldParse() throws IOException {
+            AssistantResponse response = read("{\"answer\": \"bir\niki\", \"recommendedProducts\": [{\"id\": 1,},],}");
+
+            assertThat(response.answer()).isEqualTo("bir\niki");
+            assertThat(response.recommendedProducts()).hasSize(1);
+        }
+
+        @Test
+        @DisplayName("Should fail on output that cannot be repaired")
+        void read_WhenTruncated_ShouldThrow() {
+            assertThatThrownBy(() -> read("{\"answer\": \"yarım kal} \"recommendedProducts\": [}"))
+                    .isInstanceOf(JsonProcessingException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Broken model output corpus")
+    class CorpusTests {
+
+        private final List<BrokenOutput> corpus = List.of(
+                new BrokenOutput("escaped apostrophe", """
+                        {"answer": "Kulaklık\\'ın pil ömrü uzun", "recommendedProducts": []}""",
+                        "Kulaklık'ın pil ömrü uzun", List.of()),
+                new BrokenOutput("invalid escapes", """
+                        {"answer": "Türkçe Q \\- rahat \\(KDV dahil\\)\\! \\ş", "recommendedProducts": []}""",
+                        "Türkçe Q - rahat (KDV dahil)! ş", List.of()),
+                new BrokenOutput("TL prices", """
+                        {"answer": "İki ürün", "recommendedProducts": [
+                          {"id": 1, "name": "Kulaklık", "price": "199.99 TL"},
+                          {"id": 2, "name": "Klavye", "price": "45TL"}
+                        ]}""",
+                        "İki ürün", List.of("199.99", "45")),
+                new BrokenOutput("prose and markdown fence", """
+                        Tabii! İşte önerilerim:
+                        ```json
+                        {"answer": "Monitör", "recommendedProducts": [{"id": 3, "name": "27\\" IPS", "price": 474.99}]}
+                        ```""",
+                        "Monitör", List.of("474.99")),
+                new BrokenOutput("fence followed by braces in prose", """
+                        ```json
+                        {"answer": "Sandalye", "recommendedProducts": []}
+                        ```
+                        Fiyatlar {KDV} dahildir.""",
+                        "Sandalye", List.of()),
+                new BrokenOutput("raw newlines in answer", """
+                        {"answer": "Birinci satır
+                        İkinci satır", "recommendedProducts": []}""",
+                        "Birinci satır\nİkinci satır", List.of()),
+                new BrokenOutput("plain text over several lines", """
+                        Şu an stokta uygun ürün bulamadım.
+                        Başka bir kategori denemek ister misin?""",
+                        "Şu an stokta uygun ürün bulamadım.\nBaşka bir kategori denemek ister misin?", List.of()),
+                new BrokenOutput("trailing commas", """
+                        {"answer": "Saat", "recommendedProducts": [{"id": 8, "price": "1162.49 TL",},],}""",
+                        "Saat", List.of("1162.49")),
+                new BrokenOutput("double-escaped apostrophe", """
+                        {"answer": "Klavye\\\\'nin tuşları", "recommendedProducts": []}""",
+                        "Klavye'nin tuşları", List.of()),
+                new BrokenOutput("valid escapes next to broken ones", """
+                        {"answer": "\\"Oyuncu\\" \\\\ seri\\: \\u00e7ok iyi", "recommendedProducts": []}""",
+                        "\"Oyuncu\" \\ seri: çok iyi", List.of())
+        );
+
+        @Test
+        @DisplayName("Should read every known broken output")
+        void read_ShouldRepairCorpus() throws IOException {
+            for (BrokenOutput output : corpus) {
+                AssistantResponse response = read(output.raw());
+
+                assertThat(response.answer()).as(output.name()).isEqualTo(output.answer());
+                assertThat(prices(response)).as(output.name()).isEqualTo(output.prices());
+            }
+        }
+
+        @Test
+        @DisplayName("Should agree with the legacy sanitizer wherever it succeeded")
+        void read_ShouldMatchLegacyOnCorpus() throws IOException {
+            for (BrokenOutput output : corpus) {
+                AssistantResponse legacy = readLegacy(output.raw());
+                if (legacy != null) {
+                    assertThat(read(output.raw())).as(output.name()).isEqualTo(legacy);
+                }
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Differential fuzzing")
+    class FuzzTests {
+
+        private static final int ITERATIONS = 3000;
+
+        // raw text inside a JSON string and what the model meant by it
+        private static final String[][] TOKENS = {
+                {"kulaklık", "kulaklık"}, {"klavye", "klavye"}, {"uygun", "uygun"}, {"fiyatlı", "fiyatlı"},
+                {"Kulaklık\\'ın", "Kulaklık'ın"}, {"Klavye\\\\'nin", "Klavye'nin"}, {"'", "'"},
+                {"\\-", "-"}, {"\\(", "("}, {"\\)", ")"}, {"\\!", "!"}, {"\\ş", "ş"}, {"\\%", "%"},
+                {"\\\"27\\\"", "\"27\""}, {"\\\\", "\\"}, {"\\/", "/"}, {"\\n", "\n"}, {"\\t", "\t"},
+                {"\\u00e7", "ç"}, {"\n", "\n"}, {"{", "{"}, {"}", "}"}, {"[", "["}, {"5 TL", "5 TL"}
+        };
+        private static final String[] PRICE_FORMATS = {"%s", "\"%s\"", "\"%s TL\"", "\"%sTL\"", "\"%s  TL\""};
+        private static final String[] SEPARATORS = {" ", "", "\n  ", "\r\n"};
+
+        @Test
+        @DisplayName("Should recover what the model meant and match the legacy sanitizer wherever it succeeded")
+        void read_ShouldHandleGeneratedOutputs() {
+            SplittableRandom random = new SplittableRandom(20241103);
+            int legacyFailures = 0;
+
+            for (int i = 0; i < ITERATIONS; i++) {
+                List<String> expectedPrices = new ArrayList<>();
+                StringBuilder expectedAnswer = new StringBuilder();
+                String raw = generate(random, expectedAnswer, expectedPrices);
+
+                AssistantResponse response;
+                try {
+                    response = read(raw);
+                } catch (IOException ex) {
+                    fail("Could not repair generated output:%n%s", raw, ex);
+                    return;
+                }
+                assertThat(response.answer()).as(raw).isEqualTo(expectedAnswer.toString());
+                assertThat(prices(response)).as(raw).isEqualTo(expectedPrices);
+
+                AssistantResponse legacy = readLegacy(raw);
+                if (legacy == null) {
+                    legacyFailures++;
+                } else {
+                    assertThat(response).as(raw).isEqualTo(legacy);
+                }
+            }
+
+            // the generator covers outputs the legacy sanitizer could not parse as well as ones it could
+            assertThat(legacyFailures).isBetween(1, ITERATIONS - 1);
+        }
+
+        private String generate(SplittableRandom random, StringBuilder expectedAnswer, List<String> expectedPrices) {
+            String sep = SEPARATORS[random.nextInt(SEPARATORS.length)];
+            boolean trailingCommas = random.nextInt(10) == 0;
+
+            StringBuilder json = new StringBuilder("{").append(sep).append("\"answer\":").append(sep).append('"');
+            // a long answer now and then, so the repair spans several reads
+            int words = random.nextInt(20) == 0 ? random.nextInt(400, 1200) : random.nextInt(1, 30);
+            appendText(random, words, json, expectedAnswer);
+            json.append("\",").append(sep).append("\"recommendedProducts\":").append(sep).append('[');
+
+            int products = random.nextInt(4);
+            for (int p = 0; p < products; p++) {
+                String price = random.nextInt(1, 5000) + (random.nextBoolean() ? "." + random.nextInt(10, 100) : "");
+                expectedPrices.add(new BigDecimal(price).stripTrailingZeros().toPlainString());
+                json.append(p > 0 ? "," + sep : sep).append("{\"id\":").append(p + 1).append(",\"name\":\"");
+                appendText(random, random.nextInt(1, 6), json, new StringBuilder());
+                json.append("\",\"price\":")
+                        .append(PRICE_FORMATS[random.nextInt(PRICE_FORMATS.length)].formatted(price))
+                        .append(trailingCommas ? ",}" : "}");
+            }
+            json.append(trailingCommas && products > 0 ? ",]" : "]").append(sep).append('}');
+
+            return switch (random.nextInt(4)) {
+                case 0 -> "Tabii! İşte önerilerim:\n```json\n" + json + "\n```";
+                case 1 -> "Önerilerim şunlar: " + json + "\nFiyatlar {KDV} dahildir.";
+                case 2 -> sep + json + sep;
+                default -> json.toString();
+            };
+        }
+
+        private void appendText(SplittableRandom random, int words, StringBuilder raw, StringBuilder expected) {
+            // starts with a plain word, so no string is ever just a price
+            raw.append("Öneri");
+            expected.append("Öneri");
+            for (int w = 0; w < words; w++) {
+                String[] token = TOKENS[random.nextInt(TOKENS.length)];
+                raw.append(' ').append(token[0]);
+                expected.append(' ').append(token[1]);
+            }
+        }
+    }
+
+    private AssistantResponse read(String raw) throws IOException {
+        return repairer.read(raw, AssistantResponse.class, answer -> new AssistantResponse(answer, List.of()));
+    }
+
+    private AssistantResponse readLegacy(String raw) {
+        try {
+            return objectMapper.readValue(LegacyJsonSanitizer.sanitize(raw), AssistantResponse.class);
+        } catch (JsonProcessingException ex) {
+            return null;
+        }
+    }
+
+    private static List<String> prices(AssistantResponse response) {
+        return response.recommendedProducts().stream()
+                .map(product -> product.getPrice().stripTrailingZeros().toPlainString())
+                .toList();
+    }
+
+    private record BrokenOutput(String name, String raw, String answer, List<String> prices) {
+
+        private BrokenOutput {
+            prices = prices.stream().map(price -> new BigDecimal(price).stripTrailingZeros().toPlainString()).toList();
+        }
+    }
+}
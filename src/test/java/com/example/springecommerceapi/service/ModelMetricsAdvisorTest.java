@@ -0,0 +1,111 @@
+package com.example.springecommerceapi.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.advisor.api.AdvisedResponse;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ModelMetricsAdvisor Tests")
+class ModelMetricsAdvisorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ModelMetricsAdvisor advisor = new ModelMetricsAdvisor(meterRegistry);
+
+    @Nested
+    @DisplayName("Blocking calls")
+    class CallTests {
+
+        @Test
+        @DisplayName("Should record prompt evaluation, load time and prompt tokens reported by Ollama")
+        void aroundCall_ShouldRecordOllamaDurations() {
+            AdvisedResponse response = advised(timedResponse("{}", Duration.ofMillis(120), Duration.ofMillis(800)));
+
+            AdvisedResponse returned = advisor.aroundCall(null, request -> response);
+
+            assertThat(returned).isSameAs(response);
+            assertThat(timer("assistant.model.prompt.eval", "call").totalTime(TimeUnit.MILLISECONDS)).isEqualTo(120);
+            assertThat(timer("assistant.model.load", "call").totalTime(TimeUnit.MILLISECONDS)).isEqualTo(800);
+            assertThat(meterRegistry.get("assistant.model.prompt.tokens").tag("mode", "call").summary().totalAmount())
+                    .isEqualTo(350);
+        }
+
+        @Test
+        @DisplayName("Should record nothing when the response has no durations")
+        void aroundCall_WhenNoDurations_ShouldSkip() {
+            advisor.aroundCall(null, request -> advised(chunk("{}")));
+
+            assertThat(timer("assistant.model.prompt.eval", "call").count()).isZero();
+            assertThat(timer("assistant.model.load", "call").count()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Streamed answers")
+    class StreamTests {
+
+        @Test
+        @DisplayName("Should time the first token and take durations from the final chunk")
+        void aroundStream_ShouldRecordFirstTokenAndDurations() {
+            Flux<AdvisedResponse> chunks = Flux.just(
+                    advised(chunk("")),
+                    advised(chunk("İşte ")),
+                    advised(chunk("önerim")),
+                    advised(timedResponse("", Duration.ofMillis(40), Duration.ZERO)));
+
+            List<AdvisedResponse> received = advisor.aroundStream(null, request -> chunks).collectList().block();
+
+            assertThat(received).hasSize(4);
+            assertThat(meterRegistry.get("assistant.model.first.token").timer().count()).isEqualTo(1);
+            assertThat(timer("assistant.model.prompt.eval", "stream").totalTime(TimeUnit.MILLISECONDS)).isEqualTo(40);
+            assertThat(timer("assistant.model.load", "stream").totalTime(TimeUnit.MILLISECONDS)).isZero();
+            assertThat(timer("assistant.model.prompt.eval", "call").count()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should time each subscription separately")
+        void aroundStream_ShouldMeasurePerSubscription() {
+            Flux<AdvisedResponse> stream = advisor.aroundStream(null, request -> Flux.just(advised(chunk("Önerim"))));
+
+            stream.blockLast();
+            stream.blockLast();
+
+            assertThat(meterRegistry.get("assistant.model.first.token").timer().count()).isEqualTo(2);
+        }
+    }
+
+    private Timer timer(String name, String mode) {
+        return meterRegistry.get(name).tag("mode", mode).timer();
+    }
+
+    private static AdvisedResponse advised(ChatResponse response) {
+        return new AdvisedResponse(response, Map.of());
+    }
+
+    private static ChatResponse chunk(String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+    }
+
+    private static ChatResponse timedResponse(String text, Duration promptEval, Duration load) {
+        ChatResponseMetadata metadata = ChatResponseMetadata.builder()
+                .keyValue(ModelMetricsAdvisor.PROMPT_EVAL_DURATION, promptEval)
+                .keyValue(ModelMetricsAdvisor.LOAD_DURATION, load)
+                .usage(new DefaultUsage(350L, 12L))
+                .build();
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))), metadata);
+    }
+}
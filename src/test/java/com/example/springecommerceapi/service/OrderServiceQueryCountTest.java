@@ -0,0 +1,188 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.config.CacheConfig;
+import com.example.springecommerceapi.domain.Customer;
+import com.example.springecommerceapi.domain.Product;
+import com.example.springecommerceapi.dto.CursorPage;
+import com.example.springecommerceapi.dto.OrderItemRequest;
+import com.example.springecommerceapi.dto.OrderRequest;
+import com.example.springecommerceapi.dto.OrderResponse;
+import com.example.springecommerceapi.repository.ProductStockRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({CacheConfig.class, OrderService.class, StockReservationService.class, ProductStockRepository.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@DisplayName("OrderService query count Tests")
+class OrderServiceQueryCountTest {
+
+    private static final int PRODUCT_COUNT = 50;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderService orderService;
+
+    private Statistics statistics;
+    private Long customerId;
+    private final List<Long> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        customerId = entityManager.persistAndGetId(Customer.builder()
+                .firstName("Ayşe").lastName("Yılmaz").email("ayse@example.com").build(), Long.class);
+
+        for (int i = 0; i < PRODUCT_COUNT; i++) {
+            productIds.add(entityManager.persistAndGetId(Product.builder()
+                    .name("Product " + i)
+                    .sku("SKU-" + i)
+                    .price(BigDecimal.valueOf(10 + i))
+                    .stockQuantity(1000)
+                    .active(true)
+                    .build(), Long.class));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Creating an order should cost the same round trips for 1 or 50 lines")
+    void create_ShouldUseConstantStatements_RegardlessOfLineCount() {
+        long singleLine = statementsFor(orderWithLines(1));
+        long fiftyLines = statementsFor(orderWithLines(PRODUCT_COUNT));
+
+        assertThat(fiftyLines).isEqualTo(singleLine);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(PRODUCT_COUNT + 1L);
+    }
+
+    @Test
+    @DisplayName("Listing 100 orders with 5 lines each should take at most 3 statements")
+    void getAll_ShouldNotIssueQueriesPerOrderOrLine() {
+        Long otherCustomerId = entityManager.persistAndGetId(Customer.builder()
+                .firstName("Mehmet").lastName("Kaya").email("mehmet@example.com").build(), Long.class);
+        for (int i = 0; i < 100; i++) {
+            OrderRequest request = orderWithLines(5);
+            request.setCustomerId(i % 2 == 0 ? customerId : otherCustomerId);
+            orderService.create(request);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<OrderResponse> orders = orderService.getAll();
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+        assertThat(orders).hasSize(100);
+        assertThat(orders).allSatisfy(order -> assertThat(order.getItems()).hasSize(5));
+        assertThat(orders).extracting(OrderResponse::getCustomerName).containsOnly("Ayşe Yılmaz", "Mehmet Kaya");
+        assertThat(orders.get(0).getItems()).extracting("productName")
+                .containsExactly("Product 0", "Product 1", "Product 2", "Product 3", "Product 4");
+    }
+
+    @Test
+    @DisplayName("Loading one order with its customer, lines and products should take a single statement")
+    void getById_ShouldUseSingleStatement() {
+        Long orderId = orderService.create(orderWithLines(5)).getId();
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        OrderResponse order = orderService.getById(orderId);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(order.getCustomerName()).isEqualTo("Ayşe Yılmaz");
+        assertThat(order.getItems()).hasSize(5).extracting("productName").doesNotContainNull();
+    }
+
+    @Test
+    @DisplayName("Customer order history should cost three statements per page and walk every order once")
+    void getCustomerOrders_ShouldPageWithConstantStatements() {
+        Long otherCustomerId = entityManager.persistAndGetId(Customer.builder()
+                .firstName("Mehmet").lastName("Kaya").email("mehmet@example.com").build(), Long.class);
+        List<OrderResponse> created = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            created.add(orderService.create(orderWithLines(1 + i % 3)));
+            orderService.create(OrderRequest.builder()
+                    .customerId(otherCustomerId)
+                    .items(List.of(OrderItemRequest.builder().productId(productIds.get(0)).quantity(1).build()))
+                    .build());
+        }
+
+        List<OrderResponse> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            entityManager.flush();
+            entityManager.clear();
+            statistics.clear();
+
+            CursorPage<OrderResponse> page = orderService.getCustomerOrders(customerId, cursor, 5);
+
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+            walked.addAll(page.items());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(5);
+        assertThat(walked).extracting(OrderResponse::getId).doesNotHaveDuplicates()
+                .containsExactlyInAnyOrderElementsOf(created.stream().map(OrderResponse::getId).toList());
+        assertThat(walked).isSortedAccordingTo(Comparator.comparing(OrderResponse::getCreatedAt)
+                .thenComparing(OrderResponse::getId).reversed());
+        assertThat(walked).allSatisfy(order -> {
+            assertThat(order.getCustomerId()).isEqualTo(customerId);
+            assertThat(order.getCustomerName()).isEqualTo("Ayşe Yılmaz");
+        });
+        assertThat(walked.get(walked.size() - 1).getItems()).extracting("productName").containsExactly("Product 0");
+    }
+
+    private long statementsFor(OrderRequest request) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        OrderResponse response = orderService.create(request);
+        entityManager.flush();
+
+        assertThat(response.getItems()).hasSize(request.getItems().size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private OrderRequest orderWithLines(int lines) {
+        return OrderRequest.builder()
+                .customerId(customerId)
+                .items(IntStream.range(0, lines)
+                        .mapToObj(i -> OrderItemRequest.builder().productId(productIds.get(i)).quantity(2).build())
+                        .toList())
+                .build();
+    }
+}
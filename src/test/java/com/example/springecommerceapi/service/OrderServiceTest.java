@@ -2,6 +2,7 @@ package com.example.springecommerceapi.service;
 
 import com.example.springecommerceapi.domain.*;
 import com.example.springecommerceapi.dto.*;
+import com.example.springecommerceapi.exception.BusinessException;
 import com.example.springecommerceapi.exception.NotFoundException;
 import com.example.springecommerceapi.repository.CustomerRepository;
 import com.example.springecommerceapi.repository.OrderRepository;
@@ -19,7 +20,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -40,6 +43,9 @@ class OrderServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private StockReservationService stockReservationService;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -102,7 +108,7 @@ class OrderServiceTest {
         @DisplayName("Should return order response when request is valid")
         void create_WhenValidRequest_ShouldReturnOrderResponse() {
             when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
-            when(productRepository.findById(100L)).thenReturn(Optional.of(product));
+            when(productRepository.findAllById(Set.of(100L))).thenReturn(List.of(product));
             when(orderRepository.save(any(Order.class))).thenReturn(order);
 
             OrderResponse response = orderService.create(orderRequest);
@@ -114,7 +120,8 @@ class OrderServiceTest {
             assertThat(response.getItems()).hasSize(1);
             assertThat(response.getItems().get(0).getLineTotal()).isEqualByComparingTo(BigDecimal.valueOf(100.0));
             verify(customerRepository).findById(1L);
-            verify(productRepository).findById(100L);
+            verify(productRepository).findAllById(Set.of(100L));
+            verify(productRepository, never()).findById(anyLong());
             verify(orderRepository).save(any(Order.class));
         }
 
@@ -146,8 +153,7 @@ class OrderServiceTest {
                     .createdAt(LocalDateTime.now()).build();
 
             when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
-            when(productRepository.findById(100L)).thenReturn(Optional.of(product));
-            when(productRepository.findById(200L)).thenReturn(Optional.of(product2));
+            when(productRepository.findAllById(Set.of(100L, 200L))).thenReturn(List.of(product, product2));
             when(orderRepository.save(any(Order.class))).thenReturn(multiOrder);
 
             OrderResponse response = orderService.create(multiItemRequest);
@@ -165,13 +171,65 @@ class OrderServiceTest {
                     .build();
 
             when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
-            when(productRepository.findById(999L)).thenReturn(Optional.empty());
+            when(productRepository.findAllById(Set.of(999L))).thenReturn(List.of());
 
             assertThatThrownBy(() -> orderService.create(badRequest))
                     .isInstanceOf(NotFoundException.class)
                     .hasMessageContaining("Product not found with id: 999");
         }
 
+        @Test
+        @DisplayName("Should reserve stock once per product, merging repeated lines")
+        void create_WhenSameProductOnSeveralLines_ShouldReserveMergedQuantity() {
+            OrderRequest repeatedRequest = OrderRequest.builder()
+                    .customerId(1L)
+                    .items(List.of(
+                            OrderItemRequest.builder().productId(100L).quantity(2).build(),
+                            OrderItemRequest.builder().productId(100L).quantity(3).build()
+                    ))
+                    .build();
+
+            when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+            when(productRepository.findAllById(Set.of(100L))).thenReturn(List.of(product));
+            when(orderRepository.save(any(Order.class))).thenReturn(order);
+
+            orderService.create(repeatedRequest);
+
+            verify(stockReservationService).reserve(Map.of(100L, 5));
+        }
+
+        @Test
+        @DisplayName("Should not save order when stock is insufficient")
+        void create_WhenStockInsufficient_ShouldNotSaveOrder() {
+            when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+            when(productRepository.findAllById(Set.of(100L))).thenReturn(List.of(product));
+            doThrow(new BusinessException("Insufficient stock for product id: 100"))
+                    .when(stockReservationService).reserve(Map.of(100L, 2));
+
+            assertThatThrownBy(() -> orderService.create(orderRequest))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("Insufficient stock for product id: 100");
+
+            verify(orderRepository, never()).save(any(Order.class));
+        }
+
+        @Test
+        @DisplayName("Should not reserve stock when a product is missing")
+        void create_WhenProductNotFound_ShouldNotReserveStock() {
+            OrderRequest badRequest = OrderRequest.builder()
+                    .customerId(1L)
+                    .items(List.of(OrderItemRequest.builder().productId(999L).quantity(1).build()))
+                    .build();
+
+            when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+            when(productRepository.findAllById(Set.of(999L))).thenReturn(List.of());
+
+            assertThatThrownBy(() -> orderService.create(badRequest))
+                    .isInstanceOf(NotFoundException.class);
+
+            verifyNoInteractions(stockReservationService);
+        }
+
         @Test
         @DisplayName("Should throw NotFoundException when customer not found")
         void create_WhenCustomerNotFound_ShouldThrowNotFoundException() {
@@ -192,19 +250,19 @@ class OrderServiceTest {
         @Test
         @DisplayName("Should return order when it exists")
         void getById_WhenOrderExists_ShouldReturnOrderResponse() {
-            when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+            when(orderRepository.findWithDetailsById(1L)).thenReturn(Optional.of(order));
 
             OrderResponse response = orderService.getById(1L);
 
             assertThat(response.getId()).isEqualTo(1L);
             assertThat(response.getCustomerName()).isEqualTo("John Doe");
-            verify(orderRepository).findById(1L);
+            verify(orderRepository).findWithDetailsById(1L);
         }
 
         @Test
         @DisplayName("Should throw NotFoundException when order does not exist")
         void getById_WhenNotFound_ShouldThrow() {
-            when(orderRepository.findById(99L)).thenReturn(Optional.empty());
+            when(orderRepository.findWithDetailsById(99L)).thenReturn(Optional.empty());
 
             assertThatThrownBy(() -> orderService.getById(99L))
                     .isInstanceOf(NotFoundException.class)
@@ -214,13 +272,37 @@ class OrderServiceTest {
         @Test
         @DisplayName("Should return all orders")
         void getAll_ShouldReturnAllOrders() {
-            when(orderRepository.findAll()).thenReturn(List.of(order));
+            when(orderRepository.findAllWithCustomer()).thenReturn(List.of(order));
+            when(orderRepository.findItemsWithProductByOrderIdIn(List.of(order.getId()))).thenReturn(order.getItems());
 
             List<OrderResponse> responses = orderService.getAll();
 
             assertThat(responses).hasSize(1);
             assertThat(responses.get(0).getCustomerName()).isEqualTo("John Doe");
-            verify(orderRepository).findAll();
+            verify(orderRepository).findAllWithCustomer();
+        }
+
+        @Test
+        @DisplayName("Should load items in bounded chunks of order ids")
+        void getAll_WhenManyOrders_ShouldChunkItemQueries() {
+            int total = 2 * OrderService.ITEM_QUERY_CHUNK_SIZE + 1;
+            List<Order> orders = new ArrayList<>();
+            for (long id = 1; id <= total; id++) {
+                orders.add(Order.builder().id(id).customer(customer).status(OrderStatus.PENDING)
+                        .totalAmount(BigDecimal.TEN).items(new ArrayList<>()).build());
+            }
+            when(orderRepository.findAllWithCustomer()).thenReturn(orders);
+            List<Integer> chunkSizes = new ArrayList<>();
+            when(orderRepository.findItemsWithProductByOrderIdIn(any())).thenAnswer(invocation -> {
+                chunkSizes.add(invocation.<List<Long>>getArgument(0).size());
+                return List.of();
+            });
+
+            List<OrderResponse> responses = orderService.getAll();
+
+            assertThat(responses).hasSize(total);
+            assertThat(chunkSizes).containsExactly(OrderService.ITEM_QUERY_CHUNK_SIZE,
+                    OrderService.ITEM_QUERY_CHUNK_SIZE, 1);
         }
     }
 
@@ -231,7 +313,7 @@ class OrderServiceTest {
         @Test
         @DisplayName("Should return updated response when order exists")
         void updateStatus_WhenOrderExists_ShouldReturnUpdatedResponse() {
-            when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+            when(orderRepository.findWithDetailsById(1L)).thenReturn(Optional.of(order));
 
             Order updatedOrder = Order.builder()
                     .id(1L)
@@ -246,11 +328,51 @@ class OrderServiceTest {
             OrderResponse response = orderService.updateStatus(1L, OrderStatus.SHIPPED);
 
             assertThat(response.getStatus()).isEqualTo(OrderStatus.SHIPPED);
-            verify(orderRepository).findById(1L);
+            verify(orderRepository).findWithDetailsById(1L);
             verify(orderRepository).save(any(Order.class));
         }
     }
 
+    @Nested
+    @DisplayName("Stock on status changes")
+    class StockOnStatusChangeTests {
+
+        @Test
+        @DisplayName("Should release stock when order is cancelled")
+        void updateStatus_WhenCancelled_ShouldReleaseStock() {
+            when(orderRepository.findWithDetailsById(1L)).thenReturn(Optional.of(order));
+            when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            orderService.updateStatus(1L, OrderStatus.CANCELLED);
+
+            verify(stockReservationService).release(Map.of(100L, 2));
+            verify(stockReservationService, never()).reserve(any());
+        }
+
+        @Test
+        @DisplayName("Should reserve stock again when a cancelled order is reopened")
+        void updateStatus_WhenReopened_ShouldReserveStock() {
+            order.setStatus(OrderStatus.CANCELLED);
+            when(orderRepository.findWithDetailsById(1L)).thenReturn(Optional.of(order));
+            when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            orderService.updateStatus(1L, OrderStatus.PENDING);
+
+            verify(stockReservationService).reserve(Map.of(100L, 2));
+        }
+
+        @Test
+        @DisplayName("Should not touch stock for other transitions")
+        void updateStatus_WhenShipped_ShouldNotTouchStock() {
+            when(orderRepository.findWithDetailsById(1L)).thenReturn(Optional.of(order));
+            when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            orderService.updateStatus(1L, OrderStatus.SHIPPED);
+
+            verifyNoInteractions(stockReservationService);
+        }
+    }
+
     @Nested
     @DisplayName("Update edge cases")
     class UpdateEdgeCaseTests {
@@ -258,7 +380,7 @@ class OrderServiceTest {
         @Test
         @DisplayName("Should throw NotFoundException when updating status of non-existent order")
         void updateStatus_WhenNotFound_ShouldThrow() {
-            when(orderRepository.findById(99L)).thenReturn(Optional.empty());
+            when(orderRepository.findWithDetailsById(99L)).thenReturn(Optional.empty());
 
             assertThatThrownBy(() -> orderService.updateStatus(99L, OrderStatus.SHIPPED))
                     .isInstanceOf(NotFoundException.class)
@@ -271,26 +393,39 @@ class OrderServiceTest {
     class DeleteTests {
 
         @Test
-        @DisplayName("Should delete order when it exists")
-        void delete_WhenOrderExists_ShouldDeleteOrder() {
-            when(orderRepository.existsById(1L)).thenReturn(true);
+        @DisplayName("Should delete order and release its stock")
+        void delete_WhenOrderExists_ShouldReleaseStockAndDelete() {
+            when(orderRepository.findWithDetailsById(1L)).thenReturn(Optional.of(order));
+
+            orderService.delete(1L);
+
+            verify(stockReservationService).release(Map.of(100L, 2));
+            verify(orderRepository).delete(order);
+        }
+
+        @Test
+        @DisplayName("Should not release stock again when deleting a cancelled order")
+        void delete_WhenCancelled_ShouldNotReleaseStock() {
+            order.setStatus(OrderStatus.CANCELLED);
+            when(orderRepository.findWithDetailsById(1L)).thenReturn(Optional.of(order));
 
             orderService.delete(1L);
 
-            verify(orderRepository).existsById(1L);
-            verify(orderRepository).deleteById(1L);
+            verify(stockReservationService, never()).release(any());
+            verify(orderRepository).delete(order);
         }
 
         @Test
         @DisplayName("Should throw NotFoundException when deleting non-existent order")
         void delete_WhenNotFound_ShouldThrow() {
-            when(orderRepository.existsById(99L)).thenReturn(false);
+            when(orderRepository.findWithDetailsById(99L)).thenReturn(Optional.empty());
 
             assertThatThrownBy(() -> orderService.delete(99L))
                     .isInstanceOf(NotFoundException.class)
                     .hasMessageContaining("Order not found with id: 99");
 
-            verify(orderRepository, never()).deleteById(anyLong());
+            verify(orderRepository, never()).delete(any(Order.class));
+            verifyNoInteractions(stockReservationService);
         }
     }
 }
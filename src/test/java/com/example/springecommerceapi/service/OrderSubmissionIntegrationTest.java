@@ -0,0 +1,289 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.config.CacheConfig;
+import com.example.springecommerceapi.config.OrderWorkerConfig;
+import com.example.springecommerceapi.domain.Customer;
+import com.example.springecommerceapi.domain.OrderSubmission;
+import com.example.springecommerceapi.domain.OrderSubmissionStatus;
+import com.example.springecommerceapi.domain.Product;
+import com.example.springecommerceapi.dto.OrderItemRequest;
+import com.example.springecommerceapi.dto.OrderRequest;
+import com.example.springecommerceapi.dto.OrderResponse;
+import com.example.springecommerceapi.dto.OrderSubmissionResponse;
+import com.example.springecommerceapi.exception.ConflictException;
+import com.example.springecommerceapi.repository.CustomerRepository;
+import com.example.springecommerceapi.repository.OrderRepository;
+import com.example.springecommerceapi.repository.OrderSubmissionRepository;
+import com.example.springecommerceapi.repository.ProductRepository;
+import com.example.springecommerceapi.repository.ProductStockRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({CacheConfig.class, OrderService.class, StockReservationService.class, ProductStockRepository.class,
+        OrderSubmissionService.class, OrderWorkerConfig.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.hikari.maximum-pool-size=16"
+})
+@DisplayName("OrderSubmissionService integration Tests")
+class OrderSubmissionIntegrationTest {
+
+    @Autowired
+    private OrderSubmissionService orderSubmissionService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderSubmissionRepository submissionRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long customerId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        customerId = customerRepository.save(Customer.builder()
+                .firstName("Ayşe").lastName("Yılmaz").email("ayse@example.com").build()).getId();
+        productId = productRepository.save(Product.builder()
+                .name("Kulaklık").sku("HS-1").price(BigDecimal.valueOf(250)).stockQuantity(100).active(true)
+                .build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        submissionRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Nested
+    @DisplayName("Idempotency-Key")
+    class IdempotencyTests {
+
+        @Test
+        @DisplayName("A retried request should replay the original order instead of placing another")
+        void createIdempotent_WhenRetried_ShouldReplay() {
+            OrderResponse first = orderSubmissionService.createIdempotent("key-1", request(2));
+            OrderResponse retry = orderSubmissionService.createIdempotent("key-1", request(2));
+
+            assertThat(retry).isEqualTo(first);
+            assertThat(orderRepository.count()).isEqualTo(1);
+            assertThat(stock()).isEqualTo(98);
+        }
+
+        @Test
+        @DisplayName("Concurrent retries with one key should place exactly one order")
+        void createIdempotent_WhenConcurrent_ShouldPlaceOneOrder() throws Exception {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<OrderResponse>> results = new ArrayList<>();
+            try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+                for (int i = 0; i < 8; i++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return orderSubmissionService.createIdempotent("key-race", request(1));
+                    }));
+                }
+                start.countDown();
+
+                List<Long> orderIds = new ArrayList<>();
+                for (Future<OrderResponse> result : results) {
+                    orderIds.add(result.get().getId());
+                }
+                assertThat(orderIds).containsOnly(orderIds.get(0));
+            }
+
+            assertThat(orderRepository.count()).isEqualTo(1);
+            assertThat(stock()).isEqualTo(99);
+        }
+
+        @Test
+        @DisplayName("Reusing a key for a different request should be rejected")
+        void createIdempotent_WhenPayloadDiffers_ShouldConflict() {
+            orderSubmissionService.createIdempotent("key-2", request(1));
+
+            assertThatThrownBy(() -> orderSubmissionService.createIdempotent("key-2", request(3)))
+                    .isInstanceOf(ConflictException.class);
+            assertThat(orderRepository.count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("A failed attempt should leave no trace so the retry can succeed")
+        void createIdempotent_WhenFirstAttemptFails_ShouldAllowRetry() {
+            assertThatThrownBy(() -> orderSubmissionService.createIdempotent("key-3", request(500)));
+            assertThat(submissionRepository.count()).isZero();
+
+            OrderResponse retry = orderSubmissionService.createIdempotent("key-3", request(5));
+            assertThat(retry.getId()).isNotNull();
+        }
+
+        @Test
+        @DisplayName("Expired finished submissions should be deleted")
+        void deleteExpired_ShouldRemoveOnlyExpiredRows() {
+            orderSubmissionService.createIdempotent("key-old", request(1));
+            orderSubmissionService.createIdempotent("key-new", request(1));
+            submissionRepository.findByIdempotencyKey("key-old").ifPresent(submission -> {
+                submission.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+                submissionRepository.save(submission);
+            });
+
+            orderSubmissionService.deleteExpired();
+
+            assertThat(submissionRepository.findAll()).extracting("idempotencyKey").containsExactly("key-new");
+        }
+    }
+
+    @Nested
+    @DisplayName("Asynchronous placement")
+    class AsyncTests {
+
+        @Test
+        @DisplayName("Should accept the order, process it on the worker pool and report the result")
+        void submit_ShouldCompleteInBackground() throws Exception {
+            OrderSubmissionResponse accepted = orderSubmissionService.submit("async-1", request(4));
+            assertThat(accepted.getStatus()).isIn(OrderSubmissionStatus.PENDING, OrderSubmissionStatus.PROCESSING,
+                    OrderSubmissionStatus.COMPLETED);
+
+            OrderSubmissionResponse done = awaitFinished(accepted.getId());
+
+            assertThat(done.getStatus()).isEqualTo(OrderSubmissionStatus.COMPLETED);
+            assertThat(done.getOrder().getId()).isEqualTo(done.getOrderId());
+            assertThat(done.getOrder().getItems()).hasSize(1);
+            assertThat(stock()).isEqualTo(96);
+
+            OrderSubmissionResponse resubmitted = orderSubmissionService.submit("async-1", request(4));
+            assertThat(resubmitted.getId()).isEqualTo(accepted.getId());
+            assertThat(orderRepository.count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should record business failures on the submission")
+        void submit_WhenOrderRejected_ShouldMarkFailed() throws Exception {
+            OrderSubmissionResponse accepted = orderSubmissionService.submit(null, request(500));
+
+            OrderSubmissionResponse done = awaitFinished(accepted.getId());
+
+            assertThat(done.getStatus()).isEqualTo(OrderSubmissionStatus.FAILED);
+            assertThat(done.getError()).contains("Insufficient stock");
+            assertThat(orderRepository.count()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should requeue submissions whose worker never finished")
+        void sweep_ShouldReprocessOrphanedSubmissions() throws Exception {
+            OrderSubmissionResponse accepted = orderSubmissionService.submit(null, request(1));
+            awaitFinished(accepted.getId());
+            submissionRepository.findById(accepted.getId()).ifPresent(submission -> {
+                submission.setStatus(OrderSubmissionStatus.PROCESSING);
+                submission.setUpdatedAt(LocalDateTime.now().minusHours(1));
+                submissionRepository.save(submission);
+            });
+
+            orderSubmissionService.sweep();
+
+            assertThat(awaitFinished(accepted.getId()).getStatus()).isEqualTo(OrderSubmissionStatus.COMPLETED);
+        }
+
+        @Test
+        @DisplayName("A worker whose claim was requeued should not place the order a second time")
+        void sweep_WhenStalledWorkerResumes_ShouldKeepOneOrder() throws Exception {
+            LocalDateTime longAgo = LocalDateTime.now().minusHours(1);
+            Long id = submissionRepository.save(OrderSubmission.builder()
+                    .requestHash("hash")
+                    .payload(objectMapper.writeValueAsString(request(2)))
+                    .status(OrderSubmissionStatus.PENDING)
+                    .createdAt(longAgo)
+                    .updatedAt(longAgo)
+                    .expiresAt(LocalDateTime.now().plusHours(1))
+                    .build()).getId();
+            UUID stalledClaim = UUID.randomUUID();
+            assertThat(submissionRepository.claim(id, stalledClaim, longAgo)).isEqualTo(1);
+
+            orderSubmissionService.sweep();
+            OrderSubmissionResponse done = awaitFinished(id);
+
+            assertThat(done.getStatus()).isEqualTo(OrderSubmissionStatus.COMPLETED);
+            assertThat(submissionRepository.markFailed(id, stalledClaim, "late", LocalDateTime.now())).isZero();
+            assertThat(orderSubmissionService.getSubmission(id).getStatus()).isEqualTo(OrderSubmissionStatus.COMPLETED);
+            assertThat(orderRepository.count()).isEqualTo(1);
+            assertThat(stock()).isEqualTo(98);
+        }
+
+        private OrderSubmissionResponse awaitFinished(Long id) throws InterruptedException {
+            for (int i = 0; i < 100; i++) {
+                OrderSubmissionResponse submission = orderSubmissionService.getSubmission(id);
+                if (submission.getStatus() == OrderSubmissionStatus.COMPLETED
+                        || submission.getStatus() == OrderSubmissionStatus.FAILED) {
+                    return submission;
+                }
+                Thread.sleep(50);
+            }
+            throw new AssertionError("Submission " + id + " did not finish");
+        }
+    }
+
+    @Test
+    @DisplayName("Deleting an open order should give its reserved stock back")
+    void delete_WhenOrderOpen_ShouldReleaseStock() {
+        OrderResponse placed = orderSubmissionService.createIdempotent("delete-1", request(3));
+        assertThat(stock()).isEqualTo(97);
+
+        orderService.delete(placed.getId());
+
+        assertThat(orderRepository.count()).isZero();
+        assertThat(stock()).isEqualTo(100);
+    }
+
+    private OrderRequest request(int quantity) {
+        return OrderRequest.builder()
+                .customerId(customerId)
+                .items(List.of(OrderItemRequest.builder().productId(productId).quantity(quantity).build()))
+                .build();
+    }
+
+    private int stock() {
+        return productRepository.findById(productId).orElseThrow().getStockQuantity();
+    }
+}
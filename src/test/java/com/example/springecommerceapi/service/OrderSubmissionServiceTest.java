@@ -0,0 +1,308 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.domain.OrderSubmission;
+import com.example.springecommerceapi.domain.OrderSubmissionStatus;
+import com.example.springecommerceapi.dto.OrderItemRequest;
+import com.example.springecommerceapi.dto.OrderRequest;
+import com.example.springecommerceapi.dto.OrderResponse;
+import com.example.springecommerceapi.dto.OrderSubmissionResponse;
+import com.example.springecommerceapi.exception.BusinessException;
+import com.example.springecommerceapi.exception.ConflictException;
+import com.example.springecommerceapi.exception.NotFoundException;
+import com.example.springecommerceapi.repository.OrderSubmissionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderSubmissionService Tests")
+class OrderSubmissionServiceTest {
+
+    @Mock
+    private OrderSubmissionRepository submissionRepository;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private TaskExecutor orderWorkerExecutor;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private OrderSubmissionService orderSubmissionService;
+    private OrderRequest request;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        orderSubmissionService = new OrderSubmissionService(submissionRepository, orderService, objectMapper,
+                orderWorkerExecutor, transactionManager);
+        ReflectionTestUtils.setField(orderSubmissionService, "ttl", Duration.ofHours(24));
+        ReflectionTestUtils.setField(orderSubmissionService, "sweepGrace", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(orderSubmissionService, "processingTimeout", Duration.ofMinutes(5));
+
+        request = OrderRequest.builder()
+                .customerId(1L)
+                .items(List.of(OrderItemRequest.builder().productId(100L).quantity(2).build()))
+                .build();
+    }
+
+    @Nested
+    @DisplayName("createIdempotent()")
+    class CreateIdempotentTests {
+
+        @Test
+        @DisplayName("Should create the order and record it under the key")
+        void createIdempotent_WhenNewKey_ShouldCreateOrder() {
+            OrderResponse response = OrderResponse.builder().id(7L).totalAmount(BigDecimal.TEN).build();
+            when(submissionRepository.findByIdempotencyKey("key")).thenReturn(Optional.empty());
+            when(submissionRepository.saveAndFlush(any(OrderSubmission.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(orderService.create(request)).thenReturn(response);
+
+            OrderResponse result = orderSubmissionService.createIdempotent("key", request);
+
+            assertThat(result).isEqualTo(response);
+            verify(submissionRepository).saveAndFlush(argThat(submission ->
+                    submission.getIdempotencyKey().equals("key")
+                            && submission.getStatus() == OrderSubmissionStatus.COMPLETED
+                            && submission.getOrderId().equals(7L)));
+        }
+
+        @Test
+        @DisplayName("Should replay a completed submission without creating another order")
+        void createIdempotent_WhenCompleted_ShouldReplay() throws Exception {
+            OrderResponse stored = OrderResponse.builder().id(7L).totalAmount(BigDecimal.TEN).build();
+            when(submissionRepository.findByIdempotencyKey("key")).thenReturn(Optional.of(
+                    submission(OrderSubmissionStatus.COMPLETED, hashOf(request), objectMapper.writeValueAsString(stored))));
+
+            OrderResponse result = orderSubmissionService.createIdempotent("key", request);
+
+            assertThat(result).isEqualTo(stored);
+            verify(orderService, never()).create(any());
+        }
+
+        @Test
+        @DisplayName("Should reject a key reused with a different request")
+        void createIdempotent_WhenHashDiffers_ShouldConflict() {
+            when(submissionRepository.findByIdempotencyKey("key")).thenReturn(Optional.of(
+                    submission(OrderSubmissionStatus.COMPLETED, "other-hash", "{}")));
+
+            assertThatThrownBy(() -> orderSubmissionService.createIdempotent("key", request))
+                    .isInstanceOf(ConflictException.class)
+                    .hasMessageContaining("different request");
+        }
+
+        @Test
+        @DisplayName("Should report a submission that is still in progress")
+        void createIdempotent_WhenInProgress_ShouldConflict() {
+            when(submissionRepository.findByIdempotencyKey("key")).thenReturn(Optional.of(
+                    submission(OrderSubmissionStatus.PENDING, hashOf(request), null)));
+
+            assertThatThrownBy(() -> orderSubmissionService.createIdempotent("key", request))
+                    .isInstanceOf(ConflictException.class)
+                    .hasMessageContaining("still being processed");
+        }
+
+        @Test
+        @DisplayName("Should replay the failure of a failed submission")
+        void createIdempotent_WhenFailed_ShouldThrowStoredError() {
+            OrderSubmission failed = submission(OrderSubmissionStatus.FAILED, hashOf(request), null);
+            failed.setError("Insufficient stock for product: Phone");
+            when(submissionRepository.findByIdempotencyKey("key")).thenReturn(Optional.of(failed));
+
+            assertThatThrownBy(() -> orderSubmissionService.createIdempotent("key", request))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessage("Insufficient stock for product: Phone");
+        }
+
+        @Test
+        @DisplayName("Should reject a blank or oversized key")
+        void createIdempotent_WhenKeyInvalid_ShouldThrow() {
+            assertThatThrownBy(() -> orderSubmissionService.createIdempotent(" ", request))
+                    .isInstanceOf(BusinessException.class);
+            assertThatThrownBy(() -> orderSubmissionService.createIdempotent("k".repeat(101), request))
+                    .isInstanceOf(BusinessException.class);
+            verifyNoInteractions(submissionRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("submit()")
+    class SubmitTests {
+
+        @Test
+        @DisplayName("Should persist a pending submission and hand it to the worker pool")
+        void submit_ShouldDispatch() {
+            when(submissionRepository.saveAndFlush(any(OrderSubmission.class))).thenAnswer(inv -> {
+                OrderSubmission submission = inv.getArgument(0);
+                submission.setId(3L);
+                return submission;
+            });
+
+            OrderSubmissionResponse result = orderSubmissionService.submit(null, request);
+
+            assertThat(result.getId()).isEqualTo(3L);
+            assertThat(result.getStatus()).isEqualTo(OrderSubmissionStatus.PENDING);
+            verify(orderWorkerExecutor).execute(any(Runnable.class));
+        }
+
+        @Test
+        @DisplayName("Should accept the submission even when the worker queue is full")
+        void submit_WhenQueueFull_ShouldLeaveForSweeper() {
+            when(submissionRepository.saveAndFlush(any(OrderSubmission.class))).thenAnswer(inv -> inv.getArgument(0));
+            doThrow(new TaskRejectedException("full")).when(orderWorkerExecutor).execute(any(Runnable.class));
+
+            OrderSubmissionResponse result = orderSubmissionService.submit(null, request);
+
+            assertThat(result.getStatus()).isEqualTo(OrderSubmissionStatus.PENDING);
+        }
+
+        @Test
+        @DisplayName("Should return the existing submission for a repeated key")
+        void submit_WhenKeyExists_ShouldReturnExisting() {
+            OrderSubmission existing = submission(OrderSubmissionStatus.PROCESSING, hashOf(request), null);
+            when(submissionRepository.findByIdempotencyKey("key")).thenReturn(Optional.of(existing));
+
+            OrderSubmissionResponse result = orderSubmissionService.submit("key", request);
+
+            assertThat(result.getId()).isEqualTo(existing.getId());
+            verify(submissionRepository, never()).saveAndFlush(any());
+            verifyNoInteractions(orderWorkerExecutor);
+        }
+    }
+
+    @Nested
+    @DisplayName("process()")
+    class ProcessTests {
+
+        @Test
+        @DisplayName("Should skip a submission claimed by another worker")
+        void process_WhenNotClaimed_ShouldSkip() {
+            when(submissionRepository.claim(eq(3L), any(), any())).thenReturn(0);
+
+            orderSubmissionService.process(3L);
+
+            verifyNoInteractions(orderService);
+        }
+
+        @Test
+        @DisplayName("Should not place the order when the claim was requeued and taken over")
+        void process_WhenClaimLost_ShouldNotCreateOrder() {
+            when(submissionRepository.claim(eq(3L), any(), any())).thenReturn(1);
+            when(submissionRepository.lockClaimed(eq(3L), any())).thenReturn(Optional.empty());
+
+            orderSubmissionService.process(3L);
+
+            verifyNoInteractions(orderService);
+            verify(submissionRepository, never()).markCompleted(anyLong(), any(), anyLong(), anyString(), any());
+            verify(submissionRepository, never()).markFailed(anyLong(), any(), anyString(), any());
+        }
+
+        @Test
+        @DisplayName("Should complete under the token it claimed with")
+        void process_ShouldCompleteWithClaimToken() {
+            ArgumentCaptor<UUID> claimed = ArgumentCaptor.forClass(UUID.class);
+            when(submissionRepository.claim(eq(3L), claimed.capture(), any())).thenReturn(1);
+            when(submissionRepository.lockClaimed(eq(3L), any())).thenReturn(Optional.of(
+                    submission(OrderSubmissionStatus.PROCESSING, hashOf(request), null)));
+            when(orderService.create(any())).thenReturn(OrderResponse.builder().id(42L).build());
+
+            orderSubmissionService.process(3L);
+
+            verify(submissionRepository).lockClaimed(3L, claimed.getValue());
+            verify(submissionRepository).markCompleted(eq(3L), eq(claimed.getValue()), eq(42L), anyString(), any());
+        }
+
+        @Test
+        @DisplayName("Should record business failures")
+        void process_WhenOrderRejected_ShouldMarkFailed() {
+            when(submissionRepository.claim(eq(3L), any(), any())).thenReturn(1);
+            when(submissionRepository.lockClaimed(eq(3L), any())).thenReturn(Optional.of(
+                    submission(OrderSubmissionStatus.PROCESSING, hashOf(request), null)));
+            when(orderService.create(any())).thenThrow(new NotFoundException("Customer not found with id: 1"));
+
+            orderSubmissionService.process(3L);
+
+            verify(submissionRepository).markFailed(eq(3L), any(), eq("Customer not found with id: 1"), any());
+            verify(submissionRepository, never()).markCompleted(anyLong(), any(), anyLong(), anyString(), any());
+        }
+
+        @Test
+        @DisplayName("Should not expose unexpected error details")
+        void process_WhenUnexpectedError_ShouldMarkFailedGenerically() {
+            when(submissionRepository.claim(eq(3L), any(), any())).thenReturn(1);
+            when(submissionRepository.lockClaimed(eq(3L), any())).thenReturn(Optional.of(
+                    submission(OrderSubmissionStatus.PROCESSING, hashOf(request), null)));
+            when(orderService.create(any())).thenThrow(new IllegalStateException("connection reset"));
+
+            orderSubmissionService.process(3L);
+
+            verify(submissionRepository).markFailed(eq(3L), any(), eq("Unexpected error occurred"), any());
+        }
+    }
+
+    @Test
+    @DisplayName("getSubmission() should throw NotFoundException for unknown ids")
+    void getSubmission_WhenMissing_ShouldThrow() {
+        when(submissionRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> orderSubmissionService.getSubmission(9L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("Order submission not found with id: 9");
+    }
+
+    private OrderSubmission submission(OrderSubmissionStatus status, String requestHash, String response) {
+        try {
+            return OrderSubmission.builder()
+                    .id(3L)
+                    .idempotencyKey("key")
+                    .requestHash(requestHash)
+                    .payload(objectMapper.writeValueAsString(request))
+                    .status(status)
+                    .response(response)
+                    .build();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private String hashOf(OrderRequest orderRequest) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(orderRequest);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.config.CacheConfig;
+import com.example.springecommerceapi.domain.Category;
+import com.example.springecommerceapi.domain.Product;
+import com.example.springecommerceapi.dto.CategoryRequest;
+import com.example.springecommerceapi.dto.ProductRequest;
+import com.example.springecommerceapi.dto.ProductResponse;
+import com.example.springecommerceapi.repository.ProductStockRepository;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE)
+@Import({CacheConfig.class, ProductService.class, CategoryTreeCache.class, CategoryService.class,
+        StockReservationService.class, ProductStockRepository.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.cache.cache-names=products,productIdsBySku,categories",
+        "spring.cache.caffeine.spec=maximumSize=100,recordStats"
+})
+@DisplayName("Product cache Tests")
+class ProductCacheTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Statistics statistics;
+    private Long productId;
+    private Long categoryId;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        Category audio = entityManager.persist(Category.builder().name("Audio").build());
+        productId = entityManager.persistAndGetId(Product.builder()
+                .name("Headset")
+                .sku("HS-1")
+                .price(BigDecimal.valueOf(100))
+                .stockQuantity(10)
+                .active(true)
+                .category(audio)
+                .build(), Long.class);
+        categoryId = audio.getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Repeated reads by id should be served from the cache")
+    void getById_ShouldHitDatabaseOnce() {
+        productService.getById(productId);
+        productService.getById(productId);
+        productService.getById(productId);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(nativeStats(CacheConfig.PRODUCTS).hitCount()).isEqualTo(2);
+        assertThat(nativeStats(CacheConfig.PRODUCTS).missCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Looking up several products should cost one query for the cache misses")
+    void getByIds_ShouldBatchCacheMisses() {
+        Long second = persistProduct("HS-2");
+        Long third = persistProduct("HS-3");
+        productService.getById(productId);
+        statistics.clear();
+
+        List<ProductResponse> products = productService.getByIds(List.of(third, productId, second));
+        productService.getByIds(List.of(second, third));
+
+        assertThat(products).extracting(ProductResponse::getId).containsExactly(third, productId, second);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Reads by SKU should share the id-keyed product entry")
+    void getBySku_ShouldReuseProductEntry() {
+        productService.getById(productId);
+        statistics.clear();
+
+        ProductResponse bySku = productService.getBySku("HS-1");
+        productService.getBySku("HS-1");
+
+        assertThat(bySku.getId()).isEqualTo(productId);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Updating a product should evict its cached response")
+    void update_ShouldEvictProduct() {
+        productService.getById(productId);
+
+        productService.update(productId, productRequest("Headset Pro", "HS-2"));
+        entityManager.flush();
+
+        assertThat(productService.getById(productId).getName()).isEqualTo("Headset Pro");
+        assertThat(productService.getBySku("HS-2").getId()).isEqualTo(productId);
+    }
+
+    @Test
+    @DisplayName("Renaming a category should evict products carrying its name")
+    void categoryUpdate_ShouldEvictProducts() {
+        productService.getById(productId);
+
+        CategoryRequest rename = new CategoryRequest();
+        rename.setName("Sound");
+        categoryService.update(categoryId, rename);
+        assertThat(cacheManager.getCache(CacheConfig.PRODUCTS).get(productId))
+                .as("eviction waits for the commit")
+                .isNotNull();
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        try {
+            assertThat(productService.getById(productId).getCategoryName()).isEqualTo("Sound");
+        } finally {
+            TestTransaction.start();
+            entityManager.getEntityManager().createQuery("DELETE FROM Product").executeUpdate();
+            entityManager.getEntityManager().createQuery("DELETE FROM Category").executeUpdate();
+            TestTransaction.flagForCommit();
+            TestTransaction.end();
+        }
+    }
+
+    @Test
+    @DisplayName("Reserving stock should evict the reserved products")
+    void reserve_ShouldEvictProduct() {
+        productService.getById(productId);
+
+        stockReservationService.reserve(Map.of(productId, 3));
+        assertThat(cacheManager.getCache(CacheConfig.PRODUCTS).get(productId))
+                .as("eviction waits for the commit")
+                .isNotNull();
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        try {
+            assertThat(productService.getById(productId).getStockQuantity()).isEqualTo(7);
+        } finally {
+            TestTransaction.start();
+            entityManager.getEntityManager().createQuery("DELETE FROM Product").executeUpdate();
+            entityManager.getEntityManager().createQuery("DELETE FROM Category").executeUpdate();
+            TestTransaction.flagForCommit();
+            TestTransaction.end();
+        }
+    }
+
+    private Long persistProduct(String sku) {
+        Long id = entityManager.persistAndGetId(Product.builder()
+                .name("Headset " + sku)
+                .sku(sku)
+                .price(BigDecimal.valueOf(100))
+                .stockQuantity(10)
+                .active(true)
+                .category(entityManager.find(Category.class, categoryId))
+                .build(), Long.class);
+        entityManager.flush();
+        entityManager.clear();
+        return id;
+    }
+
+    private CacheStats nativeStats(String name) {
+        return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache().stats();
+    }
+
+    private ProductRequest productRequest(String name, String sku) {
+        ProductRequest request = new ProductRequest();
+        request.setName(name);
+        request.setSku(sku);
+        request.setPrice(BigDecimal.valueOf(120));
+        request.setStockQuantity(10);
+        request.setActive(true);
+        request.setCategoryId(categoryId);
+        return request;
+    }
+}
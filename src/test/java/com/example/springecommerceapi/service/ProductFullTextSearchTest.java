@@ -0,0 +1,84 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.domain.Category;
+import com.example.springecommerceapi.domain.Product;
+import com.example.springecommerceapi.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the V2/V9 search migrations against a real PostgreSQL, since H2 has no text search. Point
+ * {@code SEARCH_TEST_DATABASE_URL} at a scratch database to enable it.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "SEARCH_TEST_DATABASE_URL", matches = ".+")
+@TestPropertySource(properties = {
+        "spring.datasource.url=${SEARCH_TEST_DATABASE_URL}",
+        "spring.datasource.username=${SEARCH_TEST_DATABASE_USERNAME:ecommerce_user}",
+        "spring.datasource.password=${SEARCH_TEST_DATABASE_PASSWORD:ecommerce_pass}",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=none"
+})
+@DisplayName("Product full-text search Tests")
+class ProductFullTextSearchTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Long headphonesId;
+
+    @BeforeEach
+    void setUp() {
+        Category audio = entityManager.persist(Category.builder().name("Ses Sistemleri").build());
+        headphonesId = entityManager.persistAndGetId(Product.builder()
+                .name("Kablosuz Kulaklık")
+                .sku("FTS-1")
+                .price(BigDecimal.valueOf(1200))
+                .stockQuantity(5)
+                .active(true)
+                .category(audio)
+                .build(), Long.class);
+        entityManager.persist(Product.builder()
+                .name("Oyun Konsolu")
+                .sku("FTS-2")
+                .price(BigDecimal.valueOf(15000))
+                .stockQuantity(5)
+                .active(true)
+                .build());
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("An inflected Turkish query should match the stemmed product name")
+    void fullTextSearch_WhenQueryInflected_ShouldMatch() {
+        assertThat(search("kulaklıklar")).containsExactly(headphonesId);
+        assertThat(search("kulaklığı")).containsExactly(headphonesId);
+    }
+
+    @Test
+    @DisplayName("A query typed without Turkish characters should still match")
+    void fullTextSearch_WhenQueryUnaccented_ShouldMatch() {
+        assertThat(search("kulaklik")).containsExactly(headphonesId);
+        assertThat(search("sistemleri")).containsExactly(headphonesId);
+    }
+
+    private List<Long> search(String keyword) {
+        return productRepository.fullTextSearchIds(ProductService.toPrefixQuery(keyword), null, null, null, 10);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.config.CacheConfig;
+import com.example.springecommerceapi.domain.Category;
+import com.example.springecommerceapi.domain.CategoryClosure;
+import com.example.springecommerceapi.domain.Product;
+import com.example.springecommerceapi.dto.CursorPage;
+import com.example.springecommerceapi.dto.ProductResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({CacheConfig.class, ProductService.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "catalog.search.full-text-enabled=false",
+        "catalog.search.max-results=" + ProductServiceQueryCountTest.MAX_RESULTS
+})
+@DisplayName("ProductService query count Tests")
+class ProductServiceQueryCountTest {
+
+    private static final int PRODUCT_COUNT = 20;
+    static final int MAX_RESULTS = 15;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductService productService;
+
+    private Statistics statistics;
+    private Long electronicsId;
+    private Long audioId;
+
+    @BeforeEach
+    void setUp() {
+        Category electronics = entityManager.persist(Category.builder().name("Electronics").build());
+        Category audio = entityManager.persist(Category.builder().name("Audio").parent(electronics).build());
+        Category gaming = entityManager.persist(Category.builder().name("Gaming").build());
+        audioId = audio.getId();
+        electronicsId = electronics.getId();
+        persistClosure(electronics, electronics, 0);
+        persistClosure(audio, audio, 0);
+        persistClosure(electronics, audio, 1);
+        persistClosure(gaming, gaming, 0);
+
+        for (int i = 0; i < PRODUCT_COUNT; i++) {
+            entityManager.persist(Product.builder()
+                    .name("Headset " + i)
+                    .sku("HS-" + i)
+                    .price(BigDecimal.valueOf(100 + i))
+                    .stockQuantity(i % 3)
+                    .active(true)
+                    .category(i % 2 == 0 ? audio : gaming)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Listing a page should issue a single statement")
+    void getPage_ShouldIssueSingleStatement() {
+        CursorPage<ProductResponse> page = productService.getPage(null, PRODUCT_COUNT);
+
+        assertThat(page.items()).hasSize(PRODUCT_COUNT).allMatch(p -> p.getCategoryName() != null);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Searching should issue a single statement")
+    void searchProducts_ShouldIssueSingleStatement() {
+        List<ProductResponse> results = productService.searchProducts("headset", null, null, null);
+
+        assertThat(results).hasSize(MAX_RESULTS).allMatch(p -> p.getCategoryName() != null);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("LIKE search should return the first max-results matches, in stock first, then in id order")
+    void searchProducts_ShouldCapLikeResultsInStockFirst() {
+        List<Long> expected = productService.getPage(null, PRODUCT_COUNT).items().stream()
+                .sorted(Comparator.comparing((ProductResponse p) -> p.getStockQuantity() == 0)
+                        .thenComparing(ProductResponse::getId))
+                .map(ProductResponse::getId)
+                .limit(MAX_RESULTS)
+                .toList();
+
+        List<ProductResponse> results = productService.searchProducts("headset", null, null, null);
+
+        assertThat(results).extracting(ProductResponse::getId).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("A caller's smaller limit should be applied in the query")
+    void searchProducts_WithLimit_ShouldReturnTopInStockMatches() {
+        List<ProductResponse> results = productService.searchProducts("headset", null, null, null, null, 3);
+
+        assertThat(results).hasSize(3).allMatch(p -> p.getStockQuantity() > 0);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Searching a category subtree should issue a single statement")
+    void searchProducts_WithCategory_ShouldIssueSingleStatement() {
+        List<ProductResponse> results = productService.searchProducts("headset", null, null, null, electronicsId);
+
+        assertThat(results).hasSize(PRODUCT_COUNT / 2).allMatch(p -> p.getCategoryId().equals(audioId));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Getting by id should issue a single statement")
+    void getById_ShouldIssueSingleStatement() {
+        Long id = productService.getPage(null, 1).items().get(0).getId();
+        statistics.clear();
+
+        ProductResponse response = productService.getById(id);
+
+        assertThat(response.getCategoryName()).isEqualTo("Audio");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Exporting should issue a single statement")
+    void exportAll_ShouldIssueSingleStatement() {
+        List<ProductResponse> exported = new ArrayList<>();
+
+        productService.exportAll(exported::add);
+
+        assertThat(exported).hasSize(PRODUCT_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private void persistClosure(Category ancestor, Category descendant, int depth) {
+        entityManager.persist(CategoryClosure.builder()
+                .ancestorId(ancestor.getId())
+                .descendantId(descendant.getId())
+                .depth(depth)
+                .build());
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.springecommerceapi.service;
 
+import com.example.springecommerceapi.config.CacheConfig;
 import com.example.springecommerceapi.domain.Category;
 import com.example.springecommerceapi.domain.Product;
+import com.example.springecommerceapi.dto.CursorPage;
 import com.example.springecommerceapi.dto.ProductRequest;
 import com.example.springecommerceapi.dto.ProductResponse;
 import com.example.springecommerceapi.exception.BusinessException;
@@ -17,10 +19,18 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -37,6 +47,12 @@ class ProductServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CacheManager cacheManager;
+
     @InjectMocks
     private ProductService productService;
 
@@ -48,6 +64,7 @@ class ProductServiceTest {
                 .id(1L)
                 .name("Electronics")
                 .build();
+        ReflectionTestUtils.setField(productService, "maxSearchResults", 100);
     }
 
     private ProductRequest createDefaultRequest() {
@@ -61,6 +78,19 @@ class ProductServiceTest {
         return request;
     }
 
+    private ProductResponse createDefaultResponse(Long id) {
+        return ProductResponse.builder()
+                .id(id)
+                .name("iPhone 15")
+                .sku("IPHONE-15-BLACK-128")
+                .price(BigDecimal.valueOf(49999.90))
+                .stockQuantity(10)
+                .active(true)
+                .categoryId(1L)
+                .categoryName("Electronics")
+                .build();
+    }
+
     private Product createDefaultProduct() {
         return Product.builder()
                 .id(1L)
@@ -131,7 +161,7 @@ class ProductServiceTest {
         @Test
         @DisplayName("Should return product when it exists")
         void getById_shouldReturnProduct_whenProductExists() {
-            when(productRepository.findById(1L)).thenReturn(Optional.of(createDefaultProduct()));
+            when(productRepository.findResponseById(1L)).thenReturn(Optional.of(createDefaultResponse(1L)));
 
             ProductResponse response = productService.getById(1L);
 
@@ -139,58 +169,230 @@ class ProductServiceTest {
             assertThat(response.getName()).isEqualTo("iPhone 15");
             assertThat(response.getSku()).isEqualTo("IPHONE-15-BLACK-128");
             assertThat(response.getCategoryName()).isEqualTo("Electronics");
-            verify(productRepository).findById(1L);
+            verify(productRepository).findResponseById(1L);
+            verify(productRepository, never()).findById(anyLong());
         }
 
         @Test
         @DisplayName("Should throw NotFoundException when product does not exist")
         void getById_shouldThrowNotFound_whenProductDoesNotExist() {
-            when(productRepository.findById(99L)).thenReturn(Optional.empty());
+            when(productRepository.findResponseById(99L)).thenReturn(Optional.empty());
 
             assertThatThrownBy(() -> productService.getById(99L))
                     .isInstanceOf(NotFoundException.class)
                     .hasMessageContaining("Product not found");
 
-            verify(productRepository).findById(99L);
+            verify(productRepository).findResponseById(99L);
         }
 
         @Test
-        @DisplayName("Should return all products")
-        void getAll_shouldReturnAllProducts() {
-            Product product1 = createDefaultProduct();
-            Product product2 = Product.builder()
-                    .id(2L)
-                    .name("MacBook Pro")
-                    .sku("MACBOOK-PRO-14")
-                    .price(BigDecimal.valueOf(79999.90))
-                    .stockQuantity(5)
-                    .active(true)
-                    .category(electronicsCategory)
-                    .build();
+        @DisplayName("Should return existing products in the requested order, once each")
+        void getByIds_shouldKeepOrderAndSkipMissing() {
+            Cache products = new ConcurrentMapCache(CacheConfig.PRODUCTS);
+            products.put(3L, createDefaultResponse(3L));
+            when(cacheManager.getCache(CacheConfig.PRODUCTS)).thenReturn(products);
+            when(productRepository.findResponsesByIdIn(List.of(99L, 1L))).thenReturn(List.of(createDefaultResponse(1L)));
+
+            List<ProductResponse> responses = productService.getByIds(List.of(3L, 99L, 1L, 3L));
+
+            assertThat(responses).extracting(ProductResponse::getId).containsExactly(3L, 1L);
+            assertThat(products.get(1L, ProductResponse.class)).as("loaded products are cached").isNotNull();
+            verify(productRepository, never()).findResponseById(anyLong());
+        }
 
-            when(productRepository.findAll()).thenReturn(List.of(product1, product2));
+        @Test
+        @DisplayName("Should resolve SKU to id and return the product")
+        void getBySku_shouldReturnProduct_whenSkuExists() {
+            when(productRepository.findIdBySku("IPHONE-15-BLACK-128")).thenReturn(Optional.of(1L));
+            when(productRepository.findResponseById(1L)).thenReturn(Optional.of(createDefaultResponse(1L)));
 
-            List<ProductResponse> responses = productService.getAll();
+            ProductResponse response = productService.getBySku("IPHONE-15-BLACK-128");
 
-            assertThat(responses).hasSize(2);
-            assertThat(responses)
+            assertThat(response.getId()).isEqualTo(1L);
+            verify(productRepository, never()).findById(anyLong());
+        }
+
+        @Test
+        @DisplayName("Should throw NotFoundException when SKU does not exist")
+        void getBySku_shouldThrowNotFound_whenSkuDoesNotExist() {
+            when(productRepository.findIdBySku("MISSING")).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> productService.getBySku("MISSING"))
+                    .isInstanceOf(NotFoundException.class)
+                    .hasMessageContaining("Product not found with sku: MISSING");
+
+            verify(productRepository, never()).findResponseById(anyLong());
+        }
+
+        @Test
+        @DisplayName("Should return first page with continuation cursor when more rows exist")
+        void getPage_shouldReturnFirstPageWithCursor_whenMoreRowsExist() {
+            when(productRepository.findResponsePageAfter(0L, Limit.of(2)))
+                    .thenReturn(List.of(createDefaultResponse(1L), createDefaultResponse(2L)));
+
+            CursorPage<ProductResponse> page = productService.getPage(null, 1);
+
+            assertThat(page.items())
+                    .extracting(ProductResponse::getId)
+                    .containsExactly(1L);
+            assertThat(page.nextCursor()).isNotBlank();
+        }
+
+        @Test
+        @DisplayName("Should continue after the id encoded in the cursor")
+        void getPage_shouldContinueAfterCursor() {
+            when(productRepository.findResponsePageAfter(0L, Limit.of(2)))
+                    .thenReturn(List.of(createDefaultResponse(1L), createDefaultResponse(2L)));
+            String cursor = productService.getPage(null, 1).nextCursor();
+
+            when(productRepository.findResponsePageAfter(1L, Limit.of(2)))
+                    .thenReturn(List.of(createDefaultResponse(2L)));
+
+            CursorPage<ProductResponse> page = productService.getPage(cursor, 1);
+
+            assertThat(page.items())
+                    .extracting(ProductResponse::getId)
+                    .containsExactly(2L);
+            assertThat(page.nextCursor()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should throw BusinessException when cursor is malformed")
+        void getPage_shouldThrowBusinessException_whenCursorIsMalformed() {
+            assertThatThrownBy(() -> productService.getPage("not-a-cursor!", 10))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("Invalid cursor");
+
+            verify(productRepository, never()).findResponsePageAfter(anyLong(), any());
+        }
+
+        @Test
+        @DisplayName("Should stream every product to the consumer")
+        void exportAll_shouldStreamEveryProduct() {
+            when(productRepository.streamAllResponses())
+                    .thenReturn(Stream.of(createDefaultResponse(1L), createDefaultResponse(2L)));
+
+            List<ProductResponse> exported = new ArrayList<>();
+            productService.exportAll(exported::add);
+
+            assertThat(exported)
                     .extracting(ProductResponse::getId)
-                    .containsExactlyInAnyOrder(1L, 2L);
-            verify(productRepository).findAll();
+                    .containsExactly(1L, 2L);
         }
 
         @Test
         @DisplayName("Should search products with criteria")
         void searchProducts_shouldReturnFilteredProducts() {
-            Product product = createDefaultProduct();
-            when(productRepository.searchProducts("iPhone", BigDecimal.valueOf(10000), BigDecimal.valueOf(60000), true))
-                    .thenReturn(List.of(product));
+            when(productRepository.searchProducts("iPhone", BigDecimal.valueOf(10000), BigDecimal.valueOf(60000), true,
+                    Limit.of(100)))
+                    .thenReturn(List.of(createDefaultResponse(1L)));
 
             List<ProductResponse> responses = productService.searchProducts("iPhone", BigDecimal.valueOf(10000), BigDecimal.valueOf(60000), true);
 
             assertThat(responses).hasSize(1);
             assertThat(responses.get(0).getName()).isEqualTo("iPhone 15");
-            verify(productRepository).searchProducts("iPhone", BigDecimal.valueOf(10000), BigDecimal.valueOf(60000), true);
+            verify(productRepository).searchProducts("iPhone", BigDecimal.valueOf(10000), BigDecimal.valueOf(60000), true,
+                    Limit.of(100));
+        }
+    }
+
+    @Nested
+    @DisplayName("Category subtree search")
+    class CategorySearchTests {
+
+        @Test
+        @DisplayName("Should use the subtree-aware filter query")
+        void searchProducts_shouldUseSubtreeQuery() {
+            when(productRepository.searchProductsInSubtree(null, null, null, true, 1L, Limit.of(100)))
+                    .thenReturn(List.of(createDefaultResponse(1L)));
+
+            List<ProductResponse> responses = productService.searchProducts(null, null, null, true, 1L);
+
+            assertThat(responses).hasSize(1);
+            verify(productRepository, never()).searchProducts(any(), any(), any(), any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Full-text search")
+    class FullTextSearchTests {
+
+        @BeforeEach
+        void enableFullText() {
+            ReflectionTestUtils.setField(productService, "fullTextEnabled", true);
+        }
+
+        @Test
+        @DisplayName("Should query the full-text index and keep rank order")
+        void searchProducts_shouldReturnResultsInRankOrder_whenFullTextEnabled() {
+            when(productRepository.fullTextSearchIds("oyuncu:* & kulak:*", null, null, true, 100))
+                    .thenReturn(List.of(2L, 1L));
+            when(productRepository.findResponsesByIdIn(List.of(2L, 1L)))
+                    .thenReturn(List.of(createDefaultResponse(1L), createDefaultResponse(2L)));
+
+            List<ProductResponse> responses = productService.searchProducts("Oyuncu kulak", null, null, true);
+
+            assertThat(responses)
+                    .extracting(ProductResponse::getId)
+                    .containsExactly(2L, 1L);
+            verify(productRepository, never()).searchProducts(any(), any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should skip hydration when nothing matches")
+        void searchProducts_shouldReturnEmpty_whenNoIdsMatch() {
+            when(productRepository.fullTextSearchIds(anyString(), any(), any(), any(), anyInt()))
+                    .thenReturn(List.of());
+
+            assertThat(productService.searchProducts("yok", null, null, null)).isEmpty();
+            verify(productRepository, never()).findResponsesByIdIn(any());
+        }
+
+        @Test
+        @DisplayName("Should use the filter-only query when keyword has no searchable terms")
+        void searchProducts_shouldFallBackToFilterQuery_whenKeywordIsBlank() {
+            when(productRepository.searchProducts(" ?! ", null, BigDecimal.TEN, null, Limit.of(100)))
+                    .thenReturn(List.of());
+
+            productService.searchProducts(" ?! ", null, BigDecimal.TEN, null);
+
+            verify(productRepository).searchProducts(" ?! ", null, BigDecimal.TEN, null, Limit.of(100));
+            verify(productRepository, never()).fullTextSearchIds(any(), any(), any(), any(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should pass a caller's smaller limit to the query, but never more than max-results")
+        void searchProducts_shouldCapCallerLimit() {
+            when(productRepository.fullTextSearchIds(eq("kulak:*"), any(), any(), any(), anyInt()))
+                    .thenReturn(List.of());
+
+            productService.searchProducts("kulak", null, null, null, null, 11);
+            productService.searchProducts("kulak", null, null, null, null, 500);
+
+            verify(productRepository).fullTextSearchIds("kulak:*", null, null, null, 11);
+            verify(productRepository).fullTextSearchIds("kulak:*", null, null, null, 100);
+        }
+
+        @Test
+        @DisplayName("Should restrict full-text results to the category subtree")
+        void searchProducts_shouldFilterBySubtree_whenCategoryGiven() {
+            when(productRepository.fullTextSearchIdsInSubtree("kulak:*", null, null, null, 1L, 100))
+                    .thenReturn(List.of(1L));
+            when(productRepository.findResponsesByIdIn(List.of(1L))).thenReturn(List.of(createDefaultResponse(1L)));
+
+            List<ProductResponse> responses = productService.searchProducts("kulak", null, null, null, 1L);
+
+            assertThat(responses).extracting(ProductResponse::getId).containsExactly(1L);
+            verify(productRepository, never()).fullTextSearchIds(any(), any(), any(), any(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should build prefix query with Turkish lower-casing and strip operators")
+        void toPrefixQuery_shouldNormalizeTurkishInput() {
+            assertThat(ProductService.toPrefixQuery("IŞIKLI İç-Çamaşır")).isEqualTo("ışıklı:* & iç:* & çamaşır:*");
+            assertThat(ProductService.toPrefixQuery("kulaklık & | ! :*")).isEqualTo("kulaklık:*");
+            assertThat(ProductService.toPrefixQuery("   ")).isNull();
+            assertThat(ProductService.toPrefixQuery(null)).isNull();
         }
     }
 
@@ -0,0 +1,130 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.config.CacheConfig;
+import com.example.springecommerceapi.domain.Product;
+import com.example.springecommerceapi.exception.BusinessException;
+import com.example.springecommerceapi.repository.ProductRepository;
+import com.example.springecommerceapi.repository.ProductStockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({CacheConfig.class, StockReservationService.class, ProductStockRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.hikari.maximum-pool-size=32"
+})
+@DisplayName("StockReservationService concurrency Tests")
+class StockReservationConcurrencyTest {
+
+    private static final int BUYERS = 500;
+    private static final int INITIAL_STOCK = 120;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("500 concurrent buyers of one SKU should never oversell")
+    void reserve_UnderContention_ShouldNeverOversell() throws Exception {
+        Long productId = productRepository.save(Product.builder()
+                .name("Flash Sale Headset")
+                .sku("FLASH-001")
+                .price(BigDecimal.valueOf(499.90))
+                .stockQuantity(INITIAL_STOCK)
+                .active(true)
+                .build()).getId();
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<?>> buyers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(64)) {
+            for (int i = 0; i < BUYERS; i++) {
+                buyers.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        transactionTemplate.executeWithoutResult(
+                                status -> stockReservationService.reserve(Map.of(productId, 1)));
+                        sold.incrementAndGet();
+                    } catch (BusinessException ex) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> buyer : buyers) {
+                buyer.get();
+            }
+        }
+
+        assertThat(sold.get()).isEqualTo(INITIAL_STOCK);
+        assertThat(rejected.get()).isEqualTo(BUYERS - INITIAL_STOCK);
+        assertThat(productRepository.findById(productId).orElseThrow().getStockQuantity()).isZero();
+    }
+
+    @Test
+    @DisplayName("A multi-line order short on one line should reserve nothing")
+    void reserve_WhenOneLineShort_ShouldRollBackWholeOrder() {
+        Long plenty = saveProduct("PLENTY", 10);
+        Long scarce = saveProduct("SCARCE", 1);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status -> stockReservationService.reserve(Map.of(plenty, 5, scarce, 2)));
+        } catch (BusinessException expected) {
+            // rolled back
+        }
+
+        assertThat(productRepository.findById(plenty).orElseThrow().getStockQuantity()).isEqualTo(10);
+        assertThat(productRepository.findById(scarce).orElseThrow().getStockQuantity()).isEqualTo(1);
+    }
+
+    private Long saveProduct(String sku, int stock) {
+        return productRepository.save(Product.builder()
+                .name(sku)
+                .sku(sku)
+                .price(BigDecimal.TEN)
+                .stockQuantity(stock)
+                .active(true)
+                .build()).getId();
+    }
+}
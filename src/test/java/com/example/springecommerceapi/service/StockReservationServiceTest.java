@@ -0,0 +1,89 @@
+package com.example.springecommerceapi.service;
+
+import com.example.springecommerceapi.exception.BusinessException;
+import com.example.springecommerceapi.repository.ProductStockRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockReservationService Tests")
+class StockReservationServiceTest {
+
+    @Mock
+    private ProductStockRepository productStockRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @InjectMocks
+    private StockReservationService stockReservationService;
+
+    @SuppressWarnings("unchecked")
+    @Test
+    @DisplayName("Should decrement stock in ascending product id order")
+    void reserve_ShouldApplyLinesInProductIdOrder() {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(30L, 1);
+        quantities.put(10L, 2);
+        quantities.put(20L, 3);
+        when(productStockRepository.decrementStock(any())).thenReturn(new int[]{1, 1, 1});
+
+        stockReservationService.reserve(quantities);
+
+        ArgumentCaptor<SortedMap<Long, Integer>> captor = ArgumentCaptor.forClass(SortedMap.class);
+        verify(productStockRepository).decrementStock(captor.capture());
+        assertThat(captor.getValue().keySet()).containsExactly(10L, 20L, 30L);
+    }
+
+    @Test
+    @DisplayName("Should throw BusinessException naming the product that ran out")
+    void reserve_WhenLineNotUpdated_ShouldThrowBusinessException() {
+        when(productStockRepository.decrementStock(any())).thenReturn(new int[]{1, 0});
+
+        assertThatThrownBy(() -> stockReservationService.reserve(Map.of(7L, 1, 3L, 1)))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Insufficient stock for product id: 7");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    @DisplayName("Should increment stock in ascending product id order on release")
+    void release_ShouldIncrementInProductIdOrder() {
+        stockReservationService.release(Map.of(5L, 2, 1L, 4));
+
+        ArgumentCaptor<SortedMap<Long, Integer>> captor = ArgumentCaptor.forClass(SortedMap.class);
+        verify(productStockRepository).incrementStock(captor.capture());
+        assertThat(captor.getValue()).containsExactly(Map.entry(1L, 4), Map.entry(5L, 2));
+    }
+
+    @Test
+    @DisplayName("Should evict reserved products from the product cache")
+    void reserve_ShouldEvictCachedProducts() {
+        ConcurrentMapCache products = new ConcurrentMapCache("products");
+        products.put(1L, "cached");
+        products.put(2L, "untouched");
+        when(cacheManager.getCache("products")).thenReturn(products);
+        when(productStockRepository.decrementStock(any())).thenReturn(new int[]{1});
+
+        stockReservationService.reserve(Map.of(1L, 1));
+
+        assertThat(products.get(1L)).isNull();
+        assertThat(products.get(2L)).isNotNull();
+    }
+}
@@ -0,0 +1,3 @@
+-- Run by Hibernate after create-drop builds the H2 test schema. Flyway's V1 gives product.updated_at its
+-- DEFAULT NOW() in real databases; the entity never inserts the column, so the test schema needs the same default.
+ALTER TABLE product ALTER COLUMN updated_at SET DEFAULT CURRENT_TIMESTAMP;